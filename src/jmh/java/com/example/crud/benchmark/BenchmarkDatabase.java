@@ -0,0 +1,62 @@
+package com.example.crud.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Database H2 in-memory untuk benchmark: skema dari migrasi Flyway h2 dan
+ * sejumlah user dummy di atas dua user awal dari V4.
+ */
+public final class BenchmarkDatabase {
+
+    // Hash BCrypt dummy, panjangnya sama dengan data asli
+    private static final String PASSWORD_HASH = "$2a$10$Y9y3x3Lyn1aKbthD0djzYOrU0DOS8alL4udZBsqkPtlaaoYHM6mBK";
+    private static final int INSERT_BATCH_SIZE = 1_000;
+    // Id 1 dan 2 sudah dipakai user awal dari V4
+    public static final long FIRST_BENCHMARK_USER_ID = 3;
+
+    private BenchmarkDatabase() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static DataSource create(int userCount) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/h2")
+                .load()
+                .migrate();
+        insertUsers(new JdbcTemplate(dataSource), userCount);
+        return dataSource;
+    }
+
+    public static void shutdown(DataSource dataSource) {
+        new JdbcTemplate(dataSource).execute("SHUTDOWN");
+    }
+
+    private static void insertUsers(JdbcTemplate jdbcTemplate, int userCount) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < userCount; i++) {
+            batch.add(new Object[] { FIRST_BENCHMARK_USER_ID + i, "bench" + i + "@example.com", PASSWORD_HASH,
+                    (i % 2) + 1L, now, "bench" });
+            if (batch.size() == INSERT_BATCH_SIZE || i == userCount - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO users (id, username, password, role_id, created_at, created_by) VALUES (?, ?, ?, ?, ?, ?)",
+                        batch);
+                batch.clear();
+            }
+        }
+        // Migrasi V4 mengisi id secara eksplisit, identity harus dimajukan agar insert berikutnya tidak bentrok
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + (FIRST_BENCHMARK_USER_ID + userCount));
+    }
+}
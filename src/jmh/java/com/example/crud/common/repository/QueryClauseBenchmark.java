@@ -0,0 +1,68 @@
+package com.example.crud.common.repository;
+
+import com.example.crud.feature.user.model.User;
+import com.example.crud.feature.user.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pembentukan klausa WHERE dan ORDER BY tanpa akses database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryClauseBenchmark {
+
+    private AbstractJdbcRepository<User, Long> repository;
+    private Map<String, Object> filters;
+    private Sort sort;
+
+    @Setup
+    public void setUp() {
+        // DataSource tidak pernah dibuka, builder klausa hanya butuh metadata repository
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:clause-bench");
+        repository = new UserRepository(dataSource, JdbcClient.create(dataSource));
+        filters = new LinkedHashMap<>();
+        filters.put("username", "%bench%");
+        filters.put("role_id", 1L);
+        sort = Sort.by(Sort.Order.asc("username"), Sort.Order.desc("id"), Sort.Order.asc("not_allowed"));
+    }
+
+    @Benchmark
+    public String buildWhereClause() {
+        return repository.buildWhereClause(filters);
+    }
+
+    @Benchmark
+    public String buildWhereClauseWithAlias() {
+        return repository.buildWhereClause(filters, "u");
+    }
+
+    @Benchmark
+    public String buildSortClause() {
+        return repository.buildSortClause(sort);
+    }
+
+    @Benchmark
+    public String buildSortClauseWithAlias() {
+        return repository.buildSortClause(sort, "u");
+    }
+}
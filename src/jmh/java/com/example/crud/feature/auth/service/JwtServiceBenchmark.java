@@ -0,0 +1,68 @@
+package com.example.crud.feature.auth.service;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pembuatan dan parsing access token, dengan dan tanpa cache token terverifikasi.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "YmVuY2htYXJrLXNlY3JldC1rZXktZm9yLWhzMjU2LXNpZ25pbmc=";
+
+    private JwtService cachedService;
+    private JwtService uncachedService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedService = newService();
+        uncachedService = newService();
+        // Ukuran 0: setiap parse melewati verifikasi signature penuh
+        uncachedService.setVerifiedCacheMaxSize(0);
+        token = cachedService.generateToken("bench@example.com", List.of("ROLE_USER"));
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachedService.generateToken("bench@example.com", List.of("ROLE_USER"));
+    }
+
+    @Benchmark
+    public Claims parseTokenCached() {
+        return cachedService.parseToken(token);
+    }
+
+    @Benchmark
+    public Claims parseTokenUncached() {
+        return uncachedService.parseToken(token);
+    }
+
+    private static JwtService newService() {
+        JwtService service = new JwtService(new ConcurrentMapCacheManager("tokens"));
+        ReflectionTestUtils.setField(service, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpirationMs", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(service, "refreshTokenCacheName", "tokens");
+        return service;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.crud.feature.user.dto;
+
+import com.example.crud.feature.role.dto.RoleMapperImpl;
+import com.example.crud.feature.role.model.Role;
+import com.example.crud.feature.user.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping entity ke DTO lewat implementasi MapStruct yang di-generate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    private UserMapper userMapper;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        userMapper = new UserMapperImpl();
+        // componentModel spring: RoleMapper biasanya di-inject lewat field
+        ReflectionTestUtils.setField(userMapper, "roleMapper", new RoleMapperImpl());
+
+        Role role = new Role("ADMIN", "Administrator");
+        role.setId(1L);
+        user = new User();
+        user.setId(42L);
+        user.setUsername("bench@example.com");
+        user.setPassword("$2a$10$Y9y3x3Lyn1aKbthD0djzYOrU0DOS8alL4udZBsqkPtlaaoYHM6mBK");
+        user.setRole(role);
+        user.setCreatedAt(LocalDateTime.now());
+        user.setCreatedBy("bench");
+    }
+
+    @Benchmark
+    public UserResponseDto toDto() {
+        return userMapper.toDto(user);
+    }
+}
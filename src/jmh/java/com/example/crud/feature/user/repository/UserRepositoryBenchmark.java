@@ -0,0 +1,92 @@
+package com.example.crud.feature.user.repository;
+
+import com.example.crud.benchmark.BenchmarkDatabase;
+import com.example.crud.common.repository.CountStrategy;
+import com.example.crud.feature.user.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round-trip findById / findAll ke H2 in-memory pada beberapa ukuran tabel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserRepositoryBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int tableSize;
+
+    private DataSource dataSource;
+    private UserRepository repository;
+    private Pageable firstPage;
+    private Pageable deepPage;
+    private Map<String, Object> usernameFilter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = BenchmarkDatabase.create(tableSize);
+        repository = new UserRepository(dataSource, JdbcClient.create(dataSource));
+        Sort sort = Sort.by("username");
+        firstPage = PageRequest.of(0, 20, sort);
+        deepPage = PageRequest.of(tableSize / 20 / 2, 20, sort);
+        usernameFilter = Map.of("username", "bench1%");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.shutdown(dataSource);
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return repository.findById(ThreadLocalRandom.current().nextLong(1,
+                BenchmarkDatabase.FIRST_BENCHMARK_USER_ID + tableSize));
+    }
+
+    @Benchmark
+    public Page<User> findAllFirstPage() {
+        return repository.findAll(firstPage, Map.of());
+    }
+
+    @Benchmark
+    public Page<User> findAllDeepPage() {
+        return repository.findAll(deepPage, Map.of());
+    }
+
+    @Benchmark
+    public Slice<User> findAllDeepPageWithoutCount() {
+        return repository.findAll(deepPage, Map.of(), CountStrategy.NONE);
+    }
+
+    @Benchmark
+    public Page<User> findAllWithLikeFilter() {
+        return repository.findAll(firstPage, usernameFilter);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.crud.feature.user.repository;
+
+import com.example.crud.benchmark.BenchmarkDatabase;
+import com.example.crud.feature.user.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Biaya USER_ROW_MAPPER untuk satu baris hasil join users-roles, tanpa round-trip query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserRowMapperBenchmark {
+
+    private static final String SELECT_ONE_SQL = """
+            SELECT
+                u.id as user_id, u.username as user_username, u.password as user_password,
+                u.created_at as user_created_at, u.created_by as user_created_by,
+                u.updated_at as user_updated_at, u.updated_by as user_updated_by,
+                r.id as role_id, r.name as role_name, r.description as role_description
+            FROM users u
+            LEFT JOIN roles r ON u.role_id = r.id
+            WHERE u.id = ?
+            """;
+
+    private DataSource dataSource;
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dataSource = BenchmarkDatabase.create(1);
+        connection = dataSource.getConnection();
+        statement = connection.prepareStatement(SELECT_ONE_SQL);
+        statement.setLong(1, BenchmarkDatabase.FIRST_BENCHMARK_USER_ID);
+        resultSet = statement.executeQuery();
+        if (!resultSet.next()) {
+            throw new IllegalStateException("Benchmark row not found");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        resultSet.close();
+        statement.close();
+        connection.close();
+        BenchmarkDatabase.shutdown(dataSource);
+    }
+
+    @Benchmark
+    public User mapRow() throws SQLException {
+        // Cursor tetap di baris yang sama, mapper hanya membaca kolom baris aktif
+        return UserRepository.USER_ROW_MAPPER.mapRow(resultSet, 0);
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 
 @Aspect
 @Component
@@ -28,12 +29,24 @@ public class AuditTrailAspect {
     public void beforeSave(JoinPoint joinPoint, Object entity) {
         if (entity instanceof Auditable auditableEntity) {
             String currentUser = getCurrentUsername();
-            LocalDateTime now = LocalDateTime.now();
             logger.debug("[AuditTrailAspect] beforeSave - currentUser: {}", currentUser);
-            auditableEntity.setCreatedAt(now);
-            auditableEntity.setCreatedBy(currentUser);
-            auditableEntity.setUpdatedAt(now); // Saat create, updated = created
-            auditableEntity.setUpdatedBy(currentUser);
+            stampCreated(auditableEntity, currentUser, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Pointcut untuk saveAll(): setiap entity di dalam batch diberi audit yang sama
+     * (user dan timestamp diambil sekali per batch).
+     */
+    @Before("execution(* com.example.crud.common.repository.GenericRepository.saveAll(..)) && args(entities)")
+    public void beforeSaveAll(JoinPoint joinPoint, Collection<?> entities) {
+        String currentUser = getCurrentUsername();
+        LocalDateTime now = LocalDateTime.now();
+        logger.debug("[AuditTrailAspect] beforeSaveAll - currentUser: {}, size: {}", currentUser, entities.size());
+        for (Object entity : entities) {
+            if (entity instanceof Auditable auditableEntity) {
+                stampCreated(auditableEntity, currentUser, now);
+            }
         }
     }
 
@@ -52,13 +65,36 @@ public class AuditTrailAspect {
         return pjp.proceed();
     }
 
+    /**
+     * Pointcut untuk updateAll().
+     */
+    @Before("execution(* com.example.crud.common.repository.GenericRepository.updateAll(..)) && args(entities)")
+    public void beforeUpdateAll(JoinPoint joinPoint, Collection<?> entities) {
+        String currentUser = getCurrentUsername();
+        LocalDateTime now = LocalDateTime.now();
+        logger.debug("[AuditTrailAspect] beforeUpdateAll - currentUser: {}, size: {}", currentUser, entities.size());
+        for (Object entity : entities) {
+            if (entity instanceof Auditable auditableEntity) {
+                auditableEntity.setUpdatedAt(now);
+                auditableEntity.setUpdatedBy(currentUser);
+            }
+        }
+    }
+
+    private void stampCreated(Auditable auditableEntity, String currentUser, LocalDateTime now) {
+        auditableEntity.setCreatedAt(now);
+        auditableEntity.setCreatedBy(currentUser);
+        auditableEntity.setUpdatedAt(now); // Saat create, updated = created
+        auditableEntity.setUpdatedBy(currentUser);
+    }
+
     /**
      * Mengambil username dari konteks keamanan Spring Security.
      * Untuk tujuan demo, kita akan hardcode jika tidak ada konteks keamanan.
      * 
      * @return Nama pengguna saat ini atau "SYSTEM" jika tidak ditemukan.
      */
-    String getCurrentUsername() {
+    public String getCurrentUsername() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()
                 || "anonymousUser".equals(authentication.getName())) {
@@ -0,0 +1,19 @@
+package com.example.crud.common.cache;
+
+/**
+ * Satu eviction yang disebarkan ke node lain: satu key, atau seluruh isi cache jika key null.
+ */
+public record CacheInvalidation(String cacheName, Object key) {
+
+    public static CacheInvalidation entry(String cacheName, Object key) {
+        return new CacheInvalidation(cacheName, key);
+    }
+
+    public static CacheInvalidation allEntries(String cacheName) {
+        return new CacheInvalidation(cacheName, null);
+    }
+
+    public boolean isAllEntries() {
+        return key == null;
+    }
+}
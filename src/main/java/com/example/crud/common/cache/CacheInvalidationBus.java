@@ -0,0 +1,23 @@
+package com.example.crud.common.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Menyebarkan eviction cache lokal ke node lain dan meneruskan eviction dari node lain
+ * ke subscriber di node ini.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Menjadwalkan invalidation untuk dikirim. Di dalam transaksi, pengiriman ditunda sampai
+     * commit dan dibatalkan jika rollback.
+     */
+    void publish(CacheInvalidation invalidation);
+
+    /**
+     * @param onInvalidation dipanggil untuk setiap invalidation dari node lain
+     * @param onMessagesLost dipanggil saat pesan mungkin terlewat (mis. koneksi listener putus),
+     *                       subscriber sebaiknya mengosongkan cache-nya
+     */
+    void subscribe(Consumer<CacheInvalidation> onInvalidation, Runnable onMessagesLost);
+}
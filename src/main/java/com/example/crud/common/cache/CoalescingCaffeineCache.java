@@ -0,0 +1,46 @@
+package com.example.crud.common.cache;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link CaffeineCache} yang menghitung permintaan yang digabung (single-flight).
+ * <p>
+ * Dengan {@code @Cacheable(sync = true)} miss diproses lewat {@link #get(Object, Callable)}:
+ * Caffeine hanya menjalankan satu loader per key, pemanggil lain menunggu hasilnya.
+ * Pemanggil yang mendapati miss tetapi nilainya dimuat oleh thread lain dihitung sebagai coalesced.
+ */
+public class CoalescingCaffeineCache extends CaffeineCache {
+
+    private final LongAdder coalesced = new LongAdder();
+
+    public CoalescingCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+            boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (getNativeCache().getIfPresent(key) != null) {
+            return super.get(key, valueLoader);
+        }
+        boolean[] loadedHere = new boolean[1];
+        T value = super.get(key, () -> {
+            loadedHere[0] = true;
+            return valueLoader.call();
+        });
+        if (!loadedHere[0]) {
+            coalesced.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Jumlah pemanggil yang menunggu loader milik thread lain alih-alih memuat sendiri.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.crud.common.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Membungkus CacheManager lokal: evict/clear pada cache yang terdaftar ikut dikirim lewat
+ * {@link CacheInvalidationBus}, dan invalidation dari node lain diterapkan langsung ke cache
+ * lokal tanpa dikirim ulang.
+ */
+public class InvalidationBroadcastingCacheManager implements CacheManager {
+
+    private final CacheManager target;
+    private final CacheInvalidationBus bus;
+    private final Set<String> broadcastCacheNames;
+    private final ConcurrentMap<String, Cache> decoratedCaches = new ConcurrentHashMap<>();
+
+    public InvalidationBroadcastingCacheManager(CacheManager target, CacheInvalidationBus bus,
+            Collection<String> broadcastCacheNames) {
+        this.target = target;
+        this.bus = bus;
+        this.broadcastCacheNames = Set.copyOf(broadcastCacheNames);
+        bus.subscribe(this::applyRemote, this::clearBroadcastCaches);
+    }
+
+    public CacheManager getTargetCacheManager() {
+        return target;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = target.getCache(name);
+        if (cache == null || !broadcastCacheNames.contains(name)) {
+            return cache;
+        }
+        return decoratedCaches.computeIfAbsent(name, key -> new BroadcastingCache(cache, bus));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return target.getCacheNames();
+    }
+
+    private void applyRemote(CacheInvalidation invalidation) {
+        Cache cache = target.getCache(invalidation.cacheName());
+        if (cache == null) {
+            return;
+        }
+        if (invalidation.isAllEntries()) {
+            cache.clear();
+        } else {
+            cache.evict(invalidation.key());
+        }
+    }
+
+    private void clearBroadcastCaches() {
+        for (String name : broadcastCacheNames) {
+            Cache cache = target.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * Cache yang evict/clear-nya ikut dikirim ke bus. {@link #getTargetCache()} dipakai
+     * untuk binding metrics ke cache Caffeine aslinya.
+     */
+    public static final class BroadcastingCache implements Cache {
+
+        private final Cache delegate;
+        private final CacheInvalidationBus bus;
+
+        BroadcastingCache(Cache delegate, CacheInvalidationBus bus) {
+            this.delegate = delegate;
+            this.bus = bus;
+        }
+
+        public Cache getTargetCache() {
+            return delegate;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return delegate.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return delegate.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return delegate.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return delegate.get(key, valueLoader);
+        }
+
+        @Override
+        public CompletableFuture<?> retrieve(Object key) {
+            return delegate.retrieve(key);
+        }
+
+        @Override
+        public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+            return delegate.retrieve(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            delegate.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return delegate.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            delegate.evict(key);
+            bus.publish(CacheInvalidation.entry(getName(), key));
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            boolean present = delegate.evictIfPresent(key);
+            // Node lain bisa saja menyimpan key ini meski di node ini tidak ada
+            bus.publish(CacheInvalidation.entry(getName(), key));
+            return present;
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+            bus.publish(CacheInvalidation.allEntries(getName()));
+        }
+
+        @Override
+        public boolean invalidate() {
+            boolean hadEntries = delegate.invalidate();
+            bus.publish(CacheInvalidation.allEntries(getName()));
+            return hadEntries;
+        }
+    }
+}
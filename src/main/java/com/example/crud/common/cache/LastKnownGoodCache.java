@@ -0,0 +1,57 @@
+package com.example.crud.common.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Menyimpan hasil sukses terakhir per key untuk dilayani saat sumber data tidak tersedia
+ * (stale-while-unavailable). Berbeda dengan cache biasa, isinya tidak dipakai selama sumber
+ * data sehat; batas umur hanya mencegah data yang terlalu lama disajikan.
+ */
+public class LastKnownGoodCache<K, V> {
+
+    public record Entry<V>(V value, Instant storedAt) {
+
+        public Duration age(Clock clock) {
+            return Duration.between(storedAt, clock.instant());
+        }
+    }
+
+    private final Cache<K, Entry<V>> entries;
+    private final Clock clock;
+
+    public LastKnownGoodCache(long maximumSize, Duration maxAge) {
+        this(maximumSize, maxAge, Clock.systemUTC());
+    }
+
+    LastKnownGoodCache(long maximumSize, Duration maxAge, Clock clock) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(maxAge)
+                .build();
+        this.clock = clock;
+    }
+
+    public void put(K key, V value) {
+        if (value != null) {
+            entries.put(key, new Entry<>(value, clock.instant()));
+        }
+    }
+
+    public Optional<Entry<V>> get(K key) {
+        return Optional.ofNullable(entries.getIfPresent(key));
+    }
+
+    public void invalidate(K key) {
+        entries.invalidate(key);
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+}
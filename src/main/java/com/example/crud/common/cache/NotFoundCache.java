@@ -0,0 +1,58 @@
+package com.example.crud.common.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+
+/**
+ * Negative cache untuk lookup by id yang tidak menemukan data. Id yang baru saja tidak ditemukan
+ * dijawab dari cache sampai TTL-nya habis atau cache dikosongkan saat data baru dibuat,
+ * sehingga permintaan berulang ke id yang tidak ada tidak sampai ke database.
+ * <p>
+ * Setiap not-found dicatat sebagai resource.not_found{resource, source=cache|database}.
+ */
+public class NotFoundCache {
+
+    private final Cache cache;
+    private final Counter cacheHits;
+    private final Counter databaseMisses;
+
+    /**
+     * @param cache cache Spring dengan TTL pendek; null berarti negative caching tidak aktif,
+     *              hanya metrics yang dicatat
+     */
+    public NotFoundCache(Cache cache, String resource, MeterRegistry registry) {
+        this.cache = cache;
+        this.cacheHits = counter(registry, resource, "cache");
+        this.databaseMisses = counter(registry, resource, "database");
+    }
+
+    private static Counter counter(MeterRegistry registry, String resource, String source) {
+        return Counter.builder("resource.not_found")
+                .description("Lookups by id that found no data")
+                .tag("resource", resource)
+                .tag("source", source)
+                .register(registry);
+    }
+
+    /**
+     * True jika id ini baru saja tidak ditemukan; pemanggil langsung menjawab not found.
+     */
+    public boolean isKnownMissing(Object id) {
+        if (cache != null && cache.get(id) != null) {
+            cacheHits.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Dipanggil setelah database tidak menemukan id ini.
+     */
+    public void markMissing(Object id) {
+        databaseMisses.increment();
+        if (cache != null) {
+            cache.put(id, Boolean.TRUE);
+        }
+    }
+}
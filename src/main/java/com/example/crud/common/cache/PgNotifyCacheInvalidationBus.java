@@ -0,0 +1,369 @@
+package com.example.crud.common.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Bus invalidation di atas PostgreSQL LISTEN/NOTIFY, tanpa infrastruktur tambahan.
+ * Invalidation dikumpulkan dan dideduplikasi, lalu dikirim per interval sebagai satu NOTIFY
+ * (dipecah jika melewati batas payload). Satu koneksi pool dipakai permanen untuk LISTEN.
+ */
+public class PgNotifyCacheInvalidationBus implements CacheInvalidationBus, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PgNotifyCacheInvalidationBus.class);
+
+    // Payload NOTIFY dibatasi 8000 byte oleh PostgreSQL
+    static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    /**
+     * Tipe key yang bisa dikirim. Key dengan tipe lain dikirim sebagai invalidation seluruh cache.
+     */
+    enum KeyType {
+        STRING, LONG, INTEGER;
+
+        static KeyType of(Object key) {
+            if (key instanceof String) {
+                return STRING;
+            }
+            if (key instanceof Long) {
+                return LONG;
+            }
+            if (key instanceof Integer) {
+                return INTEGER;
+            }
+            return null;
+        }
+
+        Object parse(String value) {
+            return switch (this) {
+                case STRING -> value;
+                case LONG -> Long.valueOf(value);
+                case INTEGER -> Integer.valueOf(value);
+            };
+        }
+    }
+
+    record Entry(String cache, String key, KeyType type) {
+    }
+
+    record Message(String node, List<Entry> entries) {
+    }
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Object transactionBufferKey = new Object();
+    private final Set<CacheInvalidation> pending = new LinkedHashSet<>();
+    private final List<Consumer<CacheInvalidation>> invalidationSubscribers = new CopyOnWriteArrayList<>();
+    private final List<Runnable> messagesLostSubscribers = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService flusher;
+    private Thread listener;
+    private volatile boolean running;
+
+    public PgNotifyCacheInvalidationBus(DataSource dataSource, ObjectMapper objectMapper, String channel) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid NOTIFY channel name: " + channel);
+        }
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> onInvalidation, Runnable onMessagesLost) {
+        invalidationSubscribers.add(onInvalidation);
+        messagesLostSubscribers.add(onMessagesLost);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Sebelum commit node lain masih bisa memuat ulang data lama ke cache-nya
+            transactionBuffer().add(invalidation);
+        } else {
+            enqueue(List.of(invalidation));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<CacheInvalidation> transactionBuffer() {
+        Set<CacheInvalidation> buffer = (Set<CacheInvalidation>) TransactionSynchronizationManager
+                .getResource(transactionBufferKey);
+        if (buffer == null) {
+            Set<CacheInvalidation> newBuffer = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(transactionBufferKey, newBuffer);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(newBuffer);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(transactionBufferKey);
+                }
+            });
+            buffer = newBuffer;
+        }
+        return buffer;
+    }
+
+    private void enqueue(Collection<CacheInvalidation> invalidations) {
+        synchronized (pending) {
+            pending.addAll(invalidations);
+        }
+    }
+
+    /**
+     * Mulai mendengarkan channel dan mengirim invalidation yang tertunda setiap flushInterval.
+     */
+    public synchronized void start(Duration flushInterval) {
+        if (running) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+            flush();
+            listener.join(POLL_TIMEOUT_MS * 2L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Mengirim semua invalidation tertunda. Jika gagal, invalidation dikembalikan ke antrean
+     * dan dicoba lagi pada flush berikutnya.
+     */
+    public void flush() {
+        List<CacheInvalidation> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = coalesce(pending);
+            pending.clear();
+        }
+        try {
+            for (String payload : encode(batch)) {
+                jdbcTemplate.query(NOTIFY_SQL, rs -> null, channel, payload);
+            }
+            log.debug("Terkirim {} cache invalidation di channel {}", batch.size(), channel);
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Gagal mengirim {} cache invalidation, dicoba lagi: {}", batch.size(), e.getMessage());
+            enqueue(batch);
+        }
+    }
+
+    /**
+     * Menghapus duplikat dan eviction per key yang sudah tercakup invalidation seluruh cache.
+     */
+    static List<CacheInvalidation> coalesce(Collection<CacheInvalidation> invalidations) {
+        Set<String> clearedCaches = new HashSet<>();
+        for (CacheInvalidation invalidation : invalidations) {
+            if (invalidation.isAllEntries()) {
+                clearedCaches.add(invalidation.cacheName());
+            }
+        }
+        Set<CacheInvalidation> result = new LinkedHashSet<>();
+        for (CacheInvalidation invalidation : invalidations) {
+            if (invalidation.isAllEntries() || !clearedCaches.contains(invalidation.cacheName())) {
+                result.add(invalidation);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    List<String> encode(List<CacheInvalidation> batch) throws JsonProcessingException {
+        int overhead = utf8Length(objectMapper.writeValueAsString(new Message(nodeId, List.of())));
+        List<String> payloads = new ArrayList<>();
+        List<Entry> chunk = new ArrayList<>();
+        int chunkBytes = overhead;
+        for (CacheInvalidation invalidation : batch) {
+            Entry entry = toEntry(invalidation);
+            // +1 untuk koma pemisah antar entry
+            int entryBytes = utf8Length(objectMapper.writeValueAsString(entry)) + 1;
+            if (!chunk.isEmpty() && chunkBytes + entryBytes > MAX_PAYLOAD_BYTES) {
+                payloads.add(objectMapper.writeValueAsString(new Message(nodeId, chunk)));
+                chunk = new ArrayList<>();
+                chunkBytes = overhead;
+            }
+            if (overhead + entryBytes > MAX_PAYLOAD_BYTES) {
+                // Key terlalu panjang untuk satu NOTIFY, kosongkan cache-nya saja
+                entry = new Entry(invalidation.cacheName(), null, null);
+                entryBytes = utf8Length(objectMapper.writeValueAsString(entry)) + 1;
+            }
+            chunk.add(entry);
+            chunkBytes += entryBytes;
+        }
+        if (!chunk.isEmpty()) {
+            payloads.add(objectMapper.writeValueAsString(new Message(nodeId, chunk)));
+        }
+        return payloads;
+    }
+
+    private static Entry toEntry(CacheInvalidation invalidation) {
+        KeyType type = invalidation.isAllEntries() ? null : KeyType.of(invalidation.key());
+        if (type == null) {
+            return new Entry(invalidation.cacheName(), null, null);
+        }
+        return new Entry(invalidation.cacheName(), invalidation.key().toString(), type);
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Menerapkan satu payload NOTIFY. Pesan dari node ini sendiri diabaikan karena cache
+     * lokal sudah dievict saat publish.
+     */
+    void handle(String payload) {
+        Message message;
+        try {
+            message = objectMapper.readValue(payload, Message.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Payload cache invalidation tidak valid diabaikan: {}", e.getOriginalMessage());
+            return;
+        }
+        if (nodeId.equals(message.node()) || message.entries() == null) {
+            return;
+        }
+        List<CacheInvalidation> invalidations = new ArrayList<>(message.entries().size());
+        for (Entry entry : message.entries()) {
+            invalidations.add(entry.key() == null || entry.type() == null
+                    ? CacheInvalidation.allEntries(entry.cache())
+                    : CacheInvalidation.entry(entry.cache(), entry.type().parse(entry.key())));
+        }
+        for (CacheInvalidation invalidation : coalesce(invalidations)) {
+            for (Consumer<CacheInvalidation> subscriber : invalidationSubscribers) {
+                subscriber.accept(invalidation);
+            }
+        }
+    }
+
+    private void listen() {
+        Connection connection = null;
+        boolean reconnecting = false;
+        while (running) {
+            try {
+                if (connection == null) {
+                    connection = openListenConnection();
+                    if (reconnecting) {
+                        // Pesan selama koneksi putus tidak akan pernah diterima
+                        messagesLostSubscribers.forEach(Runnable::run);
+                        log.info("Listener cache invalidation tersambung kembali ke channel {}", channel);
+                    }
+                    reconnecting = false;
+                }
+                PGNotification[] notifications = connection.unwrap(PGConnection.class)
+                        .getNotifications(POLL_TIMEOUT_MS);
+                if (notifications != null) {
+                    for (PGNotification notification : notifications) {
+                        if (channel.equals(notification.getName())) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    log.warn("Listener cache invalidation terputus, mencoba lagi: {}", e.getMessage());
+                }
+                closeQuietly(connection);
+                connection = null;
+                reconnecting = true;
+                sleepBeforeReconnect();
+            }
+        }
+        closeQuietly(connection);
+    }
+
+    private Connection openListenConnection() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + channel);
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw e;
+        }
+        return connection;
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Gagal menutup koneksi listener", e);
+        }
+    }
+}
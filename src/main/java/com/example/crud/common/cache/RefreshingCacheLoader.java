@@ -0,0 +1,13 @@
+package com.example.crud.common.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+
+/**
+ * Loader untuk cache yang spec-nya memakai refreshAfterWrite. Entry yang sudah melewati
+ * interval refresh tetap dilayani sementara loader memuat nilai baru di background;
+ * null berarti data sudah tidak ada dan entry dihapus.
+ */
+public interface RefreshingCacheLoader extends CacheLoader<Object, Object> {
+
+    String getCacheName();
+}
@@ -0,0 +1,32 @@
+package com.example.crud.common.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Mencatat user yang baru saja menulis. Selama window masih berlaku, bacaan user tersebut
+ * diarahkan ke primary agar perubahannya sendiri langsung terlihat meski replica tertinggal.
+ */
+public class ReadYourWritesTracker {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration window, long maxSize) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public void recordWrite(String username) {
+        if (username != null) {
+            recentWriters.put(username, Boolean.TRUE);
+        }
+    }
+
+    public boolean isWithinWindow(String username) {
+        return username != null && recentWriters.getIfPresent(username) != null;
+    }
+}
@@ -0,0 +1,468 @@
+package com.example.crud.common.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * DataSource yang memilih primary atau replica per koneksi. Koneksi fisik baru diambil saat
+ * statement pertama dibuat, sehingga keputusan bisa memakai status transaksi dan SQL-nya:
+ * <ul>
+ * <li>transaksi read-only (atau koneksi yang di-set read-only) ke replica,</li>
+ * <li>transaksi read-write ke primary,</li>
+ * <li>tanpa transaksi: SELECT biasa ke replica, statement lain ke primary.</li>
+ * </ul>
+ * Bacaan tetap ke primary jika user yang sama baru menulis (read-your-writes) atau tidak ada
+ * replica yang lag-nya di bawah batas.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    /**
+     * Lag replay dalam milidetik. Replica yang sudah memutar ulang semua WAL yang diterima
+     * dianggap tidak tertinggal, meski transaksi terakhirnya sudah lama.
+     */
+    static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0)
+            END
+            """;
+
+    // SELECT yang mengunci baris, memanggil fungsi sequence, atau NOTIFY tetap harus ke primary
+    private static final Pattern WRITING_SELECT = Pattern.compile(
+            "\\bFOR\\s+(UPDATE|SHARE|NO\\s+KEY\\s+UPDATE|KEY\\s+SHARE)\\b|\\b(NEXTVAL|SETVAL|PG_NOTIFY)\\s*\\(",
+            Pattern.CASE_INSENSITIVE);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final ReadYourWritesTracker readYourWrites;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private ScheduledExecutorService lagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, Duration maxLag,
+            ReadYourWritesTracker readYourWrites) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = maxLag;
+        this.readYourWrites = readYourWrites;
+    }
+
+    /**
+     * Replica beserta lag terakhir yang teramati. Replica yang belum pernah dicek atau gagal
+     * dicek dianggap tidak tersedia.
+     */
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long lagMillis = Long.MAX_VALUE;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public long getLagMillis() {
+            return lagMillis;
+        }
+
+        void setLagMillis(long lagMillis) {
+            this.lagMillis = lagMillis;
+        }
+    }
+
+    /**
+     * Mengecek lag semua replica sekali, lalu mengulanginya di background setiap interval.
+     */
+    public synchronized void start(Duration checkInterval) {
+        checkReplicaLag();
+        if (lagMonitor == null) {
+            lagMonitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-lag-monitor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMs = checkInterval.toMillis();
+            lagMonitor.scheduleWithFixedDelay(this::checkReplicaLag, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (lagMonitor != null) {
+            lagMonitor.shutdownNow();
+            lagMonitor = null;
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Gagal menutup pool replica {}", replica.name, e);
+                }
+            }
+        }
+    }
+
+    public void checkReplicaLag() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                    Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                rs.next();
+                setReplicaLag(replica, Duration.ofMillis(Math.round(rs.getDouble(1))));
+            } catch (SQLException | RuntimeException e) {
+                if (replica.lagMillis != Long.MAX_VALUE) {
+                    log.warn("Replica {} tidak bisa dicek, bacaan dialihkan ke primary: {}", replica.name, e.getMessage());
+                }
+                replica.setLagMillis(Long.MAX_VALUE);
+            }
+        }
+    }
+
+    void setReplicaLag(Replica replica, Duration lag) {
+        boolean wasAvailable = isAvailable(replica);
+        replica.setLagMillis(lag.toMillis());
+        if (wasAvailable != isAvailable(replica)) {
+            log.info("Replica {} {} (lag {} ms, batas {} ms)", replica.name,
+                    wasAvailable ? "tertinggal, bacaan dialihkan ke primary" : "kembali tersedia",
+                    lag.toMillis(), maxLag.toMillis());
+        }
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    private boolean isAvailable(Replica replica) {
+        return replica.lagMillis <= maxLag.toMillis();
+    }
+
+    @Override
+    public Connection getConnection() {
+        return lazyConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) {
+        return lazyConnection(username, password);
+    }
+
+    private Connection lazyConnection(String username, String password) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                new LazyRoutingConnection(username, password));
+    }
+
+    /**
+     * Memilih DataSource tujuan untuk koneksi yang statement pertamanya adalah sql
+     * (null jika belum diketahui, misalnya createStatement atau getMetaData).
+     */
+    DataSource determineTarget(String sql, boolean connectionReadOnly) {
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        boolean read = connectionReadOnly || (inTransaction
+                ? TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                : isReadStatement(sql));
+        String username = currentUsername();
+        if (!read) {
+            recordWrite(username);
+            return primary;
+        }
+        if (readYourWrites.isWithinWindow(username)) {
+            return primary;
+        }
+        Replica replica = nextAvailableReplica();
+        return replica != null ? replica.dataSource : primary;
+    }
+
+    private void recordWrite(String username) {
+        if (username == null) {
+            return;
+        }
+        // Window dihitung sejak commit, bukan sejak statement pertama transaksi
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readYourWrites.recordWrite(username);
+                }
+            });
+        } else {
+            readYourWrites.recordWrite(username);
+        }
+    }
+
+    private Replica nextAvailableReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (isAvailable(replica)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    static boolean isReadStatement(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        String head = sql.stripLeading();
+        while (head.startsWith("(")) {
+            head = head.substring(1).stripLeading();
+        }
+        return head.regionMatches(true, 0, "SELECT", 0, 6) && !WRITING_SELECT.matcher(sql).find();
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    /**
+     * Proxy Connection yang menunda pengambilan koneksi fisik. Pengaturan yang dilakukan
+     * transaction manager sebelum statement pertama (autoCommit, readOnly, isolation) dicatat
+     * lalu diterapkan ke koneksi tujuan.
+     */
+    private final class LazyRoutingConnection implements InvocationHandler {
+
+        private final String username;
+        private final String password;
+        private Connection target;
+        private Boolean autoCommit;
+        private boolean readOnly;
+        private Integer transactionIsolation;
+        private boolean closed;
+
+        LazyRoutingConnection(String username, String password) {
+            this.username = username;
+            this.password = password;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Lazy routing connection" + (target != null ? " [" + target + "]" : "");
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "isClosed":
+                    return closed || (target != null && target.isClosed());
+                case "close":
+                    closed = true;
+                    if (target != null) {
+                        target.close();
+                    }
+                    return null;
+                default:
+                    break;
+            }
+
+            if (target == null) {
+                switch (method.getName()) {
+                    case "getAutoCommit":
+                        return autoCommit == null || autoCommit;
+                    case "setAutoCommit":
+                        autoCommit = (Boolean) args[0];
+                        return null;
+                    case "isReadOnly":
+                        return readOnly;
+                    case "setReadOnly":
+                        readOnly = (Boolean) args[0];
+                        return null;
+                    case "setTransactionIsolation":
+                        transactionIsolation = (Integer) args[0];
+                        return null;
+                    case "getTransactionIsolation":
+                        if (transactionIsolation != null) {
+                            return transactionIsolation;
+                        }
+                        break;
+                    case "commit", "rollback", "clearWarnings":
+                        // Belum ada statement yang dijalankan, tidak ada yang perlu di-commit
+                        return null;
+                    case "getWarnings":
+                        return null;
+                    case "createStatement":
+                        // SQL Statement biasa baru diketahui saat execute, tujuan dipilih di situ
+                        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Statement.class },
+                                new LazyStatement((Connection) proxy, method, args));
+                    default:
+                        break;
+                }
+                String sql = switch (method.getName()) {
+                    case "prepareStatement", "prepareCall", "nativeSQL" -> (String) args[0];
+                    default -> null;
+                };
+                targetFor(sql);
+            }
+
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        private Connection targetFor(String sql) throws SQLException {
+            if (target == null) {
+                target = openTarget(sql);
+            }
+            return target;
+        }
+
+        private Connection openTarget(String sql) throws SQLException {
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+            DataSource dataSource = determineTarget(sql, readOnly);
+            Connection connection = (username != null)
+                    ? dataSource.getConnection(username, password)
+                    : dataSource.getConnection();
+            try {
+                if (autoCommit != null && connection.getAutoCommit() != autoCommit) {
+                    connection.setAutoCommit(autoCommit);
+                }
+                if (readOnly) {
+                    connection.setReadOnly(true);
+                }
+                if (transactionIsolation != null) {
+                    connection.setTransactionIsolation(transactionIsolation);
+                }
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+            if (log.isTraceEnabled()) {
+                log.trace("Koneksi diarahkan ke {} untuk: {}", dataSource == primary ? "primary" : "replica",
+                        sql != null ? sql.strip() : "<tanpa SQL>");
+            }
+            return connection;
+        }
+
+        /**
+         * Proxy Statement untuk createStatement sebelum koneksi fisik ada. Setter (fetchSize,
+         * queryTimeout, dan sebagainya) dicatat lalu diulang pada Statement asli.
+         */
+        private final class LazyStatement implements InvocationHandler {
+
+            private final Connection connectionProxy;
+            private final Method createMethod;
+            private final Object[] createArgs;
+            private final List<Object[]> settings = new ArrayList<>();
+            private final List<Method> settingMethods = new ArrayList<>();
+            private Statement statement;
+            private boolean statementClosed;
+
+            LazyStatement(Connection connectionProxy, Method createMethod, Object[] createArgs) {
+                this.connectionProxy = connectionProxy;
+                this.createMethod = createMethod;
+                this.createArgs = createArgs;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                switch (name) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Lazy routing statement" + (statement != null ? " [" + statement + "]" : "");
+                    case "getConnection":
+                        return connectionProxy;
+                    default:
+                        break;
+                }
+                if (statement == null) {
+                    if (name.equals("close")) {
+                        statementClosed = true;
+                        return null;
+                    }
+                    if (name.equals("isClosed")) {
+                        return statementClosed;
+                    }
+                    if (name.startsWith("set")) {
+                        settingMethods.add(method);
+                        settings.add(args);
+                        return null;
+                    }
+                    boolean withSql = (name.startsWith("execute") || name.equals("addBatch"))
+                            && args != null && args.length > 0 && args[0] instanceof String;
+                    statement = openStatement(withSql ? (String) args[0] : null);
+                }
+                try {
+                    return method.invoke(statement, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }
+
+            private Statement openStatement(String sql) throws Throwable {
+                if (statementClosed) {
+                    throw new SQLException("Statement is closed");
+                }
+                try {
+                    Statement opened = (Statement) createMethod.invoke(targetFor(sql), createArgs);
+                    for (int i = 0; i < settingMethods.size(); i++) {
+                        settingMethods.get(i).invoke(opened, settings.get(i));
+                    }
+                    return opened;
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }
+        }
+    }
+}
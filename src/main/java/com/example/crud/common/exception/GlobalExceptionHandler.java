@@ -1,6 +1,9 @@
 package com.example.crud.common.exception;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -11,12 +14,16 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 
 import com.example.crud.common.dto.ErrorResponseDto;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
+
+    private static final Duration BULKHEAD_RETRY_AFTER = Duration.ofSeconds(1);
+
     @ExceptionHandler(com.example.crud.common.exception.InvalidRefreshTokenException.class)
     public ResponseEntity<ErrorResponseDto> handleInvalidRefreshToken(
             com.example.crud.common.exception.InvalidRefreshTokenException ex, HttpServletRequest request) {
@@ -29,6 +36,30 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, org.springframework.http.HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponseDto> handleInvalidCursor(
+            InvalidCursorException ex, HttpServletRequest request) {
+        ErrorResponseDto errorResponse = new ErrorResponseDto(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                "Bad Request",
+                ex.getMessage(),
+                request.getRequestURI());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<ErrorResponseDto> handleInvalidImportFile(
+            InvalidImportFileException ex, HttpServletRequest request) {
+        ErrorResponseDto errorResponse = new ErrorResponseDto(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                "Bad Request",
+                ex.getMessage(),
+                request.getRequestURI());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponseDto> handleResourceNotFoundException(
             ResourceNotFoundException ex, HttpServletRequest request) {
@@ -41,6 +72,68 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Circuit terbuka dan tidak ada data lama yang bisa disajikan: 503, bukan data palsu.
+     */
+    @ExceptionHandler(CallNotPermittedException.class)
+    public ResponseEntity<ErrorResponseDto> handleCallNotPermitted(
+            CallNotPermittedException ex, HttpServletRequest request) {
+        ErrorResponseDto errorResponse = new ErrorResponseDto(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                ex.getMessage(),
+                request.getRequestURI());
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Beban dibuang oleh limiter konkurensi: 503 cepat dengan Retry-After agar client mundur.
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponseDto> handleServiceOverloaded(
+            ServiceOverloadedException ex, HttpServletRequest request) {
+        return serviceUnavailable(ex.getMessage(), ex.getRetryAfter(), request);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponseDto> handleRateLimitExceeded(
+            RateLimitExceededException ex, HttpServletRequest request) {
+        ErrorResponseDto errorResponse = new ErrorResponseDto(
+                LocalDateTime.now(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests",
+                ex.getMessage(),
+                request.getRequestURI());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ErrorResponseDto> handleBulkheadFull(
+            BulkheadFullException ex, HttpServletRequest request) {
+        return serviceUnavailable(ex.getMessage(), BULKHEAD_RETRY_AFTER, request);
+    }
+
+    private static ResponseEntity<ErrorResponseDto> serviceUnavailable(String message, Duration retryAfter,
+            HttpServletRequest request) {
+        ErrorResponseDto errorResponse = new ErrorResponseDto(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                message,
+                request.getRequestURI());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(retryAfter))
+                .body(errorResponse);
+    }
+
+    // Retry-After dalam detik, dibulatkan ke atas dan minimal 1
+    private static String retryAfterSeconds(Duration retryAfter) {
+        return Long.toString(Math.max((retryAfter.toMillis() + 999) / 1000, 1));
+    }
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponseDto> handleValidationExceptions(
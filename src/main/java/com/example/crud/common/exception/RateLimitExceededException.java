@@ -0,0 +1,21 @@
+package com.example.crud.common.exception;
+
+import java.time.Duration;
+
+/**
+ * Terlalu banyak percobaan dari client yang sama, atau kapasitas hashing password sedang penuh.
+ * Dipetakan ke 429 dengan header Retry-After.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final transient Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
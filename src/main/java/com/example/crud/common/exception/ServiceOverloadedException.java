@@ -0,0 +1,21 @@
+package com.example.crud.common.exception;
+
+import java.time.Duration;
+
+/**
+ * Permintaan ditolak karena batas konkurensi service sedang penuh. Dipetakan ke 503 dengan
+ * header Retry-After.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final transient Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.crud.common.export;
+
+import java.util.function.Function;
+
+/**
+ * Satu kolom CSV: header dan cara membaca nilainya dari baris.
+ */
+public record CsvColumn<T>(String header, Function<? super T, ?> value) {
+}
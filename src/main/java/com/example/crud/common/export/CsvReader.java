@@ -0,0 +1,122 @@
+package com.example.crud.common.export;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser CSV RFC 4180 yang membaca satu record setiap kali dari Reader, pasangan dari
+ * ExportWriter untuk import. Field berkutip boleh berisi pemisah, kutip ganda, dan baris baru.
+ */
+public final class CsvReader implements Closeable {
+
+    private final Reader reader;
+    private int lineNumber = 1;
+    private int recordLine;
+    private int pending = -2;
+
+    public CsvReader(Reader reader) {
+        this.reader = (reader instanceof BufferedReader) ? reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Record berikutnya, atau null di akhir input. Baris kosong dilewati.
+     */
+    public List<String> readRecord() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            if (c == '\r' || c == '\n') {
+                consumeLineBreak(c);
+                continue;
+            }
+            recordLine = lineNumber;
+            unread(c);
+            return readFields();
+        }
+    }
+
+    /**
+     * Nomor baris (mulai dari 1) tempat record terakhir dimulai.
+     */
+    public int getRecordLine() {
+        return recordLine;
+    }
+
+    private List<String> readFields() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean afterQuote = false;
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting at line " + recordLine);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        unread(next);
+                        quoted = false;
+                        afterQuote = true;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                afterQuote = false;
+            } else if (c == -1 || c == '\r' || c == '\n') {
+                fields.add(field.toString());
+                if (c != -1) {
+                    consumeLineBreak(c);
+                }
+                return fields;
+            } else if (c == '"' && field.isEmpty() && !afterQuote) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private void consumeLineBreak(int c) throws IOException {
+        if (c == '\r') {
+            int next = read();
+            if (next != '\n') {
+                unread(next);
+            }
+        }
+        lineNumber++;
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
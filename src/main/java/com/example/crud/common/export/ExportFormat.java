@@ -0,0 +1,41 @@
+package com.example.crud.common.export;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Format file untuk endpoint export dan import.
+ */
+public enum ExportFormat {
+    /** Satu objek JSON per baris, representasinya sama dengan respons endpoint list. */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    /** CSV dengan header, mengikuti RFC 4180. */
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * Format dari Content-Type upload import, atau null jika tidak didukung.
+     */
+    public static ExportFormat fromMediaType(MediaType mediaType) {
+        for (ExportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String fileName(String baseName) {
+        return baseName + "." + extension;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.crud.common.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Menulis baris export langsung ke output stream response, satu baris setiap kali,
+ * sehingga bisa dipakai sebagai Consumer untuk GenericRepository.streamAll.
+ * IOException (mis. client memutus koneksi) dibungkus UncheckedIOException agar
+ * query yang sedang berjalan ikut dihentikan.
+ */
+public abstract class ExportWriter<T> implements Consumer<T>, Closeable {
+
+    public static <T> ExportWriter<T> open(ExportFormat format, OutputStream out, ObjectMapper objectMapper,
+            List<CsvColumn<T>> csvColumns) throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonWriter<>(objectMapper.createGenerator(out));
+            case CSV -> new CsvWriter<>(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)),
+                    csvColumns);
+        };
+    }
+
+    protected abstract void write(T row) throws IOException;
+
+    @Override
+    public void accept(T row) {
+        try {
+            write(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class NdjsonWriter<T> extends ExportWriter<T> {
+
+        private final JsonGenerator generator;
+
+        private NdjsonWriter(JsonGenerator generator) {
+            // Pemisah antar root value diganti newline sendiri, bukan spasi bawaan Jackson
+            this.generator = generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        protected void write(T row) throws IOException {
+            generator.writeObject(row);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvWriter<T> extends ExportWriter<T> {
+
+        private final Writer writer;
+        private final List<CsvColumn<T>> columns;
+
+        private CsvWriter(Writer writer, List<CsvColumn<T>> columns) throws IOException {
+            this.writer = writer;
+            this.columns = columns;
+            writeRecord(columns.stream().map(CsvColumn::header).toList());
+        }
+
+        @Override
+        protected void write(T row) throws IOException {
+            writeRecord(columns.stream().map(column -> column.value().apply(row)).toList());
+        }
+
+        private void writeRecord(List<?> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(values.get(i));
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String text = value.toString();
+            // Field dengan pemisah, kutip, atau baris baru harus diapit kutip (RFC 4180)
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
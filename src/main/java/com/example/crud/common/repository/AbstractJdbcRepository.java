@@ -1,33 +1,102 @@
 package com.example.crud.common.repository;
 
+import com.example.crud.common.exception.InvalidCursorException;
 import com.example.crud.common.model.BaseEntity;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import javax.sql.DataSource;
 
+import java.sql.DatabaseMetaData;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.example.crud.util.TimerUtil;
 
-public abstract class AbstractJdbcRepository<T extends BaseEntity<ID>, ID> implements GenericRepository<T, ID> {
+public abstract class AbstractJdbcRepository<T extends BaseEntity<ID>, ID> implements GenericRepository<T, ID>, EnvironmentAware {
 
     private static final Logger log = LoggerFactory.getLogger(AbstractJdbcRepository.class);
 
+    protected static final String KEYSET_VALUE_PARAM = "keysetValue";
+    protected static final String KEYSET_ID_PARAM = "keysetId";
+
+    private static final Pattern PLAN_ROWS_PATTERN = Pattern.compile("rows=(\\d+)");
+    private static final long COUNT_CACHE_MAX_SIZE = 1_000;
+    private static final int DEFAULT_BATCH_CHUNK_SIZE = 500;
+    private static final long DEFAULT_STATEMENT_CACHE_MAX_SIZE = 1_000;
+    private static final int DEFAULT_STREAM_FETCH_SIZE = 1_000;
+    private static final ExecutorService PARALLEL_QUERY_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
     protected final JdbcClient jdbcClient;
     protected final SimpleJdbcInsert simpleJdbcInsert;
+    private final DataSource dataSource;
+    private final NamedParameterJdbcTemplate batchJdbcTemplate;
+    // Template terpisah dengan fetch size agar streamAll membaca lewat cursor, bukan seluruh hasil sekaligus
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate streamingTransaction;
+    // Untuk operasi multi-statement yang butuh satu koneksi (mis. tabel staging sementara)
+    private final TransactionTemplate writeTransaction;
+    private volatile String databaseProductName;
+    // Cache jumlah baris per fingerprint filter untuk CountStrategy.CACHED
+    private volatile Cache<String, Long> countCache = buildCountCache(Duration.ofSeconds(30));
+    private volatile boolean parallelCountEnabled;
+    private volatile boolean caseInsensitiveSearch;
+    // Dibuat sekali saat MeterRegistry di-inject, bukan dicari ulang di setiap findAll
+    private volatile Timer parallelSavedTimer;
+    private volatile int batchChunkSize = DEFAULT_BATCH_CHUNK_SIZE;
+    // SQL per bentuk query (kolom filter/operator, sort, kolom insert/update)
+    private volatile SqlStatementCache statementCache = new SqlStatementCache(DEFAULT_STATEMENT_CACHE_MAX_SIZE);
 
     // Metode abstrak yang HARUS diimplementasikan oleh kelas turunan
     protected abstract String getTableName();
@@ -36,28 +105,146 @@ public abstract class AbstractJdbcRepository<T extends BaseEntity<ID>, ID> imple
     protected abstract Map<String, Object> getUpdateParameters(T entity);
     protected abstract Set<String> getAllowedSortColumns();
 
+    private final OperationTimers timers;
+
     protected AbstractJdbcRepository(DataSource dataSource, JdbcClient jdbcClient) {
+        this.dataSource = dataSource;
         this.jdbcClient = jdbcClient;
+        this.batchJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        JdbcTemplate streamingTemplate = new JdbcTemplate(dataSource);
+        streamingTemplate.setFetchSize(DEFAULT_STREAM_FETCH_SIZE);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streamingTemplate);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        this.streamingTransaction = new TransactionTemplate(transactionManager);
+        this.streamingTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
         this.simpleJdbcInsert = new SimpleJdbcInsert(dataSource)
                 .withTableName(getTableName())
                 .usingGeneratedKeyColumns(getIdColumnName());
+        this.timers = new OperationTimers(getTableName());
+    }
+
+    /**
+     * Handle Timer per operasi, dibuat sekali per repository agar pengukuran di hot path
+     * tidak mencari Timer di setiap panggilan.
+     */
+    private static final class OperationTimers {
+        private final TimerUtil.Operation save;
+        private final TimerUtil.Operation saveAll;
+        private final TimerUtil.Operation findById;
+        private final TimerUtil.Operation findAll;
+        private final TimerUtil.Operation findAllByCursor;
+        private final TimerUtil.Operation streamAll;
+        private final TimerUtil.Operation update;
+        private final TimerUtil.Operation updateAll;
+        private final TimerUtil.Operation deleteById;
+        private final TimerUtil.Operation deleteAllById;
+
+        private OperationTimers(String table) {
+            this.save = TimerUtil.operation(table, "save");
+            this.saveAll = TimerUtil.operation(table, "saveAll");
+            this.findById = TimerUtil.operation(table, "findById");
+            this.findAll = TimerUtil.operation(table, "findAll");
+            this.findAllByCursor = TimerUtil.operation(table, "findAllByCursor");
+            this.streamAll = TimerUtil.operation(table, "streamAll");
+            this.update = TimerUtil.operation(table, "update");
+            this.updateAll = TimerUtil.operation(table, "updateAll");
+            this.deleteById = TimerUtil.operation(table, "deleteById");
+            this.deleteAllById = TimerUtil.operation(table, "deleteAllById");
+        }
     }
 
+    /**
+     * Insert satu entity dan membaca kembali baris lengkapnya dalam statement yang sama:
+     * INSERT ... RETURNING * di PostgreSQL dan SELECT * FROM FINAL TABLE (INSERT ...) di H2.
+     * Database lain memakai generated key lalu findById.
+     */
     @SuppressWarnings("unchecked")
     @Override
     public T save(T entity) {
-        return TimerUtil.time("save", () -> {
+        return timers.save.time(() -> {
             Map<String, Object> params = getUpdateParameters(entity);
-            Number newId = simpleJdbcInsert.executeAndReturnKey(params);
-            return findById((ID) newId)
-                    .orElseThrow(() -> new IllegalStateException("Could not find saved entity with id: " + newId));
+            T saved;
+            if (isPostgreSql()) {
+                saved = insertReturning(statementCache.get(SqlStatementCache.Kind.INSERT_RETURNING,
+                        SqlStatementCache.columnShape(params.keySet()),
+                        () -> buildInsertSql(params.keySet()) + " RETURNING *"), params, entity);
+            } else if (isH2()) {
+                saved = insertReturning(statementCache.get(SqlStatementCache.Kind.INSERT_RETURNING,
+                        SqlStatementCache.columnShape(params.keySet()),
+                        () -> "SELECT * FROM FINAL TABLE (%s)".formatted(buildInsertSql(params.keySet()))),
+                        params, entity);
+            } else {
+                Number newId = simpleJdbcInsert.executeAndReturnKey(params);
+                saved = findById((ID) newId)
+                        .orElseThrow(() -> new IllegalStateException("Could not find saved entity with id: " + newId));
+            }
+            countCache.invalidateAll();
+            return saved;
+        });
+    }
+
+    private T insertReturning(String sql, Map<String, Object> params, T entity) {
+        logQuery(sql, params);
+        return jdbcClient.sql(sql)
+                .params(params)
+                .query(getReturningRowMapper(entity))
+                .single();
+    }
+
+    protected String buildInsertSql(Collection<String> columns) {
+        return "INSERT INTO %s (%s) VALUES (%s)".formatted(getTableName(),
+                String.join(", ", columns),
+                columns.stream().map(column -> ":" + column).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * UPDATE ... SET kolom = :kolom, ... WHERE id = :id untuk kolom yang diberikan (tanpa id).
+     */
+    protected String buildUpdateSql(Collection<String> columns) {
+        return "UPDATE %s SET %s WHERE %s = :id".formatted(getTableName(),
+                columns.stream().map(column -> column + " = :" + column).collect(Collectors.joining(", ")),
+                getIdColumnName());
+    }
+
+    /**
+     * RowMapper untuk baris mentah tabel yang dikembalikan oleh insert (tanpa join).
+     * Default-nya sama dengan getRowMapper(); entity yang dibaca lewat join meng-override
+     * ini dan melengkapi relasi dari entity yang disimpan.
+     */
+    protected RowMapper<T> getReturningRowMapper(T entity) {
+        return getRowMapper();
+    }
+
+    /**
+     * Insert banyak entity dengan JDBC batch per chunk. Id hasil generate dibaca dari
+     * generated keys batch dan di-set ke masing-masing entity, tanpa re-select.
+     */
+    @Override
+    public List<T> saveAll(List<T> entities) {
+        return timers.saveAll.time(() -> {
+            for (List<T> chunk : chunked(entities)) {
+                List<Map<String, Object>> rows = chunk.stream().map(this::getUpdateParameters).toList();
+                Set<String> columns = unionOfColumns(rows);
+                String sql = statementCache.get(SqlStatementCache.Kind.INSERT, SqlStatementCache.columnShape(columns),
+                        () -> buildInsertSql(columns));
+
+                GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+                logQuery(sql, Map.of("batchSize", chunk.size()));
+                batchJdbcTemplate.batchUpdate(sql, toParameterSources(rows, columns), keyHolder,
+                        new String[] { getIdColumnName() });
+                assignGeneratedIds(chunk, keyHolder.getKeyList());
+            }
+            countCache.invalidateAll();
+            return entities;
         });
     }
 
     @Override
     public Optional<T> findById(ID id) {
-        return TimerUtil.time("findById", () -> {
-            String sql = "SELECT * FROM %s WHERE %s = :id".formatted(getTableName(), getIdColumnName());
+        return timers.findById.time(() -> {
+            String sql = statementCache.get(SqlStatementCache.Kind.FIND_BY_ID, List.of(),
+                    () -> "SELECT * FROM %s WHERE %s = :id".formatted(getTableName(), getIdColumnName()));
             Map<String, Object> params = Map.of("id",id);
             logQuery(sql, params);
             return jdbcClient.sql(sql)
@@ -69,83 +256,431 @@ public abstract class AbstractJdbcRepository<T extends BaseEntity<ID>, ID> imple
 
     @Override
     public Page<T> findAll(Pageable pageable, Map<String, Object> filters) {
-        return TimerUtil.time("findAll", () -> {
-            // === QUERY 1: Menghitung total elemen dengan filter yang sama ===
-            StringBuilder countSql = new StringBuilder("SELECT count(*) FROM %s".formatted(getTableName()));
-            Map<String, Object> safeFilters = (filters != null) ? filters : Map.of();
-            if (!safeFilters.isEmpty()) {
-                String whereClause = buildWhereClause(safeFilters);
-                countSql.append(" WHERE ").append(whereClause);
+        return timers.findAll.time(() -> {
+            Map<String, Object> actualFilters = prepareFilters(filters);
+            if (isParallelCountActive()) {
+                return findAllInParallel(actualFilters, pageable);
             }
 
-            logQuery(countSql.toString(), safeFilters);
-            Long totalElements = jdbcClient.sql(countSql.toString())
-                                        .params(safeFilters)
-                                        .query(Long.class)
-                                        .single();
+            // === QUERY 1: Menghitung total elemen dengan filter yang sama ===
+            long totalElements = countExact(actualFilters);
 
             // === QUERY 2: Mengambil data untuk halaman saat ini ===
-            StringBuilder dataSql = new StringBuilder("SELECT * FROM %s".formatted(getTableName()));
-            if (!safeFilters.isEmpty()) {
-                String whereClause = buildWhereClause(safeFilters);
-                dataSql.append(" WHERE ").append(whereClause);
-            }
+            List<T> content = queryPage(actualFilters, pageable, pageable.getPageSize());
 
-            // Tambahkan sorting dari Pageable
-            String sortClause = buildSortClause(pageable.getSort());
-            if (!sortClause.isEmpty()) {
-                dataSql.append(" ORDER BY ").append(sortClause);
+            // Gabungkan hasil menjadi objek Page
+            return new PageImpl<>(content, pageable, totalElements);
+        });
+    }
+
+    @Override
+    public Slice<T> findAll(Pageable pageable, Map<String, Object> filters, CountStrategy countStrategy) {
+        if (countStrategy == null || countStrategy == CountStrategy.EXACT) {
+            return findAll(pageable, filters);
+        }
+        return timers.findAll.<Slice<T>>time(() -> {
+            Map<String, Object> actualFilters = prepareFilters(filters);
+            if (countStrategy == CountStrategy.NONE) {
+                // Ambil satu baris lebih untuk mengetahui apakah masih ada halaman berikutnya
+                List<T> rows = queryPage(actualFilters, pageable, pageable.getPageSize() + 1);
+                boolean hasNext = rows.size() > pageable.getPageSize();
+                List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+                return new SliceImpl<>(content, pageable, hasNext);
             }
 
-            // Tambahkan pagination
-            dataSql.append(" LIMIT :limit OFFSET :offset");
+            long totalElements = (countStrategy == CountStrategy.ESTIMATED)
+                    ? countEstimated(actualFilters)
+                    : countCached(actualFilters);
+            List<T> content = queryPage(actualFilters, pageable, pageable.getPageSize());
+            return new PageImpl<>(content, pageable, totalElements);
+        });
+    }
 
-            Map<String, Object> queryParams = new LinkedHashMap<>(safeFilters);
-            queryParams.put("limit", pageable.getPageSize());
-            queryParams.put("offset", pageable.getOffset());
+    @Override
+    public CursorPage<T> findAllByCursor(Pageable pageable, Map<String, Object> filters, String cursor) {
+        return timers.findAllByCursor.time(() -> {
+            // Keyset pagination: tidak ada count query dan tidak ada OFFSET
+            Map<String, Object> actualFilters = prepareFilters(filters);
+            KeysetCursor position = resolveCursor(cursor, pageable.getSort());
+
+            String dataSql = statementCache.get(SqlStatementCache.Kind.KEYSET,
+                    List.of(SqlStatementCache.filterShape(actualFilters), position.property(), position.ascending(),
+                            position.isFirst()),
+                    () -> {
+                        StringBuilder sql = new StringBuilder(buildSelectSql());
+                        appendKeysetClauses(sql, actualFilters, position, getQueryAlias());
+                        return sql.toString();
+                    });
+            Map<String, Object> queryParams = buildKeysetParams(actualFilters, position, pageable.getPageSize());
 
-            logQuery(dataSql.toString(), queryParams);
-            List<T> content = jdbcClient.sql(dataSql.toString())
+            logQuery(dataSql, queryParams);
+            List<T> rows = jdbcClient.sql(dataSql)
                                         .params(queryParams)
                                         .query(getRowMapper())
                                         .list();
 
-            // Gabungkan hasil menjadi objek Page
-            return new PageImpl<>(content, pageable, totalElements);
+            return toCursorPage(rows, pageable.getPageSize(), position);
         });
     }
 
+    /**
+     * Mengalirkan semua baris yang cocok dengan filter ke action satu per satu dari cursor JDBC
+     * forward-only, tanpa membangun List, sehingga memori tetap konstan berapa pun jumlah barisnya.
+     * Query berjalan dalam transaksi read-only yang hanya hidup selama stream berlangsung, karena
+     * PostgreSQL baru memakai cursor (fetch size) jika autocommit mati.
+     *
+     * @return jumlah baris yang dialirkan
+     */
+    @Override
+    public long streamAll(Map<String, Object> filters, Sort sort, Consumer<? super T> action) {
+        return timers.streamAll.time(() -> {
+            Map<String, Object> actualFilters = prepareFilters(filters);
+            Sort actualSort = (sort != null) ? sort : Sort.unsorted();
+            String sql = statementCache.get(SqlStatementCache.Kind.STREAM,
+                    List.of(SqlStatementCache.filterShape(actualFilters),
+                            SqlStatementCache.sortShape(actualSort, getAllowedSortColumns())),
+                    () -> buildStreamSql(actualFilters, actualSort));
+            RowMapper<T> rowMapper = getRowMapper();
+
+            logQuery(sql, actualFilters);
+            Long streamed = streamingTransaction.execute(status -> {
+                long[] rows = { 0 };
+                streamingJdbcTemplate.query(sql, actualFilters,
+                        (RowCallbackHandler) rs -> action.accept(rowMapper.mapRow(rs, (int) rows[0]++)));
+                return rows[0];
+            });
+            return (streamed != null) ? streamed : 0L;
+        });
+    }
+
+    /**
+     * Fetch size untuk streamAll: jumlah baris yang diambil per round-trip cursor.
+     */
+    @Value("${repository.stream.fetch-size:1000}")
+    public void setStreamFetchSize(int fetchSize) {
+        streamingJdbcTemplate.getJdbcTemplate().setFetchSize(fetchSize);
+    }
+
+    /**
+     * Menjalankan count query di virtual thread (koneksi pool terpisah) sementara
+     * data query berjalan di thread request, lalu menggabungkan keduanya menjadi Page.
+     */
+    private Page<T> findAllInParallel(Map<String, Object> filters, Pageable pageable) {
+        long start = System.nanoTime();
+        CompletableFuture<TimedResult<Long>> countFuture = CompletableFuture.supplyAsync(
+                () -> TimedResult.of(() -> countExact(filters)), PARALLEL_QUERY_EXECUTOR);
+        TimedResult<List<T>> content = TimedResult.of(() -> queryPage(filters, pageable, pageable.getPageSize()));
+        TimedResult<Long> totalElements;
+        try {
+            totalElements = countFuture.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        recordParallelSavings(totalElements.nanos() + content.nanos() - elapsed);
+        return new PageImpl<>(content.value(), pageable, totalElements.value());
+    }
+
+    private boolean isParallelCountActive() {
+        // Di dalam transaksi, query di thread lain tidak melihat perubahan yang belum di-commit
+        return parallelCountEnabled && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    private void recordParallelSavings(long savedNanos) {
+        Timer timer = parallelSavedTimer;
+        if (timer != null) {
+            timer.record(Math.max(savedNanos, 0L), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Mengaktifkan eksekusi paralel count + data query untuk repository ini.
+     * Default dibaca dari property repository.{table}.parallel-count (false).
+     */
+    public void setParallelCountEnabled(boolean parallelCountEnabled) {
+        this.parallelCountEnabled = parallelCountEnabled;
+    }
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.parallelCountEnabled = environment.getProperty(
+                "repository.%s.parallel-count".formatted(getTableName()), Boolean.class, false);
+        setCaseInsensitiveSearch(environment.getProperty("repository.search.case-insensitive", Boolean.class, false));
+    }
+
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.parallelSavedTimer = Timer.builder("repository.findall.parallel.saved")
+                .description("Latency saved by running count and page queries concurrently")
+                .tag("table", getTableName())
+                .register(meterRegistry);
+        bindStatementCacheMetrics(meterRegistry);
+    }
+
+    /**
+     * Jumlah maksimum bentuk query yang SQL-nya disimpan per repository.
+     */
+    @Value("${repository.statement-cache.max-size:1000}")
+    public void setStatementCacheMaxSize(long maxSize) {
+        this.statementCache = new SqlStatementCache(maxSize);
+    }
+
+    public SqlStatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    private void bindStatementCacheMetrics(MeterRegistry registry) {
+        // Dibaca dari field saat scrape, tetap benar jika cache dibangun ulang oleh setter ukuran
+        FunctionCounter.builder("repository.statement.cache.gets", this, r -> r.statementCache.stats().hitCount())
+                .description("Statement cache lookups that reused a compiled SQL template")
+                .tag("table", getTableName())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("repository.statement.cache.gets", this, r -> r.statementCache.stats().missCount())
+                .description("Statement cache lookups that had to build a new SQL template")
+                .tag("table", getTableName())
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("repository.statement.cache.size", this, r -> r.statementCache.size())
+                .description("Distinct query shapes currently cached")
+                .tag("table", getTableName())
+                .register(registry);
+    }
+
+    private record TimedResult<R>(R value, long nanos) {
+        static <R> TimedResult<R> of(Supplier<R> supplier) {
+            long start = System.nanoTime();
+            R value = supplier.get();
+            return new TimedResult<>(value, System.nanoTime() - start);
+        }
+    }
+
+    // --- Query Building Hooks ---
+
+    /**
+     * Alias tabel utama pada query list. Null berarti kolom tidak diberi prefix.
+     */
+    protected String getQueryAlias() {
+        return null;
+    }
+
+    /**
+     * Bagian SELECT ... FROM untuk query data (tanpa WHERE, ORDER BY, dan LIMIT).
+     */
+    protected String buildSelectSql() {
+        return "SELECT * FROM %s".formatted(getTableName());
+    }
+
+    /**
+     * Menormalkan map filter dari service menjadi map kolom -> nilai.
+     * Kelas turunan bisa meng-override untuk memetakan atau membuang key tertentu.
+     */
+    protected Map<String, Object> prepareFilters(Map<String, Object> filters) {
+        return (filters != null) ? filters : Map.of();
+    }
+
+    protected String buildFilteredFromClause(Map<String, Object> filters) {
+        String alias = getQueryAlias();
+        StringBuilder fromClause = new StringBuilder(" FROM ").append(getTableName());
+        if (alias != null) {
+            fromClause.append(" ").append(alias);
+        }
+        if (!filters.isEmpty()) {
+            fromClause.append(" WHERE ").append(whereClauseFor(filters, alias));
+        }
+        return fromClause.toString();
+    }
+
+    protected String buildCountSql(Map<String, Object> filters) {
+        return "SELECT count(*)" + buildFilteredFromClause(filters);
+    }
+
+    protected String buildDataSql(Map<String, Object> filters, Pageable pageable) {
+        // Tambahkan pagination
+        return buildStreamSql(filters, pageable.getSort()) + " LIMIT :limit OFFSET :offset";
+    }
+
+    /**
+     * SELECT dengan filter dan sort, tanpa LIMIT: dipakai streamAll dan sebagai dasar buildDataSql.
+     */
+    protected String buildStreamSql(Map<String, Object> filters, Sort sort) {
+        String alias = getQueryAlias();
+        StringBuilder dataSql = new StringBuilder(buildSelectSql());
+        if (!filters.isEmpty()) {
+            dataSql.append(" WHERE ").append(whereClauseFor(filters, alias));
+        }
+
+        String sortClause = (alias != null) ? buildSortClause(sort, alias) : buildSortClause(sort);
+        if (!sortClause.isEmpty()) {
+            dataSql.append(" ORDER BY ").append(sortClause);
+        }
+        return dataSql.toString();
+    }
+
+    protected List<T> queryPage(Map<String, Object> filters, Pageable pageable, int limit) {
+        String dataSql = statementCache.get(SqlStatementCache.Kind.PAGE,
+                List.of(SqlStatementCache.filterShape(filters),
+                        SqlStatementCache.sortShape(pageable.getSort(), getAllowedSortColumns())),
+                () -> buildDataSql(filters, pageable));
+        Map<String, Object> queryParams = new LinkedHashMap<>(filters);
+        queryParams.put("limit", limit);
+        queryParams.put("offset", pageable.getOffset());
+
+        logQuery(dataSql, queryParams);
+        return jdbcClient.sql(dataSql)
+                .params(queryParams)
+                .query(getRowMapper())
+                .list();
+    }
+
+    // --- Count Strategies ---
+
+    protected long countExact(Map<String, Object> filters) {
+        String countSql = statementCache.get(SqlStatementCache.Kind.COUNT, SqlStatementCache.filterShape(filters),
+                () -> buildCountSql(filters));
+        logQuery(countSql, filters);
+        Long total = jdbcClient.sql(countSql)
+                .params(filters)
+                .query(Long.class)
+                .single();
+        return (total != null) ? total : 0L;
+    }
+
+    /**
+     * Estimasi jumlah baris dari statistik planner PostgreSQL. Tanpa filter dipakai
+     * pg_class.reltuples, dengan filter dipakai estimasi rows dari EXPLAIN.
+     * Database lain (mis. H2) atau statistik yang belum tersedia akan fallback ke count exact.
+     */
+    protected long countEstimated(Map<String, Object> filters) {
+        if (!isPostgreSql()) {
+            return countExact(filters);
+        }
+        Long estimate = filters.isEmpty() ? estimateFromStatistics() : estimateFromPlan(filters);
+        return (estimate != null && estimate >= 0) ? estimate : countExact(filters);
+    }
+
+    protected long countCached(Map<String, Object> filters) {
+        return countCache.get(countFingerprint(filters), key -> countExact(filters));
+    }
+
+    /**
+     * Fingerprint filter yang dinormalisasi (urutan key tidak berpengaruh).
+     */
+    protected String countFingerprint(Map<String, Object> filters) {
+        return new TreeMap<>(filters).toString();
+    }
+
+    @Value("${repository.count-cache.ttl-seconds:30}")
+    public void setCountCacheTtlSeconds(long ttlSeconds) {
+        this.countCache = buildCountCache(Duration.ofSeconds(ttlSeconds));
+    }
+
+    private Long estimateFromStatistics() {
+        String sql = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = to_regclass(:table)";
+        Map<String, Object> params = Map.of("table", getTableName());
+        logQuery(sql, params);
+        return jdbcClient.sql(sql)
+                .params(params)
+                .query(Long.class)
+                .optional()
+                .orElse(null);
+    }
+
+    private Long estimateFromPlan(Map<String, Object> filters) {
+        String sql = statementCache.get(SqlStatementCache.Kind.EXPLAIN, SqlStatementCache.filterShape(filters),
+                () -> "EXPLAIN SELECT 1" + buildFilteredFromClause(filters));
+        logQuery(sql, filters);
+        List<String> plan = jdbcClient.sql(sql)
+                .params(filters)
+                .query(String.class)
+                .list();
+        if (plan.isEmpty()) {
+            return null;
+        }
+        // Baris pertama adalah node teratas, mis. "Seq Scan on users u  (cost=0.00..1.05 rows=5 width=4)"
+        Matcher matcher = PLAN_ROWS_PATTERN.matcher(plan.get(0));
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    protected boolean isPostgreSql() {
+        return "PostgreSQL".equalsIgnoreCase(getDatabaseProductName());
+    }
+
+    protected boolean isH2() {
+        return "H2".equalsIgnoreCase(getDatabaseProductName());
+    }
+
+    private String getDatabaseProductName() {
+        if (databaseProductName == null) {
+            try {
+                databaseProductName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            } catch (MetaDataAccessException e) {
+                log.warn("Could not determine database product for {}: {}", getTableName(), e.getMessage());
+                databaseProductName = "";
+            }
+        }
+        return databaseProductName;
+    }
+
+    private static Cache<String, Long> buildCountCache(Duration ttl) {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(COUNT_CACHE_MAX_SIZE)
+                .build();
+    }
+
+    private String whereClauseFor(Map<String, Object> filters, String alias) {
+        return (alias != null) ? buildWhereClause(filters, alias) : buildWhereClause(filters);
+    }
+
     // --- Helper Methods ---
     protected String buildWhereClause(Map<String, Object> filters) {
         return filters.entrySet().stream()
-                .map(entry -> {
-                    String key = entry.getKey();
-                    Object value = entry.getValue();
-                    // Jika nilai adalah String dan mengandung '%', gunakan LIKE. Jika tidak, gunakan =.
-                    if (value instanceof String && value.toString().contains("%")) {
-                        return "%s LIKE :%s".formatted(key, key);
-                    } else {
-                        return "%s = :%s".formatted(key, key);
-                    }
-                })
+                .map(entry -> predicate(entry.getKey(), entry.getKey(), entry.getValue()))
                 .collect(Collectors.joining(" AND "));
     }
 
     protected String buildWhereClause(Map<String, Object> filters, String alias) {
         return filters.entrySet().stream()
-                .map(entry -> {
-                    String key = entry.getKey();
-                    Object value = entry.getValue();
-                    // Jika nilai adalah String dan mengandung '%', gunakan LIKE. Jika tidak, gunakan =.
-                    if (value instanceof String && value.toString().contains("%")) {
-                        return "%s.%s LIKE :%s".formatted(alias, key, key);
-                    } else {
-                        return "%s.%s = :%s".formatted(alias, key, key);
-                    }
-                })
+                .map(entry -> predicate(alias + "." + entry.getKey(), entry.getKey(), entry.getValue()))
                 .collect(Collectors.joining(" AND "));
     }
 
+    /**
+     * Jika nilai adalah String dan mengandung '%', gunakan LIKE/ILIKE. Jika tidak, gunakan =.
+     * Pola awalan ('term%') di mode case-insensitive menjadi lower(kolom) LIKE lower(:p): ILIKE tidak
+     * bisa memakai index B-tree, sedangkan lower(kolom) varchar_pattern_ops (V5 PostgreSQL) bisa.
+     */
+    private String predicate(String column, String param, Object value) {
+        if (!SqlStatementCache.isLikeValue(value)) {
+            return "%s = :%s".formatted(column, param);
+        }
+        if (caseInsensitiveSearch && SqlStatementCache.isPrefixLikeValue(value)) {
+            return "lower(%s) LIKE lower(:%s)".formatted(column, param);
+        }
+        return "%s %s :%s".formatted(column, likeOperator(), param);
+    }
+
+    /**
+     * ILIKE jika pencarian teks case-insensitive (didukung PostgreSQL dan H2), selain itu LIKE.
+     * Keduanya bisa memakai index trigram GIN gin_trgm_ops di PostgreSQL.
+     */
+    protected String likeOperator() {
+        return caseInsensitiveSearch ? "ILIKE" : "LIKE";
+    }
+
+    /**
+     * Mengaktifkan ILIKE untuk filter teks. Default dibaca dari property repository.search.case-insensitive (false).
+     */
+    public void setCaseInsensitiveSearch(boolean caseInsensitiveSearch) {
+        this.caseInsensitiveSearch = caseInsensitiveSearch;
+        // Operator LIKE/ILIKE ikut tertanam di SQL yang sudah di-cache
+        statementCache.clear();
+    }
+
     protected String buildSortClause(Sort sort) {
         return sort.stream()
                 .map(order -> {
@@ -171,42 +706,275 @@ public abstract class AbstractJdbcRepository<T extends BaseEntity<ID>, ID> imple
                 .collect(Collectors.joining(", "));
     }
 
+    /**
+     * Kolom yang boleh dipakai sebagai kunci keyset pagination.
+     * Kolom harus NOT NULL agar perbandingan (kolom, id) tetap konsisten.
+     * Default-nya sama dengan whitelist sort.
+     */
+    protected Set<String> getKeysetSortColumns() {
+        return getAllowedSortColumns();
+    }
+
+    /**
+     * Menentukan posisi keyset dari token cursor. Jika token kosong, posisi awal
+     * diambil dari order pertama yang valid pada Sort, dengan fallback ke kolom id.
+     */
+    protected KeysetCursor resolveCursor(String cursor, Sort sort) {
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor decoded = KeysetCursor.decode(cursor);
+            if (!isKeysetColumn(decoded.property())) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            return decoded;
+        }
+        return sort.stream()
+                .filter(order -> isKeysetColumn(order.getProperty()))
+                .findFirst()
+                .map(order -> KeysetCursor.first(order.getProperty(), order.isAscending()))
+                .orElseGet(() -> KeysetCursor.first(getIdColumnName(), true));
+    }
+
+    /**
+     * Predikat seek, misalnya "(username, id) > (:keysetValue, :keysetId)".
+     * Kolom id selalu dipakai sebagai tie-breaker agar urutan bersifat total.
+     */
+    protected String buildKeysetPredicate(KeysetCursor cursor, String alias) {
+        String prefix = (alias != null) ? alias + "." : "";
+        String operator = cursor.ascending() ? ">" : "<";
+        if (getIdColumnName().equals(cursor.property())) {
+            return "%s%s %s :%s".formatted(prefix, getIdColumnName(), operator, KEYSET_ID_PARAM);
+        }
+        return "(%s%s, %s%s) %s (:%s, :%s)".formatted(prefix, cursor.property(), prefix, getIdColumnName(),
+                operator, KEYSET_VALUE_PARAM, KEYSET_ID_PARAM);
+    }
+
+    protected String buildKeysetOrderClause(KeysetCursor cursor, String alias) {
+        String prefix = (alias != null) ? alias + "." : "";
+        String direction = cursor.ascending() ? "ASC" : "DESC";
+        if (getIdColumnName().equals(cursor.property())) {
+            return prefix + getIdColumnName() + " " + direction;
+        }
+        return prefix + cursor.property() + " " + direction + ", " + prefix + getIdColumnName() + " " + direction;
+    }
+
+    /**
+     * Menambahkan WHERE (filter + predikat seek), ORDER BY, dan LIMIT ke query data.
+     */
+    protected void appendKeysetClauses(StringBuilder dataSql, Map<String, Object> filters, KeysetCursor cursor, String alias) {
+        List<String> predicates = new ArrayList<>();
+        if (!filters.isEmpty()) {
+            predicates.add((alias != null) ? buildWhereClause(filters, alias) : buildWhereClause(filters));
+        }
+        if (!cursor.isFirst()) {
+            predicates.add(buildKeysetPredicate(cursor, alias));
+        }
+        if (!predicates.isEmpty()) {
+            dataSql.append(" WHERE ").append(String.join(" AND ", predicates));
+        }
+        dataSql.append(" ORDER BY ").append(buildKeysetOrderClause(cursor, alias));
+        dataSql.append(" LIMIT :limit");
+    }
+
+    protected Map<String, Object> buildKeysetParams(Map<String, Object> filters, KeysetCursor cursor, int pageSize) {
+        Map<String, Object> queryParams = new LinkedHashMap<>(filters);
+        if (!cursor.isFirst()) {
+            queryParams.put(KEYSET_ID_PARAM, cursor.id());
+            if (!getIdColumnName().equals(cursor.property())) {
+                queryParams.put(KEYSET_VALUE_PARAM, cursor.value());
+            }
+        }
+        // Ambil satu baris lebih untuk mengetahui apakah masih ada halaman berikutnya
+        queryParams.put("limit", pageSize + 1);
+        return queryParams;
+    }
+
+    protected CursorPage<T> toCursorPage(List<T> rows, int pageSize, KeysetCursor cursor) {
+        boolean hasNext = rows.size() > pageSize;
+        List<T> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            T last = content.get(content.size() - 1);
+            nextCursor = cursor.after(getKeysetValue(last, cursor.property()), last.getId()).encode();
+        }
+        return new CursorPage<>(List.copyOf(content), pageSize, hasNext, nextCursor);
+    }
+
+    /**
+     * Nilai kolom sort dari sebuah entity, diambil dari parameter kolom yang sama
+     * dengan yang dipakai untuk insert/update.
+     */
+    protected Object getKeysetValue(T entity, String column) {
+        if (getIdColumnName().equals(column)) {
+            return entity.getId();
+        }
+        return getUpdateParameters(entity).get(column);
+    }
+
+    private boolean isKeysetColumn(String property) {
+        return getIdColumnName().equals(property) || getKeysetSortColumns().contains(property);
+    }
 
     @Override
     public int update(T entity) {
-        return TimerUtil.time("update", () -> {
-            // Membuat daftar kolom untuk di-update (e.g., "name = :name, email = :email")
-            String setClause = String.join(", ",
-                    getUpdateParameters(entity).keySet().stream()
-                            .map(key -> key + " = :" + key)
-                            .toList());
-
-            String sql = "UPDATE %s SET %s WHERE %s = :id"
-                    .formatted(getTableName(), setClause, getIdColumnName());
-            
+        return timers.update.time(() -> {
+            Map<String, Object> params = new LinkedHashMap<>(getUpdateParameters(entity));
+            List<String> columns = SqlStatementCache.columnShape(params.keySet());
+            String sql = statementCache.get(SqlStatementCache.Kind.UPDATE, columns, () -> buildUpdateSql(columns));
+
             // Menambahkan ID ke map parameter
-            Map<String, Object> params = getUpdateParameters(entity);
             params.put("id", entity.getId());
 
             logQuery(sql, params);
-            return jdbcClient.sql(sql)
+            int updated = jdbcClient.sql(sql)
                     .params(params)
                     .update();
+            countCache.invalidateAll();
+            return updated;
+        });
+    }
+
+    @Override
+    public int updateAll(List<T> entities) {
+        return timers.updateAll.time(() -> {
+            int updated = 0;
+            for (List<T> chunk : chunked(entities)) {
+                List<Map<String, Object>> rows = new ArrayList<>(chunk.size());
+                for (T entity : chunk) {
+                    Map<String, Object> params = new LinkedHashMap<>(getUpdateParameters(entity));
+                    params.put("id", entity.getId());
+                    rows.add(params);
+                }
+                Set<String> columns = unionOfColumns(rows);
+                columns.remove("id");
+                List<String> updateColumns = SqlStatementCache.columnShape(columns);
+                String sql = statementCache.get(SqlStatementCache.Kind.UPDATE, updateColumns,
+                        () -> buildUpdateSql(updateColumns));
+                columns.add("id");
+
+                logQuery(sql, Map.of("batchSize", chunk.size()));
+                updated += sumAffectedRows(batchJdbcTemplate.batchUpdate(sql, toParameterSources(rows, columns)));
+            }
+            countCache.invalidateAll();
+            return updated;
         });
     }
 
     @Override
     public int deleteById(ID id) {
-        return TimerUtil.time("deleteById", () -> {
-            String sql = "DELETE FROM %s WHERE %s = :id".formatted(getTableName(), getIdColumnName());
+        return timers.deleteById.time(() -> {
+            String sql = statementCache.get(SqlStatementCache.Kind.DELETE_BY_ID, List.of(),
+                    () -> "DELETE FROM %s WHERE %s = :id".formatted(getTableName(), getIdColumnName()));
             Map<String, Object> params = Map.of("id", id);
             logQuery(sql, params);
-            return jdbcClient.sql(sql)
+            int deleted = jdbcClient.sql(sql)
                     .param("id", id)
                     .update();
+            countCache.invalidateAll();
+            return deleted;
         });
     }
 
+    @Override
+    public int deleteAllById(Collection<ID> ids) {
+        return timers.deleteAllById.time(() -> {
+            String sql = statementCache.get(SqlStatementCache.Kind.DELETE_ALL_BY_ID, List.of(),
+                    () -> "DELETE FROM %s WHERE %s IN (:ids)".formatted(getTableName(), getIdColumnName()));
+            int deleted = 0;
+            // Satu statement IN (...) per chunk agar jumlah parameter tetap terbatas
+            for (List<ID> chunk : chunked(new ArrayList<>(new LinkedHashSet<>(ids)))) {
+                logQuery(sql, Map.of("ids", chunk));
+                deleted += jdbcClient.sql(sql)
+                        .param("ids", chunk)
+                        .update();
+            }
+            countCache.invalidateAll();
+            return deleted;
+        });
+    }
+
+    /**
+     * Jumlah baris per JDBC batch / statement pada saveAll, updateAll, dan deleteAllById.
+     */
+    @Value("${repository.batch.chunk-size:500}")
+    public void setBatchChunkSize(int batchChunkSize) {
+        if (batchChunkSize < 1) {
+            throw new IllegalArgumentException("repository.batch.chunk-size must be positive");
+        }
+        this.batchChunkSize = batchChunkSize;
+    }
+
+    protected int getBatchChunkSize() {
+        return batchChunkSize;
+    }
+
+    protected DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * Menjalankan callback dalam satu transaksi (ikut transaksi yang sedang berjalan jika ada),
+     * sehingga semua statement di dalamnya memakai koneksi yang sama.
+     */
+    protected <R> R inTransaction(Supplier<R> callback) {
+        return writeTransaction.execute(status -> callback.get());
+    }
+
+    /**
+     * Dipanggil kelas turunan setelah menulis baris di luar save/update/delete bawaan.
+     */
+    protected void invalidateCountCache() {
+        countCache.invalidateAll();
+    }
+
+    private <E> List<List<E>> chunked(List<E> items) {
+        List<List<E>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += batchChunkSize) {
+            chunks.add(items.subList(from, Math.min(from + batchChunkSize, items.size())));
+        }
+        return chunks;
+    }
+
+    private static Set<String> unionOfColumns(List<Map<String, Object>> rows) {
+        // Kolom opsional (mis. role_id) bisa tidak ada di sebagian entity, diisi null
+        Set<String> columns = new LinkedHashSet<>();
+        rows.forEach(row -> columns.addAll(row.keySet()));
+        return columns;
+    }
+
+    private static SqlParameterSource[] toParameterSources(List<Map<String, Object>> rows, Set<String> columns) {
+        return rows.stream()
+                .map(row -> {
+                    MapSqlParameterSource source = new MapSqlParameterSource();
+                    columns.forEach(column -> source.addValue(column, row.get(column)));
+                    return source;
+                })
+                .toArray(SqlParameterSource[]::new);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assignGeneratedIds(List<T> chunk, List<Map<String, Object>> keys) {
+        if (keys.size() != chunk.size()) {
+            throw new IllegalStateException("Expected %d generated keys for %s but got %d"
+                    .formatted(chunk.size(), getTableName(), keys.size()));
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            Object key = keys.get(i).get(getIdColumnName());
+            if (key == null && keys.get(i).size() == 1) {
+                key = keys.get(i).values().iterator().next();
+            }
+            chunk.get(i).setId((ID) (key instanceof Number number ? Long.valueOf(number.longValue()) : key));
+        }
+    }
+
+    private static int sumAffectedRows(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            // Driver boleh mengembalikan SUCCESS_NO_INFO untuk statement yang berhasil
+            total += (count == Statement.SUCCESS_NO_INFO) ? 1 : Math.max(count, 0);
+        }
+        return total;
+    }
+
     protected void logQuery(String sql, Map<String, Object> params) {
         log.trace("Execute Query : {}", sql);
         if (params != null && !params.isEmpty()) {
@@ -0,0 +1,15 @@
+package com.example.crud.common.repository;
+
+/**
+ * Strategi menghitung total elemen pada query findAll yang ber-paging.
+ */
+public enum CountStrategy {
+    /** Selalu menjalankan SELECT count(*) dengan filter yang sama. */
+    EXACT,
+    /** Tanpa count query; mengambil limit+1 baris dan mengembalikan Slice dengan flag hasNext. */
+    NONE,
+    /** Estimasi dari statistik planner PostgreSQL (fallback ke EXACT di database lain). */
+    ESTIMATED,
+    /** Count exact yang disimpan sementara per fingerprint filter dengan TTL pendek. */
+    CACHED
+}
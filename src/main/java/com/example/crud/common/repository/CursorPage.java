@@ -0,0 +1,20 @@
+package com.example.crud.common.repository;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Hasil satu halaman dari pagination berbasis cursor (keyset).
+ * nextCursor bernilai null jika tidak ada halaman berikutnya.
+ */
+public record CursorPage<T>(List<T> content, int size, boolean hasNext, String nextCursor) {
+
+    public static <T> CursorPage<T> empty(int size) {
+        return new CursorPage<>(List.of(), size, false, null);
+    }
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> converter) {
+        List<R> mapped = content.stream().<R>map(converter::apply).toList();
+        return new CursorPage<>(mapped, size, hasNext, nextCursor);
+    }
+}
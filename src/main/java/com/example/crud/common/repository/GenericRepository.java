@@ -1,15 +1,26 @@
 package com.example.crud.common.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 public interface GenericRepository<T, I> {
     T save(T entity);
+    List<T> saveAll(List<T> entities);
     Optional<T> findById(I id);
     Page<T> findAll(Pageable pageable, Map<String, Object> filters);
+    Slice<T> findAll(Pageable pageable, Map<String, Object> filters, CountStrategy countStrategy);
+    CursorPage<T> findAllByCursor(Pageable pageable, Map<String, Object> filters, String cursor);
+    long streamAll(Map<String, Object> filters, Sort sort, Consumer<? super T> action);
     int update(T entity);
+    int updateAll(List<T> entities);
     int deleteById(I id);
-}
\ No newline at end of file
+    int deleteAllById(Collection<I> ids);
+}
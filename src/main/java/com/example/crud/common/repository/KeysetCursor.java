@@ -0,0 +1,92 @@
+package com.example.crud.common.repository;
+
+import com.example.crud.common.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posisi keyset (seek) untuk pagination berbasis cursor.
+ * Menyimpan kolom sort, arah sort, serta nilai kolom sort dan id dari baris terakhir
+ * halaman sebelumnya. Di sisi client, posisi ini hanya terlihat sebagai token opaque.
+ */
+public record KeysetCursor(String property, boolean ascending, Object value, Object id) {
+
+    private static final String SEPARATOR = "\n";
+    private static final String DIRECTION_ASC = "A";
+    private static final String DIRECTION_DESC = "D";
+
+    /**
+     * Posisi awal (halaman pertama) untuk kolom dan arah sort tertentu.
+     */
+    public static KeysetCursor first(String property, boolean ascending) {
+        return new KeysetCursor(property, ascending, null, null);
+    }
+
+    /**
+     * Posisi berikutnya setelah baris dengan nilai sort dan id yang diberikan.
+     */
+    public KeysetCursor after(Object lastValue, Object lastId) {
+        return new KeysetCursor(property, ascending, lastValue, lastId);
+    }
+
+    public boolean isFirst() {
+        return id == null;
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR,
+                property,
+                ascending ? DIRECTION_ASC : DIRECTION_DESC,
+                encodeValue(id),
+                encodeValue(value));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // Nilai sort diletakkan paling akhir, jadi boleh mengandung separator
+            String[] parts = raw.split(SEPARATOR, 4);
+            if (parts.length != 4 || parts[0].isEmpty()) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            boolean ascending = switch (parts[1]) {
+                case DIRECTION_ASC -> true;
+                case DIRECTION_DESC -> false;
+                default -> throw new InvalidCursorException("Invalid cursor");
+            };
+            return new KeysetCursor(parts[0], ascending, decodeValue(parts[3]), decodeValue(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    // Setiap nilai diberi prefix tipe agar bisa di-bind kembali dengan tipe yang sama
+    private static String encodeValue(Object value) {
+        if (value == null) {
+            return "N:";
+        } else if (value instanceof Number number) {
+            return "L:" + number.longValue();
+        } else if (value instanceof LocalDateTime dateTime) {
+            return "T:" + dateTime;
+        }
+        return "S:" + value;
+    }
+
+    private static Object decodeValue(String encoded) {
+        if (encoded.length() < 2 || encoded.charAt(1) != ':') {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        String payload = encoded.substring(2);
+        return switch (encoded.charAt(0)) {
+            case 'N' -> null;
+            case 'L' -> Long.valueOf(payload);
+            case 'T' -> LocalDateTime.parse(payload);
+            case 'S' -> payload;
+            default -> throw new InvalidCursorException("Invalid cursor");
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.crud.common.repository;
+
+/**
+ * Cara mencocokkan filter teks. Nilai yang dihasilkan {@link #toPattern(String)} berisi '%'
+ * sehingga buildWhereClause menerjemahkannya menjadi LIKE (atau ILIKE).
+ * Operator similarity pg_trgm ({@code %}) sengaja tidak disediakan: hasilnya fuzzy, bukan
+ * pencocokan teks, dan tidak punya padanan di H2.
+ */
+public enum SearchMode {
+    /** Substring di posisi mana pun: LIKE '%term%', dilayani index trigram GIN di PostgreSQL. */
+    CONTAINS,
+    /**
+     * Awalan: LIKE 'term%'. Di mode case-insensitive menjadi lower(kolom) LIKE, dilayani index
+     * B-tree lower(kolom) varchar_pattern_ops di PostgreSQL.
+     */
+    STARTS_WITH;
+
+    /**
+     * Membentuk pola LIKE dari input user. Wildcard di input di-escape agar diperlakukan
+     * sebagai karakter biasa (escape default '\' di PostgreSQL dan H2).
+     */
+    public String toPattern(String term) {
+        String escaped = escapeLikeWildcards(term);
+        return (this == STARTS_WITH) ? escaped + "%" : "%" + escaped + "%";
+    }
+
+    static String escapeLikeWildcards(String term) {
+        StringBuilder escaped = new StringBuilder(term.length() + 4);
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c == '\\' || c == '%' || c == '_') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
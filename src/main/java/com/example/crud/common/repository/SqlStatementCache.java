@@ -0,0 +1,110 @@
+package com.example.crud.common.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cache SQL per repository yang di-key oleh "bentuk" query, bukan nilainya: jenis statement,
+ * kolom filter beserta operatornya (LIKE atau =), urutan sort, dan kolom insert/update.
+ * Cache ini menghindari membangun ulang string SQL; key bentuk tetap dibuat per panggilan.
+ * Query dengan bentuk yang sama mendapat instance String yang sama, sehingga cache ParsedSql
+ * milik NamedParameterJdbcTemplate juga langsung hit tanpa parsing ulang.
+ */
+public class SqlStatementCache {
+
+    public enum Kind {
+        FIND_BY_ID, COUNT, PAGE, KEYSET, STREAM, EXPLAIN, INSERT, INSERT_RETURNING, UPDATE, DELETE_BY_ID, DELETE_ALL_BY_ID
+    }
+
+    /**
+     * Kolom filter, apakah nilainya dibandingkan dengan LIKE, dan apakah polanya berupa awalan
+     * ('term%'), yang di mode case-insensitive memakai predikat berbeda.
+     */
+    public record FilterShape(String column, boolean like, boolean prefix) {
+    }
+
+    private record Key(Kind kind, Object shape) {
+    }
+
+    private final Cache<Key, String> statements;
+
+    public SqlStatementCache(long maxSize) {
+        this.statements = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Mengembalikan SQL untuk bentuk tersebut, atau membangunnya sekali lewat builder.
+     * Builder hanya boleh bergantung pada bentuk query, tidak pada nilai parameter.
+     */
+    public String get(Kind kind, Object shape, Supplier<String> builder) {
+        Key key = new Key(kind, shape);
+        String sql = statements.getIfPresent(key);
+        if (sql == null) {
+            sql = builder.get();
+            statements.put(key, sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Bentuk filter: kolom dan operator, dengan urutan sesuai map (urutan menentukan SQL).
+     */
+    public static List<FilterShape> filterShape(Map<String, Object> filters) {
+        if (filters.isEmpty()) {
+            return List.of();
+        }
+        List<FilterShape> shape = new ArrayList<>(filters.size());
+        filters.forEach((column, value) -> shape.add(
+                new FilterShape(column, isLikeValue(value), isPrefixLikeValue(value))));
+        return shape;
+    }
+
+    /**
+     * Bentuk kolom insert/update, urutannya menentukan SQL.
+     */
+    public static List<String> columnShape(Collection<String> columns) {
+        return List.copyOf(columns);
+    }
+
+    /**
+     * Sort yang sudah disaring ke kolom yang diizinkan, agar sort tidak valid tidak menambah bentuk baru.
+     */
+    public static List<Sort.Order> sortShape(Sort sort, Collection<String> allowedColumns) {
+        if (sort.isUnsorted()) {
+            return List.of();
+        }
+        return sort.stream().filter(order -> allowedColumns.contains(order.getProperty())).toList();
+    }
+
+    static boolean isLikeValue(Object value) {
+        // Aturan yang sama dengan buildWhereClause: String yang mengandung '%' memakai LIKE
+        return value instanceof String string && string.contains("%");
+    }
+
+    static boolean isPrefixLikeValue(Object value) {
+        return isLikeValue(value) && !((String) value).startsWith("%");
+    }
+
+    public CacheStats stats() {
+        return statements.stats();
+    }
+
+    public long size() {
+        return statements.estimatedSize();
+    }
+
+    public void clear() {
+        statements.invalidateAll();
+    }
+}
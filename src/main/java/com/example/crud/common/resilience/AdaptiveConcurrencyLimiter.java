@@ -0,0 +1,114 @@
+package com.example.crud.common.resilience;
+
+import com.example.crud.common.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.NonTransientDataAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Batas konkurensi adaptif (AIMD) untuk panggilan ke service. Batas naik satu setiap panggilan
+ * sukses selama service cukup sibuk (in-flight setidaknya separuh batas), dan turun secara
+ * multiplikatif saat latensi melewati ambang atau database gagal. Panggilan di atas batas
+ * langsung ditolak dengan {@link ServiceOverloadedException} alih-alih mengantre di connection pool.
+ * <p>
+ * Metrics: service.concurrency.limit, service.concurrency.in_flight dan
+ * service.concurrency.rejected dengan tag service.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final Duration retryAfter;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    private volatile double limit;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+            Duration latencyThreshold, Duration retryAfter, MeterRegistry registry) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Require 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.retryAfter = retryAfter;
+        this.limit = initialLimit;
+
+        Gauge.builder("service.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("service", name)
+                .register(registry);
+        Gauge.builder("service.concurrency.in_flight", inFlight, AtomicInteger::get)
+                .description("Calls currently admitted by the concurrency limiter")
+                .tag("service", name)
+                .register(registry);
+        this.rejected = Counter.builder("service.concurrency.rejected")
+                .description("Calls shed because the concurrency limit was reached")
+                .tag("service", name)
+                .register(registry);
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        int admittedInFlight = acquire();
+        long start = System.nanoTime();
+        boolean dropped = false;
+        try {
+            return call.get();
+        } catch (DataAccessException e) {
+            // Kesalahan data dari sisi client (mis. constraint) bukan tanda database kelebihan beban
+            dropped = !(e instanceof NonTransientDataAccessException);
+            throw e;
+        } finally {
+            inFlight.decrementAndGet();
+            onSample(System.nanoTime() - start, dropped, admittedInFlight);
+        }
+    }
+
+    private int acquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                throw new ServiceOverloadedException("Service " + name + " is overloaded, retry later", retryAfter);
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private synchronized void onSample(long latencyNanos, boolean dropped, int admittedInFlight) {
+        if (dropped || latencyNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (admittedInFlight * 2 >= limit) {
+            // Naik hanya saat batas benar-benar terpakai; service yang sepi tidak menaikkan batas tanpa bukti
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
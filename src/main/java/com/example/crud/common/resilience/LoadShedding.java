@@ -0,0 +1,27 @@
+package com.example.crud.common.resilience;
+
+import com.example.crud.common.exception.ServiceOverloadedException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+
+/**
+ * Kebijakan bersama untuk fallback service resilient: request yang ditolak karena beban
+ * tidak boleh dijawab dengan data fallback.
+ */
+public final class LoadShedding {
+
+    private LoadShedding() {
+    }
+
+    /**
+     * Penolakan oleh bulkhead atau limiter diteruskan sebagai 503 + Retry-After; data fallback
+     * membuat client mengira request berhasil.
+     */
+    public static void rethrowIfLoadShed(Throwable t) {
+        if (t instanceof BulkheadFullException bulkheadFull) {
+            throw bulkheadFull;
+        }
+        if (t instanceof ServiceOverloadedException overloaded) {
+            throw overloaded;
+        }
+    }
+}
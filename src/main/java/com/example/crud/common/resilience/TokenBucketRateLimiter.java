@@ -0,0 +1,82 @@
+package com.example.crud.common.resilience;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per key, dihitung dengan GCRA: setiap bucket hanya satu {@link AtomicLong} berisi
+ * waktu kedatangan teoretis berikutnya, sehingga acquire cukup satu CAS tanpa lock.
+ * Jumlah key dibatasi; bucket yang tidak diakses selama waktu isi penuh dihapus karena
+ * bucket baru memang berisi penuh.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier nanoTime;
+
+    /**
+     * @param burst            jumlah token maksimum (percobaan beruntun yang diizinkan)
+     * @param permitsPerMinute laju pengisian token
+     * @param maxKeys          jumlah bucket maksimum di memori
+     */
+    public TokenBucketRateLimiter(int burst, int permitsPerMinute, long maxKeys) {
+        this(burst, permitsPerMinute, maxKeys, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(int burst, int permitsPerMinute, long maxKeys, LongSupplier nanoTime) {
+        if (burst < 1 || permitsPerMinute < 1) {
+            throw new IllegalArgumentException("burst and permitsPerMinute must be positive");
+        }
+        this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / permitsPerMinute;
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.nanoTime = nanoTime;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(emissionIntervalNanos * burst))
+                .ticker(nanoTime::getAsLong)
+                .build();
+    }
+
+    /**
+     * Mengambil satu token untuk key ini.
+     *
+     * @return {@link Duration#ZERO} jika diizinkan, selain itu waktu tunggu sampai token berikutnya
+     */
+    public Duration tryAcquire(String key) {
+        AtomicLong theoreticalArrival = buckets.get(key, k -> new AtomicLong(nanoTime.getAsLong()));
+        while (true) {
+            long now = nanoTime.getAsLong();
+            long current = theoreticalArrival.get();
+            long start = current - now > 0 ? current : now;
+            long waitNanos = start - now - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return Duration.ofNanos(waitNanos);
+            }
+            if (theoreticalArrival.compareAndSet(current, start + emissionIntervalNanos)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    /**
+     * Mengembalikan satu token, mis. setelah login berhasil, agar hanya percobaan gagal yang membatasi.
+     */
+    public void refund(String key) {
+        AtomicLong theoreticalArrival = buckets.getIfPresent(key);
+        if (theoreticalArrival != null) {
+            theoreticalArrival.addAndGet(-emissionIntervalNanos);
+        }
+    }
+
+    long estimatedSize() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.crud.common.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Memilih cost BCrypt tertinggi yang verifikasinya masih di bawah target latensi di mesin ini.
+ * Cukup satu pengukuran di cost minimum: setiap kenaikan cost menggandakan waktu hash.
+ */
+public final class BCryptCostCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample";
+
+    private BCryptCostCalibrator() {
+    }
+
+    public static int calibrate(Duration targetLatency, int minStrength, int maxStrength) {
+        return calibrate(targetLatency, minStrength, maxStrength, BCryptCostCalibrator::measureMatchesNanos);
+    }
+
+    static int calibrate(Duration targetLatency, int minStrength, int maxStrength, IntToLongFunction measureNanos) {
+        if (minStrength < 4 || maxStrength > 31 || minStrength > maxStrength) {
+            throw new IllegalArgumentException("Require 4 <= minStrength <= maxStrength <= 31");
+        }
+        long targetNanos = targetLatency.toNanos();
+        long estimate = measureNanos.applyAsLong(minStrength);
+        int strength = minStrength;
+        while (strength < maxStrength && estimate * 2 <= targetNanos) {
+            strength++;
+            estimate *= 2;
+        }
+        return strength;
+    }
+
+    private static long measureMatchesNanos(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        String hash = encoder.encode(SAMPLE_PASSWORD);
+        // Verifikasi pertama termasuk warm-up JIT, yang dipakai nilai terkecil
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.matches(SAMPLE_PASSWORD, hash);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.crud.common.security;
+
+import com.example.crud.common.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Menjalankan encode/matches dari {@link PasswordEncoder} lain (BCrypt) di pool terpisah berukuran
+ * tetap dengan antrean terbatas. Lonjakan login hanya memenuhi pool ini; thread request cukup
+ * menunggu hasil paling lama {@code timeout}. Antrean penuh atau timeout langsung dijawab
+ * {@link RateLimitExceededException} (429) alih-alih menahan thread server.
+ * <p>
+ * Metrics: password.hash.duration{operation}, password.hash.queue.depth, password.hash.active
+ * dan password.hash.rejected{reason}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutNanos;
+    private final Duration retryAfter;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter queueFullRejections;
+    private final Counter timeoutRejections;
+
+    /**
+     * @param poolSize      jumlah thread hashing; umumnya sama dengan jumlah core
+     * @param queueCapacity jumlah hash yang boleh menunggu giliran
+     * @param timeout       batas waktu tunggu pemanggil, termasuk waktu di antrean
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, Duration timeout,
+            Duration retryAfter, MeterRegistry registry) {
+        if (poolSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("poolSize and queueCapacity must be positive");
+        }
+        this.delegate = delegate;
+        this.timeoutNanos = timeout.toNanos();
+        this.retryAfter = retryAfter;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = timer(registry, "encode");
+        this.matchesTimer = timer(registry, "matches");
+        Gauge.builder("password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashes waiting for a hashing thread")
+                .register(registry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes currently running")
+                .register(registry);
+        this.queueFullRejections = rejected(registry, "queue_full");
+        this.timeoutRejections = rejected(registry, "timeout");
+    }
+
+    private static Timer timer(MeterRegistry registry, String operation) {
+        return Timer.builder("password.hash.duration")
+                .description("Time spent hashing or verifying a password on the hashing pool")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    private static Counter rejected(MeterRegistry registry, String reason) {
+        return Counter.builder("password.hash.rejected")
+                .description("Password hashes rejected because the hashing pool was saturated")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Encode tanpa menunggu hasil, untuk hashing paralel (mis. import massal). Future gagal dengan
+     * {@link RateLimitExceededException} jika antrean penuh atau hash tidak selesai dalam {@code timeout}.
+     */
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    result.complete(encodeTimer.recordCallable(() -> delegate.encode(rawPassword)));
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queueFullRejections.increment();
+            return CompletableFuture.failedFuture(saturated());
+        }
+        Future<?> queued = task;
+        return result.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS).exceptionallyCompose(e -> {
+            if (e instanceof TimeoutException) {
+                cancel(queued);
+                timeoutRejections.increment();
+                return CompletableFuture.failedFuture(saturated());
+            }
+            return CompletableFuture.failedFuture(e);
+        });
+    }
+
+    /**
+     * {@link #encodeAsync(CharSequence)} jika {@code encoder} adalah BoundedPasswordEncoder, selain itu
+     * encode langsung di thread pemanggil (mis. encoder di unit test).
+     */
+    public static CompletableFuture<String> encodeAsync(PasswordEncoder encoder, CharSequence rawPassword) {
+        if (encoder instanceof BoundedPasswordEncoder bounded) {
+            return bounded.encodeAsync(rawPassword);
+        }
+        try {
+            return CompletableFuture.completedFuture(encoder.encode(rawPassword));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Ukuran wajar satu gelombang hashing paralel: sebesar pool, sehingga antrean tetap longgar untuk
+     * login dan setiap hash selesai jauh sebelum timeout pool. 1 untuk encoder lain.
+     */
+    public static int parallelism(PasswordEncoder encoder) {
+        return (encoder instanceof BoundedPasswordEncoder bounded) ? bounded.getPoolSize() : 1;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Timer timer, Callable<T> hash) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(hash));
+        } catch (RejectedExecutionException e) {
+            queueFullRejections.increment();
+            throw saturated();
+        }
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Hash yang masih di antrean dibatalkan agar tidak memakan thread untuk pemanggil yang sudah pergi
+            cancel(future);
+            timeoutRejections.increment();
+            throw saturated();
+        } catch (InterruptedException e) {
+            cancel(future);
+            Thread.currentThread().interrupt();
+            throw saturated();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void cancel(Future<?> future) {
+        future.cancel(false);
+        // FutureTask yang dibatalkan tetap di antrean sampai diambil worker; dikeluarkan agar slot antrean kembali
+        if (future instanceof Runnable queued) {
+            executor.remove(queued);
+        }
+    }
+
+    private RateLimitExceededException saturated() {
+        return new RateLimitExceededException("Too many concurrent authentication requests, retry later", retryAfter);
+    }
+
+    /**
+     * Jumlah hash yang bisa berjalan bersamaan; batas wajar untuk satu gelombang {@link #encodeAsync}.
+     */
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.crud.common.web;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.time.Duration;
+
+/**
+ * Menandai response yang berasal dari data lama (fallback circuit breaker) dengan header
+ * {@code Warning: 110 - "Response is Stale"} dan {@code Age} dalam detik, sehingga client
+ * tahu datanya basi dan tidak perlu langsung mengulang request.
+ */
+@ControllerAdvice
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String STALE_AGE_ATTRIBUTE = StaleResponseAdvice.class.getName() + ".AGE";
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    /**
+     * Dipanggil dari fallback yang menyajikan data lama; di luar request HTTP tidak berpengaruh.
+     */
+    public static void markStale(Duration age) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(STALE_AGE_ATTRIBUTE, age, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(STALE_AGE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Duration age) {
+            response.getHeaders().set(HttpHeaders.WARNING, STALE_WARNING);
+            response.getHeaders().set(HttpHeaders.AGE, Long.toString(Math.max(age.toSeconds(), 0)));
+        }
+        return body;
+    }
+}
@@ -1,17 +1,57 @@
 package com.example.crud.config;
 
+import com.example.crud.common.cache.CacheInvalidationBus;
+import com.example.crud.common.cache.CoalescingCaffeineCache;
+import com.example.crud.common.cache.InvalidationBroadcastingCacheManager;
+import com.example.crud.common.cache.NotFoundCache;
+import com.example.crud.common.cache.RefreshingCacheLoader;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.CaffeineCacheMeterBinderProvider;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.EnvironmentAware;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.example.crud.feature.role.RoleConstants.ROLES_NOT_FOUND_CACHE;
+import static com.example.crud.feature.user.UserConstants.USER_DETAILS_CACHE;
+import static com.example.crud.feature.user.UserConstants.USERS_NOT_FOUND_CACHE;
 
 @Configuration
 
-public class CacheConfig {
+public class CacheConfig implements EnvironmentAware {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
+
     @Value("${cache.names:tokens}")
     private String cacheNames;
 
@@ -30,22 +70,265 @@ public class CacheConfig {
     @Value("${jwt.token.expiration:3600000}")
     private long jwtTokenExpiration;
 
+    @Value("${cache.user-details.ttl-seconds:300}")
+    private long userDetailsTtlSeconds = 300;
+
+    @Value("${cache.user-details.max-size:10000}")
+    private long userDetailsMaxSize = 10_000;
+
+    @Value("${cache.invalidation.caches:users,roles,userDetails,usersNotFound,rolesNotFound}")
+    private String invalidationCacheNames = "users,roles,userDetails,usersNotFound,rolesNotFound";
+
+    @Value("${cache.refresh.threads:2}")
+    private int refreshThreads = 2;
+
+    @Value("${cache.refresh.queue-capacity:1000}")
+    private int refreshQueueCapacity = 1000;
+
+    // cache.specs.<nama cache>=<CaffeineSpec>, mis. maximumSize=1000,expireAfterWrite=30m
+    private Map<String, String> cacheSpecs = Map.of();
+
+    private CacheInvalidationBus invalidationBus;
+
+    private ObjectProvider<RefreshingCacheLoader> cacheLoaders;
+
+    private ThreadPoolExecutor refreshExecutor;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.cacheSpecs = Binder.get(environment)
+                .bind("cache.specs", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+    }
+
+    // Hanya ada jika cache.invalidation.enabled=true (lihat CacheInvalidationConfig)
+    @Autowired(required = false)
+    public void setInvalidationBus(CacheInvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+    }
+
+    // ObjectProvider: loader bergantung pada repository yang juga memakai CacheManager
+    @Autowired(required = false)
+    public void setCacheLoaders(ObjectProvider<RefreshingCacheLoader> cacheLoaders) {
+        this.cacheLoaders = cacheLoaders;
+    }
+
     @Bean
     public CacheManager cacheManager() {
         String[] names = Arrays.stream(cacheNames.split(","))
                 .map(String::trim)
                 .filter(s -> !s.isEmpty())
                 .toArray(String[]::new);
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(names);
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name,
+                    com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                // Miss serentak untuk key yang sama (@Cacheable sync) digabung dan dihitung
+                return new CoalescingCaffeineCache(name, cache, isAllowNullValues());
+            }
+        };
+        cacheManager.setCacheNames(Arrays.asList(names));
 
         // Hitung expiry dari property cache.expiry.ms, fallback ke jwt.expirationMs jika null
         long expiryMs = cacheExpiryMs != null ? cacheExpiryMs : jwtTokenExpiration;
         TimeUnit unit = TimeUnit.valueOf(cacheExpiryUnit.toUpperCase());
         long expiryValue = Math.max(cacheExpiryMin, unit.convert(expiryMs, TimeUnit.MILLISECONDS));
 
+        // Default untuk cache tanpa cache.specs.<nama>
         cacheManager.setCaffeine(Caffeine.newBuilder()
                 .expireAfterWrite(expiryValue, unit)
-                .maximumSize(cacheMaxSize));
+                .maximumSize(cacheMaxSize)
+                .recordStats());
+
+        // Cache principal untuk JwtAuthenticationFilter memakai TTL sendiri yang lebih pendek
+        if (Arrays.asList(names).contains(USER_DETAILS_CACHE)) {
+            cacheManager.registerCustomCache(USER_DETAILS_CACHE, Caffeine.newBuilder()
+                    .expireAfterWrite(Duration.ofSeconds(userDetailsTtlSeconds))
+                    .maximumSize(userDetailsMaxSize)
+                    .recordStats()
+                    .build());
+        }
+
+        for (String name : names) {
+            String spec = cacheSpecs.get(name);
+            if (spec != null && !spec.isBlank()) {
+                registerFromSpec(cacheManager, name, spec);
+            }
+        }
+
+        // Evict di satu node ikut disebarkan ke node lain agar cache lokal mereka tidak basi
+        if (invalidationBus != null) {
+            return new InvalidationBroadcastingCacheManager(cacheManager, invalidationBus,
+                    Arrays.stream(invalidationCacheNames.split(",")).map(String::trim).filter(s -> !s.isEmpty())
+                            .toList());
+        }
         return cacheManager;
     }
+
+    /**
+     * Cache dengan spec sendiri: batas ukuran/bobot, expireAfterWrite atau expireAfterAccess,
+     * dan refreshAfterWrite. Statistik selalu dicatat untuk metrics.
+     */
+    private void registerFromSpec(CaffeineCacheManager cacheManager, String name, String spec) {
+        Map<String, String> options = parseSpec(spec);
+        options.remove("recordStats");
+        Caffeine<Object, Object> builder = Caffeine.from(CaffeineSpec.parse(toSpec(options))).recordStats();
+        if (options.containsKey("maximumWeight")) {
+            builder.weigher(CacheConfig::weigh);
+        }
+        if (options.containsKey("refreshAfterWrite")) {
+            // Refresh berjalan di executor terbatas; entry lama tetap dilayani selama reload
+            cacheManager.registerCustomCache(name, builder.executor(refreshExecutor())
+                    .build(new LazyCacheLoader(name)));
+        } else {
+            cacheManager.registerCustomCache(name, builder.build());
+        }
+    }
+
+    private static Map<String, String> parseSpec(String spec) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String option : spec.split(",")) {
+            String trimmed = option.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int eq = trimmed.indexOf('=');
+            options.put(eq < 0 ? trimmed : trimmed.substring(0, eq).trim(),
+                    eq < 0 ? null : trimmed.substring(eq + 1).trim());
+        }
+        return options;
+    }
+
+    private static String toSpec(Map<String, String> options) {
+        return options.entrySet().stream()
+                .map(e -> e.getValue() == null ? e.getKey() : e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Bobot untuk maximumWeight: jumlah elemen untuk nilai berupa koleksi atau map, 1 untuk nilai lain.
+     */
+    static int weigh(Object key, Object value) {
+        if (value instanceof Collection<?> collection) {
+            return Math.max(collection.size(), 1);
+        }
+        if (value instanceof Map<?, ?> map) {
+            return Math.max(map.size(), 1);
+        }
+        return 1;
+    }
+
+    private synchronized ThreadPoolExecutor refreshExecutor() {
+        if (refreshExecutor == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            // Jika antrean penuh, pemanggil yang memuat sendiri; refresh tidak boleh hilang diam-diam
+            refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(refreshQueueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, "cache-refresh-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+            refreshExecutor.allowCoreThreadTimeOut(true);
+        }
+        return refreshExecutor;
+    }
+
+    @PreDestroy
+    synchronized void shutdownRefreshExecutor() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Cache yang di-wrap {@link InvalidationBroadcastingCacheManager} tetap dilaporkan sebagai
+     * cache Caffeine (cache.gets, cache.evictions, dan seterusnya per nama cache).
+     */
+    @Bean
+    public CacheMeterBinderProvider<InvalidationBroadcastingCacheManager.BroadcastingCache> broadcastingCacheMeterBinderProvider() {
+        CaffeineCacheMeterBinderProvider caffeine = new CaffeineCacheMeterBinderProvider();
+        return new CacheMeterBinderProvider<>() {
+            @Override
+            public MeterBinder getMeterBinder(InvalidationBroadcastingCacheManager.BroadcastingCache cache,
+                    Iterable<Tag> tags) {
+                return cache.getTargetCache() instanceof CaffeineCache caffeineCache
+                        ? caffeine.getMeterBinder(caffeineCache, tags)
+                        : null;
+            }
+        };
+    }
+
+    /**
+     * Negative cache untuk {@code getUserById}; TTL dan ukurannya diatur lewat cache.specs.usersNotFound.
+     */
+    @Bean
+    public NotFoundCache userNotFoundCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        return new NotFoundCache(cacheManager.getCache(USERS_NOT_FOUND_CACHE), "user", meterRegistry);
+    }
+
+    /**
+     * Negative cache untuk {@code getRoleById}; TTL dan ukurannya diatur lewat cache.specs.rolesNotFound.
+     */
+    @Bean
+    public NotFoundCache roleNotFoundCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        return new NotFoundCache(cacheManager.getCache(ROLES_NOT_FOUND_CACHE), "role", meterRegistry);
+    }
+
+    /**
+     * Jumlah permintaan yang digabung per cache sebagai cache.coalesced{cache=...}.
+     */
+    @Bean
+    public MeterBinder cacheCoalescingMetrics(CacheManager cacheManager) {
+        return registry -> {
+            for (String name : cacheManager.getCacheNames()) {
+                Cache cache = cacheManager.getCache(name);
+                if (cache instanceof InvalidationBroadcastingCacheManager.BroadcastingCache broadcasting) {
+                    cache = broadcasting.getTargetCache();
+                }
+                if (cache instanceof CoalescingCaffeineCache coalescing) {
+                    FunctionCounter.builder("cache.coalesced", coalescing, CoalescingCaffeineCache::getCoalescedCount)
+                            .tag("cache", name)
+                            .description("Cache misses that waited for a load already in flight for the same key")
+                            .register(registry);
+                }
+            }
+        };
+    }
+
+    /**
+     * Mencari {@link RefreshingCacheLoader} untuk cache ini saat load pertama, bukan saat
+     * CacheManager dibuat, untuk menghindari dependency cycle.
+     */
+    private final class LazyCacheLoader implements CacheLoader<Object, Object> {
+
+        private final String cacheName;
+        private volatile RefreshingCacheLoader delegate;
+        private volatile boolean missingLogged;
+
+        LazyCacheLoader(String cacheName) {
+            this.cacheName = cacheName;
+        }
+
+        @Override
+        public Object load(Object key) throws Exception {
+            RefreshingCacheLoader loader = delegate;
+            if (loader == null) {
+                loader = (cacheLoaders == null) ? null : cacheLoaders.orderedStream()
+                        .filter(candidate -> cacheName.equals(candidate.getCacheName()))
+                        .findFirst()
+                        .orElse(null);
+                if (loader == null) {
+                    if (!missingLogged) {
+                        missingLogged = true;
+                        log.warn("Cache {} memakai refreshAfterWrite tetapi tidak ada RefreshingCacheLoader; "
+                                + "refresh-ahead tidak aktif", cacheName);
+                    }
+                    // Null: cache miss biasa, nilai dimuat oleh method @Cacheable
+                    return null;
+                }
+                delegate = loader;
+            }
+            return loader.load(key);
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package com.example.crud.config;
+
+import com.example.crud.common.cache.PgNotifyCacheInvalidationBus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Bus invalidation antar node lewat PostgreSQL LISTEN/NOTIFY. Aktif hanya jika
+ * cache.invalidation.enabled=true; {@link CacheConfig} lalu membungkus cache yang terdaftar
+ * di cache.invalidation.caches agar evict-nya ikut disebarkan.
+ */
+@Configuration
+@ConditionalOnProperty(value = "cache.invalidation.enabled", havingValue = "true")
+public class CacheInvalidationConfig {
+
+    @Bean
+    public PgNotifyCacheInvalidationBus cacheInvalidationBus(DataSource dataSource, ObjectMapper objectMapper,
+            @Value("${cache.invalidation.channel:cache_invalidation}") String channel,
+            @Value("${cache.invalidation.flush-interval-ms:50}") long flushIntervalMs) {
+        PgNotifyCacheInvalidationBus bus = new PgNotifyCacheInvalidationBus(dataSource, objectMapper, channel);
+        bus.start(Duration.ofMillis(flushIntervalMs));
+        return bus;
+    }
+}
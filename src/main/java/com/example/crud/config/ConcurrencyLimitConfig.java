@@ -0,0 +1,51 @@
+package com.example.crud.config;
+
+import com.example.crud.common.resilience.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Limiter konkurensi adaptif per service, dipakai oleh Resilient*Service di dalam bulkhead.
+ * Bulkhead memberi batas tetap per operasi; limiter ini menyesuaikan batas total service
+ * dengan latensi yang terukur.
+ */
+@Configuration
+public class ConcurrencyLimitConfig {
+
+    @Value("${service.concurrency-limit.initial-limit:10}")
+    private int initialLimit;
+
+    @Value("${service.concurrency-limit.min-limit:2}")
+    private int minLimit;
+
+    @Value("${service.concurrency-limit.max-limit:50}")
+    private int maxLimit;
+
+    @Value("${service.concurrency-limit.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${service.concurrency-limit.latency-threshold-ms:500}")
+    private long latencyThresholdMs;
+
+    @Value("${service.concurrency-limit.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @Bean
+    public AdaptiveConcurrencyLimiter userServiceConcurrencyLimiter(MeterRegistry meterRegistry) {
+        return limiter("userService", meterRegistry);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter roleServiceConcurrencyLimiter(MeterRegistry meterRegistry) {
+        return limiter("roleService", meterRegistry);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(String name, MeterRegistry meterRegistry) {
+        return new AdaptiveConcurrencyLimiter(name, initialLimit, minLimit, maxLimit, backoffRatio,
+                Duration.ofMillis(latencyThresholdMs), Duration.ofSeconds(retryAfterSeconds), meterRegistry);
+    }
+}
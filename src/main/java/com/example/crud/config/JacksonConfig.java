@@ -0,0 +1,28 @@
+package com.example.crud.config;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.SliceImpl;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Page sudah diserialisasi via DTO (PageSerializationMode.VIA_DTO), sedangkan Slice
+     * (CountStrategy.NONE) diserialisasi apa adanya. Mixin ini menambahkan flag hasNext
+     * dan membuang properti internal pageable/sort.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sliceSerializationCustomizer() {
+        return builder -> builder.mixIn(SliceImpl.class, SliceMixin.class);
+    }
+
+    @JsonIgnoreProperties({ "pageable", "sort" })
+    abstract static class SliceMixin {
+        @JsonProperty("hasNext")
+        public abstract boolean hasNext();
+    }
+}
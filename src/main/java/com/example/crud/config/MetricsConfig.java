@@ -0,0 +1,38 @@
+package com.example.crud.config;
+
+import com.example.crud.util.TimerUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Memasang MeterRegistry actuator ke {@link TimerUtil} sehingga latensi repository
+ * tercatat sebagai Timer repository.operation per tabel dan operasi.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricsConfig(ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${repository.metrics.enabled:true}") boolean enabled) {
+        this.meterRegistry = enabled ? meterRegistry.getIfAvailable() : null;
+    }
+
+    @PostConstruct
+    void bindTimerUtil() {
+        if (meterRegistry != null) {
+            TimerUtil.bind(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    void unbindTimerUtil() {
+        if (meterRegistry != null) {
+            TimerUtil.unbind(meterRegistry);
+        }
+    }
+}
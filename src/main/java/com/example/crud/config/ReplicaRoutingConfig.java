@@ -0,0 +1,79 @@
+package com.example.crud.config;
+
+import com.example.crud.common.datasource.ReadYourWritesTracker;
+import com.example.crud.common.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memisahkan bacaan ke replica PostgreSQL. Aktif hanya jika datasource.replica.enabled=true;
+ * tanpa itu DataSource tunggal dari auto-configuration Spring Boot tetap dipakai.
+ * Flyway selalu berjalan di primary.
+ */
+@Configuration
+@ConditionalOnProperty(value = "datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingConfig.class);
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public ReplicaRoutingDataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${datasource.replica.urls}") List<String> urls,
+            @Value("${datasource.replica.username:#{null}}") String username,
+            @Value("${datasource.replica.password:#{null}}") String password,
+            @Value("${datasource.replica.pool-size:10}") int poolSize,
+            @Value("${datasource.replica.max-lag-ms:1000}") long maxLagMs,
+            @Value("${datasource.replica.lag-check-interval-ms:1000}") long lagCheckIntervalMs,
+            @Value("${datasource.replica.read-your-writes-window-ms:5000}") long readYourWritesWindowMs,
+            @Value("${datasource.replica.read-your-writes-max-users:100000}") long readYourWritesMaxUsers) {
+        // Tulisan yang baru commit bisa belum terlihat di replica selama lag maksimum ditambah
+        // satu interval pengecekan; window yang lebih pendek tidak menjamin read-your-writes
+        if (readYourWritesWindowMs < maxLagMs + lagCheckIntervalMs) {
+            log.warn("datasource.replica.read-your-writes-window-ms ({}) lebih kecil dari max-lag-ms + "
+                    + "lag-check-interval-ms ({})", readYourWritesWindowMs, maxLagMs + lagCheckIntervalMs);
+        }
+
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(username != null ? username : properties.determineUsername());
+            replica.setPassword(password != null ? password : properties.determinePassword());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replicas.add(new ReplicaRoutingDataSource.Replica(replica.getPoolName(), replica));
+        }
+
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                Duration.ofMillis(maxLagMs),
+                new ReadYourWritesTracker(Duration.ofMillis(readYourWritesWindowMs), readYourWritesMaxUsers));
+        dataSource.start(Duration.ofMillis(lagCheckIntervalMs));
+        return dataSource;
+    }
+}
@@ -3,6 +3,7 @@ package com.example.crud.config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -10,19 +11,28 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer.FrameOptionsConfig;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import com.example.crud.common.security.BCryptCostCalibrator;
+import com.example.crud.common.security.BoundedPasswordEncoder;
 import com.example.crud.feature.auth.filter.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 public class SecurityConfig {
     private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
+    private static final String BCRYPT = "bcrypt";
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter)
@@ -49,10 +59,41 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Hash ditulis dengan prefix id ({bcrypt}) lewat DelegatingPasswordEncoder; hash lama tanpa prefix
+     * tetap diverifikasi sebagai BCrypt. Hash lama atau ber-cost lebih rendah di-rehash saat login
+     * berhasil (UserRepository sebagai UserDetailsPasswordService). bcrypt.strength 0 berarti cost
+     * dikalibrasi saat startup terhadap target-latency-ms.
+     * <p>
+     * Semua encode/matches dijalankan di pool hashing sendiri agar lonjakan login tidak menghabiskan
+     * worker thread yang dibutuhkan trafik CRUD. pool-size 0 berarti sebanyak jumlah core.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        logger.debug("Creating PasswordEncoder: BCryptPasswordEncoder");
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+            @Value("${security.password-hash.bcrypt.strength:10}") int bcryptStrength,
+            @Value("${security.password-hash.bcrypt.target-latency-ms:250}") long targetLatencyMs,
+            @Value("${security.password-hash.bcrypt.min-strength:10}") int minStrength,
+            @Value("${security.password-hash.bcrypt.max-strength:14}") int maxStrength,
+            @Value("${security.password-hash.pool-size:0}") int poolSize,
+            @Value("${security.password-hash.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password-hash.timeout-ms:2000}") long timeoutMs,
+            @Value("${security.password-hash.retry-after-seconds:1}") long retryAfterSeconds) {
+        int strength = bcryptStrength > 0 ? bcryptStrength
+                : BCryptCostCalibrator.calibrate(Duration.ofMillis(targetLatencyMs), minStrength, maxStrength);
+        logger.info("Password hashing: BCrypt cost {}{}", strength,
+                bcryptStrength > 0 ? "" : " (calibrated for " + targetLatencyMs + " ms)");
+        Gauge.builder("password.hash.bcrypt.strength", () -> strength)
+                .description("BCrypt cost used for new password hashes")
+                .register(meterRegistry);
+
+        DelegatingPasswordEncoder hashing = new DelegatingPasswordEncoder(BCRYPT,
+                Map.of(BCRYPT, new BCryptPasswordEncoder(strength)));
+        hashing.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        logger.debug("Creating PasswordEncoder on {} hashing threads, queue {}", threads, queueCapacity);
+        return new BoundedPasswordEncoder(hashing, threads, queueCapacity, Duration.ofMillis(timeoutMs),
+                Duration.ofSeconds(retryAfterSeconds), meterRegistry);
     }
 
     @Bean
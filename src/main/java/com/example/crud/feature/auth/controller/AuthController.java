@@ -4,12 +4,16 @@ import com.example.crud.feature.auth.dto.AuthRequest;
 import com.example.crud.feature.auth.dto.RefreshRequest;
 import com.example.crud.feature.auth.dto.RefreshResponse;
 import com.example.crud.feature.auth.service.AuthenticationService;
+import com.example.crud.feature.auth.service.LoginRateLimiter;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -20,18 +24,25 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthenticationService authenticationService;
+    private final LoginRateLimiter loginRateLimiter;
 
-    public AuthController(AuthenticationService authenticationService) {
+    public AuthController(AuthenticationService authenticationService, LoginRateLimiter loginRateLimiter) {
         this.authenticationService = authenticationService;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
 
     @Operation(summary = "Login user", description = "Login dan mendapatkan access token serta refresh token.")
     @ApiResponse(responseCode = "200", description = "Login berhasil")
     @ApiResponse(responseCode = "401", description = "Login gagal")
+    @ApiResponse(responseCode = "429", description = "Terlalu banyak percobaan login dari IP atau untuk username ini")
     @PostMapping("/login")
-    public RefreshResponse login(@RequestBody AuthRequest authRequest) {
-        return authenticationService.login(authRequest);
+    public RefreshResponse login(@RequestBody AuthRequest authRequest, HttpServletRequest request) {
+        // Ditolak sebelum verifikasi BCrypt dan query database
+        loginRateLimiter.acquire(request.getRemoteAddr(), authRequest.getUsername());
+        RefreshResponse response = authenticationService.login(authRequest);
+        loginRateLimiter.onSuccess(request.getRemoteAddr(), authRequest.getUsername());
+        return response;
     }
 
 
@@ -44,10 +55,14 @@ public class AuthController {
     }
 
 
-    @Operation(summary = "Logout", description = "Menghapus refresh token dari cache.")
+    @Operation(summary = "Logout", description = "Menghapus refresh token dari cache. Jika header Authorization dikirim, access token juga dicabut.")
     @ApiResponse(responseCode = "200", description = "Logout berhasil")
     @PostMapping("/logout")
-    public void logout(@RequestBody RefreshRequest request) {
-        authenticationService.logout(request.getRefreshToken());
+    public void logout(@RequestBody RefreshRequest request,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String accessToken = (authorization != null && authorization.startsWith("Bearer "))
+                ? authorization.substring(7)
+                : null;
+        authenticationService.logout(request.getRefreshToken(), accessToken);
     }
 }
@@ -1,8 +1,13 @@
 package com.example.crud.feature.auth.filter;
 
 import com.example.crud.feature.auth.service.JwtService;
+import com.example.crud.feature.auth.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -15,41 +20,67 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    // Stateless: Authentication dibangun dari claims token tanpa membaca database
+    @Value("${security.jwt.stateless:false}")
+    private boolean statelessMode;
+
+    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService,
+            TokenRevocationService tokenRevocationService) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
-        String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
+            String jwt = authHeader.substring(7);
             try {
-                username = jwtService.getUsernameFromToken(jwt);
+                claims = jwtService.parseToken(jwt);
             } catch (JwtException e) {
                 // Invalid JWT, do nothing, will be handled by security
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (userDetails != null) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        if (claims != null && claims.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null
+                && !(statelessMode && tokenRevocationService.isRevoked(claims))) {
+            UsernamePasswordAuthenticationToken authToken = statelessMode
+                    ? authenticationFromClaims(claims)
+                    : authenticationFromUserDetails(claims.getSubject());
+            if (authToken != null) {
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    private UsernamePasswordAuthenticationToken authenticationFromUserDetails(String username) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (userDetails == null) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private UsernamePasswordAuthenticationToken authenticationFromClaims(Claims claims) {
+        List<GrantedAuthority> authorities = (claims.get(JwtService.ROLES_CLAIM) instanceof Collection<?> roles)
+                ? roles.stream().<GrantedAuthority>map(role -> new SimpleGrantedAuthority(role.toString())).toList()
+                : List.of();
+        return new UsernamePasswordAuthenticationToken(claims.getSubject(), null, authorities);
+    }
 }
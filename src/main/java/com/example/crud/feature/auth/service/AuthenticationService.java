@@ -11,17 +11,27 @@ import com.example.crud.common.exception.InvalidRefreshTokenException;
 import com.example.crud.feature.auth.dto.AuthRequest;
 import com.example.crud.feature.auth.dto.RefreshResponse;
 
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 
 @Service
 public class AuthenticationService {
 
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public AuthenticationService(AuthenticationManager authenticationManager, JwtService jwtService) {
+    public AuthenticationService(AuthenticationManager authenticationManager, JwtService jwtService,
+            UserDetailsService userDetailsService, TokenRevocationService tokenRevocationService) {
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     public RefreshResponse login(AuthRequest authRequest) {
@@ -47,7 +57,11 @@ public class AuthenticationService {
             throw new InvalidRefreshTokenException("Invalid refresh token");
         }
         jwtService.removeRefreshToken(refreshToken);
-        String newAccessToken = jwtService.generateToken(username);
+        // Roles dimuat ulang agar token baru tetap membawa authority terkini (dipakai mode stateless)
+        java.util.List<String> roles = userDetailsService.loadUserByUsername(username).getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        String newAccessToken = jwtService.generateToken(username, roles);
         String newRefreshToken = jwtService.generateRefreshToken(username);
         return new RefreshResponse(newAccessToken, newRefreshToken);
     }
@@ -55,4 +69,20 @@ public class AuthenticationService {
     public void logout(String refreshToken) {
         jwtService.removeRefreshToken(refreshToken);
     }
+
+    /**
+     * Logout sekaligus memasukkan access token ke deny-list agar tidak bisa dipakai lagi.
+     */
+    public void logout(String refreshToken, String accessToken) {
+        logout(refreshToken);
+        if (accessToken == null) {
+            return;
+        }
+        try {
+            Claims claims = jwtService.parseToken(accessToken);
+            tokenRevocationService.revokeToken(claims.getId(), claims.getExpiration());
+        } catch (JwtException e) {
+            // Token sudah tidak valid, tidak perlu dicabut
+        }
+    }
 }
@@ -1,17 +1,43 @@
 package com.example.crud.feature.auth.service;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
 import java.util.UUID;
 
 @Service
 public class JwtService {
 
+    public static final String ROLES_CLAIM = "roles";
+    // iat standar hanya presisi detik; dipakai TokenRevocationService untuk membandingkan watermark
+    public static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+
+    private static final long DEFAULT_VERIFIED_CACHE_MAX_SIZE = 10_000;
+    private static final MessageDigest SHA256_PROTOTYPE = sha256Prototype();
+
     @Value("${jwt.token.secret}")
     private String jwtSecret;
 
@@ -26,6 +52,18 @@ public class JwtService {
 
     private final CacheManager cacheManager;
 
+    // Dibangun sekali dari jwtSecret saat pertama dipakai
+    private volatile SecretKey signingKey;
+    private volatile JwtParser parser;
+
+    // Digest SHA-256 token -> claims yang sudah terverifikasi, kedaluwarsa paling lambat saat exp token
+    private volatile com.github.benmanes.caffeine.cache.Cache<ByteBuffer, Claims> verifiedTokens =
+            buildVerifiedTokenCache(DEFAULT_VERIFIED_CACHE_MAX_SIZE);
+    private MeterRegistry meterRegistry;
+    // Didaftarkan sekali di setMeterRegistry; cache miss hanya memanggil record
+    private Timer validVerificationTimer;
+    private Timer invalidVerificationTimer;
+
     public JwtService(CacheManager cacheManager) {
         this.cacheManager = cacheManager;
     }
@@ -44,12 +82,15 @@ public class JwtService {
     }
 
     public String generateToken(String username, java.util.List<String> roles) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
-                .claim("roles", roles)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(SignatureAlgorithm.HS256, jwtSecret)
+                .claim(ROLES_CLAIM, roles)
+                .claim(ISSUED_AT_MILLIS_CLAIM, now)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + jwtExpirationMs))
+                .signWith(SignatureAlgorithm.HS256, signingKey())
                 .compact();
     }
 
@@ -78,10 +119,119 @@ public class JwtService {
     }
 
     public String getUsernameFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseToken(token).getSubject();
+    }
+
+    /**
+     * Memverifikasi signature dan expiry token, lalu mengembalikan claims-nya.
+     * Token yang sama dilayani dari cache sampai exp-nya, tanpa verifikasi HMAC ulang.
+     * Claims yang dikembalikan dipakai bersama, jangan diubah.
+     */
+    public Claims parseToken(String token) {
+        com.github.benmanes.caffeine.cache.Cache<ByteBuffer, Claims> cache = verifiedTokens;
+        if (cache == null) {
+            return verify(token);
+        }
+        ByteBuffer digest = digest(token);
+        Claims cached = cache.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = verify(token);
+        if (claims.getExpiration() != null) {
+            cache.put(digest, claims);
+        }
+        return claims;
+    }
+
+    private Claims verify(String token) {
+        long start = System.nanoTime();
+        boolean valid = false;
+        try {
+            Claims claims = parser().parseClaimsJws(token).getBody();
+            valid = true;
+            return claims;
+        } finally {
+            Timer timer = valid ? validVerificationTimer : invalidVerificationTimer;
+            if (timer != null) {
+                timer.record(Duration.ofNanos(System.nanoTime() - start));
+            }
+        }
+    }
+
+    private static Timer verificationTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("jwt.verification")
+                .description("Time spent verifying JWT signatures on verified-token cache misses")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private SecretKey signingKey() {
+        SecretKey key = signingKey;
+        if (key == null) {
+            // Sama dengan setSigningKey(String): secret diperlakukan sebagai base64
+            key = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SignatureAlgorithm.HS256.getJcaName());
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser parser() {
+        JwtParser jwtParser = parser;
+        if (jwtParser == null) {
+            jwtParser = Jwts.parser().setSigningKey(signingKey());
+            parser = jwtParser;
+        }
+        return jwtParser;
+    }
+
+    // Clone dari prototype jauh lebih murah daripada MessageDigest.getInstance per request
+    private static ByteBuffer digest(String token) {
+        try {
+            MessageDigest sha256 = (MessageDigest) SHA256_PROTOTYPE.clone();
+            return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (CloneNotSupportedException e) {
+            throw new JwtException("SHA-256 digest is not cloneable", e);
+        }
+    }
+
+    private static MessageDigest sha256Prototype() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Ukuran maksimum cache token terverifikasi; 0 menonaktifkan cache.
+     */
+    @Value("${jwt.verified-cache.max-size:10000}")
+    public void setVerifiedCacheMaxSize(long maxSize) {
+        this.verifiedTokens = maxSize > 0 ? buildVerifiedTokenCache(maxSize) : null;
+    }
+
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.validVerificationTimer = verificationTimer(meterRegistry, "valid");
+        this.invalidVerificationTimer = verificationTimer(meterRegistry, "invalid");
+    }
+
+    @PostConstruct
+    void bindCacheMetrics() {
+        if (meterRegistry != null && verifiedTokens != null) {
+            // Menyediakan cache.gets{result=hit|miss} untuk hit rate
+            CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwtVerifiedTokens");
+        }
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<ByteBuffer, Claims> buildVerifiedTokenCache(long maxSize) {
+        return Caffeine.newBuilder()
+                .expireAfter(Expiry.creating((ByteBuffer digest, Claims claims) -> Duration.ofMillis(
+                        Math.max(claims.getExpiration().getTime() - System.currentTimeMillis(), 0L))))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
     }
 }
@@ -0,0 +1,90 @@
+package com.example.crud.feature.auth.service;
+
+import com.example.crud.common.exception.RateLimitExceededException;
+import com.example.crud.common.resilience.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Membatasi percobaan login per IP client dan per username sebelum verifikasi BCrypt atau
+ * query database. Login yang berhasil mengembalikan tokennya, sehingga yang terbatasi
+ * praktis hanya percobaan gagal (credential stuffing, brute force).
+ */
+@Service
+public class LoginRateLimiter {
+
+    private final boolean enabled;
+    private final TokenBucketRateLimiter byIp;
+    private final TokenBucketRateLimiter byUsername;
+    private final Counter ipRejections;
+    private final Counter usernameRejections;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+            @Value("${auth.login-rate-limit.enabled:true}") boolean enabled,
+            @Value("${auth.login-rate-limit.ip.burst:20}") int ipBurst,
+            @Value("${auth.login-rate-limit.ip.per-minute:30}") int ipPerMinute,
+            @Value("${auth.login-rate-limit.username.burst:5}") int usernameBurst,
+            @Value("${auth.login-rate-limit.username.per-minute:5}") int usernamePerMinute,
+            @Value("${auth.login-rate-limit.max-keys:100000}") long maxKeys) {
+        this.enabled = enabled;
+        this.byIp = new TokenBucketRateLimiter(ipBurst, ipPerMinute, maxKeys);
+        this.byUsername = new TokenBucketRateLimiter(usernameBurst, usernamePerMinute, maxKeys);
+        this.ipRejections = rejections(meterRegistry, "ip");
+        this.usernameRejections = rejections(meterRegistry, "username");
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String limit) {
+        return Counter.builder("auth.login.rate_limited")
+                .description("Login attempts rejected before authentication")
+                .tag("limit", limit)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws RateLimitExceededException jika IP atau username ini sudah melewati batas
+     */
+    public void acquire(String clientIp, String username) {
+        if (!enabled) {
+            return;
+        }
+        Duration ipWait = byIp.tryAcquire(clientIp);
+        if (!ipWait.isZero()) {
+            ipRejections.increment();
+            throw tooManyAttempts(ipWait);
+        }
+        String usernameKey = normalize(username);
+        if (usernameKey != null) {
+            Duration usernameWait = byUsername.tryAcquire(usernameKey);
+            if (!usernameWait.isZero()) {
+                usernameRejections.increment();
+                // Token IP dikembalikan: percobaan ini tidak pernah sampai ke autentikasi
+                byIp.refund(clientIp);
+                throw tooManyAttempts(usernameWait);
+            }
+        }
+    }
+
+    public void onSuccess(String clientIp, String username) {
+        if (!enabled) {
+            return;
+        }
+        byIp.refund(clientIp);
+        String usernameKey = normalize(username);
+        if (usernameKey != null) {
+            byUsername.refund(usernameKey);
+        }
+    }
+
+    private static String normalize(String username) {
+        return (username == null || username.isBlank()) ? null : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static RateLimitExceededException tooManyAttempts(Duration retryAfter) {
+        return new RateLimitExceededException("Too many login attempts, retry later", retryAfter);
+    }
+}
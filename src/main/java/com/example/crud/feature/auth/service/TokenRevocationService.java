@@ -0,0 +1,194 @@
+package com.example.crud.feature.auth.service;
+
+import com.example.crud.common.cache.CacheInvalidation;
+import com.example.crud.common.cache.CacheInvalidationBus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Deny-list in-memory untuk access token yang sudah diterbitkan, hanya aktif saat
+ * security.jwt.stateless=true (mode stateful selalu memuat ulang user dari database).
+ * Token bisa dicabut per jti (mis. saat logout) atau lewat watermark issued-at per
+ * username / role: semua token yang diterbitkan sebelum watermark (presisi milidetik) ditolak.
+ * Di dalam transaksi pencabutan baru berlaku setelah commit. Pencabutan disebarkan ke node lain
+ * lewat {@link CacheInvalidationBus} jika cache.invalidation.enabled=true; tanpa bus, deny-list
+ * hanya berlaku di node ini.
+ * Entry hanya disimpan selama token yang dicabut masih mungkin berlaku.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    // Nama "cache" di bus; tidak terdaftar di CacheManager sehingga diabaikan oleh subscriber cache
+    static final String BUS_CHANNEL = "tokenRevocations";
+
+    private static final String USER_PREFIX = "user:";
+    private static final String ROLE_PREFIX = "role:";
+    private static final String JTI_PREFIX = "jti:";
+    private static final char VALUE_SEPARATOR = '|';
+
+    private final boolean enabled;
+    // jti -> waktu kedaluwarsa token (epoch millis)
+    private final Cache<String, Long> revokedTokenIds;
+    // user:<username> / role:<authority> -> watermark issued-at (epoch millis)
+    private final Cache<String, Long> watermarks;
+
+    private CacheInvalidationBus invalidationBus;
+
+    public TokenRevocationService(@Value("${jwt.token.expiration}") long jwtExpirationMs,
+            @Value("${security.jwt.deny-list.max-size:100000}") long maxSize,
+            @Value("${security.jwt.stateless:false}") boolean stateless) {
+        this.enabled = stateless;
+        this.revokedTokenIds = Caffeine.newBuilder()
+                .expireAfter(Expiry.creating((String jti, Long expiresAt) ->
+                        Duration.ofMillis(Math.max(expiresAt - System.currentTimeMillis(), 0L))))
+                .maximumSize(maxSize)
+                .build();
+        // Setelah jwtExpirationMs semua token yang lebih tua dari watermark sudah kedaluwarsa
+        this.watermarks = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(jwtExpirationMs))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    // Hanya ada jika cache.invalidation.enabled=true (lihat CacheInvalidationConfig)
+    @Autowired(required = false)
+    public void setInvalidationBus(CacheInvalidationBus invalidationBus) {
+        if (!enabled) {
+            return;
+        }
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(this::applyRemote, () ->
+                log.warn("Pesan pencabutan token dari node lain mungkin terlewat"));
+    }
+
+    /**
+     * false di mode stateful: pemanggil bisa melewati lookup yang hanya diperlukan untuk pencabutan.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void revokeToken(String jti, Date expiration) {
+        if (!enabled || jti == null || expiration == null) {
+            return;
+        }
+        revoke(JTI_PREFIX + jti, expiration.getTime());
+    }
+
+    /**
+     * Mencabut semua token milik username yang diterbitkan sebelum saat ini.
+     */
+    public void revokeUser(String username) {
+        if (!enabled) {
+            return;
+        }
+        log.debug("Revoking tokens issued to user {}", username);
+        revoke(USER_PREFIX + username, System.currentTimeMillis());
+    }
+
+    /**
+     * Mencabut semua token yang membawa authority ROLE_{roleName} yang diterbitkan sebelum saat ini.
+     */
+    public void revokeRole(String roleName) {
+        if (!enabled) {
+            return;
+        }
+        log.debug("Revoking tokens carrying role {}", roleName);
+        revoke(ROLE_PREFIX + "ROLE_" + roleName, System.currentTimeMillis());
+    }
+
+    public boolean isRevoked(Claims claims) {
+        if (!enabled) {
+            return false;
+        }
+        String jti = claims.getId();
+        if (jti != null && revokedTokenIds.getIfPresent(jti) != null) {
+            return true;
+        }
+        Long issuedAtMillis = issuedAtMillis(claims);
+        if (issuedAtMillis == null) {
+            return false;
+        }
+        if (isBeforeWatermark(USER_PREFIX + claims.getSubject(), issuedAtMillis)) {
+            return true;
+        }
+        if (claims.get(JwtService.ROLES_CLAIM) instanceof Collection<?> roles) {
+            for (Object role : roles) {
+                if (isBeforeWatermark(ROLE_PREFIX + role, issuedAtMillis)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void revoke(String key, long value) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Jika transaksi rollback, token yang sudah diterbitkan tetap berlaku
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(key, value);
+                }
+            });
+        } else {
+            apply(key, value);
+        }
+        if (invalidationBus != null) {
+            // Bus sendiri menunda pengiriman sampai commit
+            invalidationBus.publish(CacheInvalidation.entry(BUS_CHANNEL, key + VALUE_SEPARATOR + value));
+        }
+    }
+
+    private void apply(String key, long value) {
+        if (key.startsWith(JTI_PREFIX)) {
+            revokedTokenIds.put(key.substring(JTI_PREFIX.length()), value);
+        } else {
+            watermarks.asMap().merge(key, value, Math::max);
+        }
+    }
+
+    private void applyRemote(CacheInvalidation invalidation) {
+        if (!BUS_CHANNEL.equals(invalidation.cacheName()) || !(invalidation.key() instanceof String entry)) {
+            return;
+        }
+        int separator = entry.lastIndexOf(VALUE_SEPARATOR);
+        if (separator < 0) {
+            return;
+        }
+        try {
+            apply(entry.substring(0, separator), Long.parseLong(entry.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("Pesan pencabutan token tidak valid: {}", entry);
+        }
+    }
+
+    private static Long issuedAtMillis(Claims claims) {
+        if (claims.get(JwtService.ISSUED_AT_MILLIS_CLAIM) instanceof Number millis) {
+            return millis.longValue();
+        }
+        // Token lama tanpa claim milidetik: iat hanya presisi detik
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt != null ? issuedAt.getTime() : null;
+    }
+
+    private boolean isBeforeWatermark(String key, long issuedAtMillis) {
+        Long watermark = watermarks.getIfPresent(key);
+        return watermark != null && issuedAtMillis < watermark;
+    }
+}
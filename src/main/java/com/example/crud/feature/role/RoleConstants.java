@@ -6,5 +6,6 @@ public final class RoleConstants {
     public static final String ID = "id";
     public static final String TABLE_NAME = "roles";
     public static final String PREFIX_ROLE = "role_";
+    public static final String ROLES_NOT_FOUND_CACHE = "rolesNotFound";
     private RoleConstants() {}
 }
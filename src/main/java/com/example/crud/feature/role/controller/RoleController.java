@@ -1,33 +1,55 @@
 package com.example.crud.feature.role.controller;
 
+import com.example.crud.common.export.CsvColumn;
+import com.example.crud.common.export.ExportFormat;
+import com.example.crud.common.export.ExportWriter;
+import com.example.crud.common.repository.CountStrategy;
+import com.example.crud.common.repository.CursorPage;
+import com.example.crud.common.repository.SearchMode;
 import com.example.crud.feature.role.dto.RoleFilterDto;
 import com.example.crud.feature.role.dto.RoleRequestDto;
 import com.example.crud.feature.role.dto.RoleResponseDto;
 import com.example.crud.feature.role.service.RoleService;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import org.springdoc.core.converters.models.PageableAsQueryParam;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/roles")
 @Tag(name = "Role Management", description = "Endpoint untuk operasi CRUD pada Role")
 public class RoleController {
 
+    private static final List<CsvColumn<RoleResponseDto>> CSV_COLUMNS = List.of(
+            new CsvColumn<>("id", RoleResponseDto::id),
+            new CsvColumn<>("name", RoleResponseDto::name),
+            new CsvColumn<>("description", RoleResponseDto::description));
+
     private final RoleService roleService;
+    private final ObjectMapper objectMapper;
 
-    public RoleController(RoleService roleService) {
+    public RoleController(RoleService roleService, ObjectMapper objectMapper) {
         this.roleService = roleService;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Membuat role baru", description = "Membuat satu data role baru dan menyimpannya ke database.")
@@ -42,16 +64,74 @@ public class RoleController {
         return new ResponseEntity<>(createdRole, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Menampilkan semua role", description = "Mengambil daftar semua role dengan opsi filter, sort, dan pagination.")
+    @Operation(summary = "Membuat banyak role sekaligus", description = "Membuat banyak role dalam satu request menggunakan JDBC batch insert.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Semua role berhasil dibuat"),
+            @ApiResponse(responseCode = "400", description = "Input tidak valid")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/batch")
+    public ResponseEntity<List<RoleResponseDto>> createRoles(
+            @RequestBody @NotEmpty List<@Valid RoleRequestDto> roleDtos) {
+        return new ResponseEntity<>(roleService.createRoles(roleDtos), HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Menampilkan semua role", description = "Mengambil daftar semua role dengan opsi filter, sort, dan pagination. Parameter count memilih strategi total elemen: EXACT (default), NONE (tanpa total, hanya hasNext), ESTIMATED, atau CACHED.")
     @PageableAsQueryParam
     @GetMapping
-    public ResponseEntity<Page<RoleResponseDto>> getAllRoles(Pageable pageable,
-            @RequestParam MultiValueMap<String, String> allParams) {
+    public ResponseEntity<Slice<RoleResponseDto>> getAllRoles(Pageable pageable,
+            @RequestParam MultiValueMap<String, String> allParams,
+            @RequestParam(required = false) SearchMode searchMode,
+            @RequestParam(required = false) CountStrategy count) {
         RoleFilterDto filter = new RoleFilterDto();
         filter.setName(allParams.getFirst("name"));
         filter.setDescription(allParams.getFirst("description"));
+        filter.setSearchMode(searchMode);
+
+        if (count == null) {
+            Page<RoleResponseDto> page = roleService.getAllRoles(pageable, filter);
+            return ResponseEntity.ok(page);
+        }
+        return ResponseEntity.ok(roleService.getAllRoles(pageable, filter, count));
+    }
+
+    @Operation(summary = "Menampilkan semua role dengan cursor", description = "Mengambil daftar role dengan keyset pagination. Kirim parameter cursor kosong untuk halaman pertama, lalu gunakan nextCursor dari respons untuk halaman berikutnya.")
+    @PageableAsQueryParam
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<RoleResponseDto>> getAllRolesByCursor(Pageable pageable,
+            @RequestParam MultiValueMap<String, String> allParams,
+            @RequestParam(required = false) SearchMode searchMode) {
+        RoleFilterDto filter = new RoleFilterDto();
+        filter.setName(allParams.getFirst("name"));
+        filter.setDescription(allParams.getFirst("description"));
+        filter.setSearchMode(searchMode);
+
+        return ResponseEntity.ok(roleService.getAllRolesByCursor(pageable, filter, allParams.getFirst("cursor")));
+    }
+
+    @Operation(summary = "Export semua role", description = "Mengalirkan semua role yang cocok dengan filter sebagai NDJSON (default) atau CSV langsung dari cursor database, tanpa paging dan tanpa count query. Parameter sort opsional.")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRoles(Sort sort,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String description,
+            @RequestParam(required = false) SearchMode searchMode,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        RoleFilterDto filter = new RoleFilterDto();
+        filter.setName(name);
+        filter.setDescription(description);
+        filter.setSearchMode(searchMode);
 
-        return ResponseEntity.ok(roleService.getAllRoles(pageable, filter));
+        StreamingResponseBody body = out -> {
+            try (ExportWriter<RoleResponseDto> writer = ExportWriter.open(format, out, objectMapper, CSV_COLUMNS)) {
+                roleService.exportRoles(filter, sort, writer);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(format.fileName("roles")).build().toString())
+                .body(body);
     }
 
     @Operation(summary = "Menampilkan role berdasarkan ID", description = "Mengambil satu data role berdasarkan ID uniknya.")
@@ -1,9 +1,12 @@
 package com.example.crud.feature.role.dto;
 
+import com.example.crud.common.repository.SearchMode;
+
 // Tidak perlu anotasi, ini hanya object data biasa
 public class RoleFilterDto {
     private String name;
     private String description;
+    private SearchMode searchMode = SearchMode.CONTAINS;
 
     // Buat getter dan setter untuk semua field
     public String getName() {
@@ -21,4 +24,12 @@ public class RoleFilterDto {
     public void setDescription(String description) {
         this.description = description;
     }
+
+    public SearchMode getSearchMode() {
+        return searchMode;
+    }
+
+    public void setSearchMode(SearchMode searchMode) {
+        this.searchMode = (searchMode != null) ? searchMode : SearchMode.CONTAINS;
+    }
 }
\ No newline at end of file
@@ -55,4 +55,10 @@ public class RoleRepository extends AbstractJdbcRepository<Role, Long> {
     protected Set<String> getAllowedSortColumns() {
         return Set.of(ID, NAME, DESCRIPTION);
     }
+
+    @Override
+    protected Set<String> getKeysetSortColumns() {
+        // description boleh NULL, jadi tidak bisa dipakai sebagai kunci keyset
+        return Set.of(ID, NAME);
+    }
 }
\ No newline at end of file
@@ -1,6 +1,10 @@
 package com.example.crud.feature.role.service;
 
+import com.example.crud.common.cache.NotFoundCache;
 import com.example.crud.common.exception.ResourceNotFoundException;
+import com.example.crud.common.repository.CountStrategy;
+import com.example.crud.common.repository.CursorPage;
+import com.example.crud.feature.auth.service.TokenRevocationService;
 import com.example.crud.feature.role.dto.RoleFilterDto;
 import com.example.crud.feature.role.dto.RoleMapper;
 import com.example.crud.feature.role.dto.RoleRequestDto;
@@ -8,29 +12,50 @@ import com.example.crud.feature.role.dto.RoleResponseDto;
 import com.example.crud.feature.role.model.Role;
 import com.example.crud.feature.role.repository.RoleRepository;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.example.crud.feature.role.RoleConstants.ROLES_NOT_FOUND_CACHE;
+import static com.example.crud.feature.user.UserConstants.USER_DETAILS_CACHE;
 
 @Service("defaultRoleService")
 public class DefaultRoleService implements RoleService {
 
     private final RoleRepository roleRepository;
     private final RoleMapper roleMapper;
+    private final TokenRevocationService tokenRevocationService;
+    private NotFoundCache notFoundCache;
 
-    public DefaultRoleService(RoleRepository roleRepository, RoleMapper roleMapper) {
+    public DefaultRoleService(RoleRepository roleRepository, RoleMapper roleMapper,
+            TokenRevocationService tokenRevocationService) {
         this.roleRepository = roleRepository;
         this.roleMapper = roleMapper;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    @Autowired(required = false)
+    public void setNotFoundCache(@Qualifier("roleNotFoundCache") NotFoundCache notFoundCache) {
+        this.notFoundCache = notFoundCache;
     }
 
+    // Id baru bisa saja sudah tercatat sebagai not found oleh client yang menebak id
     @Override
     @Transactional
+    @CacheEvict(value = ROLES_NOT_FOUND_CACHE, allEntries = true)
     public RoleResponseDto createRole(RoleRequestDto roleDto) {
         Role role = roleMapper.toEntity(roleDto);
         Role savedRole = roleRepository.save(role);
@@ -38,35 +63,88 @@ public class DefaultRoleService implements RoleService {
     }
 
     @Override
-    @Cacheable(value = "roles", key = "#id")
+    @Transactional
+    @CacheEvict(value = ROLES_NOT_FOUND_CACHE, allEntries = true)
+    public List<RoleResponseDto> createRoles(List<RoleRequestDto> roleDtos) {
+        List<Role> roles = roleDtos.stream().map(roleMapper::toEntity).toList();
+        List<Role> savedRoles = roleRepository.saveAll(roles);
+        return savedRoles.stream().map(roleMapper::toDto).toList();
+    }
+
+    @Override
+    // sync: miss serentak untuk id yang sama hanya memicu satu query, pemanggil lain menunggu hasilnya
+    @Cacheable(value = "roles", key = "#id", sync = true)
     public RoleResponseDto getRoleById(Long id) {
+        if (notFoundCache != null && notFoundCache.isKnownMissing(id)) {
+            throw roleNotFound(id);
+        }
         return roleRepository.findById(id)
                 .map(roleMapper::toDto)
-                .orElseThrow(() -> new ResourceNotFoundException("Role not found with id: " + id));
+                .orElseThrow(() -> {
+                    if (notFoundCache != null) {
+                        notFoundCache.markMissing(id);
+                    }
+                    return roleNotFound(id);
+                });
+    }
+
+    private static ResourceNotFoundException roleNotFound(Long id) {
+        return new ResourceNotFoundException("Role not found with id: " + id);
     }
 
     @Override
     public Page<RoleResponseDto> getAllRoles(Pageable pageable, RoleFilterDto filter) {
+        Page<Role> rolePage = roleRepository.findAll(pageable, buildFilters(filter));
+        return rolePage.map(roleMapper::toDto);
+    }
+
+    @Override
+    public Slice<RoleResponseDto> getAllRoles(Pageable pageable, RoleFilterDto filter, CountStrategy countStrategy) {
+        Slice<Role> roleSlice = roleRepository.findAll(pageable, buildFilters(filter), countStrategy);
+        return roleSlice.map(roleMapper::toDto);
+    }
+
+    @Override
+    public CursorPage<RoleResponseDto> getAllRolesByCursor(Pageable pageable, RoleFilterDto filter, String cursor) {
+        CursorPage<Role> rolePage = roleRepository.findAllByCursor(pageable, buildFilters(filter), cursor);
+        return rolePage.map(roleMapper::toDto);
+    }
+
+    /**
+     * Tanpa @Transactional: repository membuka transaksi read-only sendiri yang hanya hidup selama stream.
+     */
+    @Override
+    public long exportRoles(RoleFilterDto filter, Sort sort, Consumer<? super RoleResponseDto> sink) {
+        return roleRepository.streamAll(buildFilters(filter), sort, role -> sink.accept(roleMapper.toDto(role)));
+    }
+
+    private Map<String, Object> buildFilters(RoleFilterDto filter) {
         // Bangun map filter secara internal dari DTO
         Map<String, Object> filters = new HashMap<>();
         if (filter.getName() != null && !filter.getName().isBlank()) {
-            filters.put("name", "%" + filter.getName() + "%");
+            filters.put("name", filter.getSearchMode().toPattern(filter.getName()));
         }
         if (filter.getDescription() != null && !filter.getDescription().isBlank()) {
-            filters.put("description", "%" + filter.getDescription() + "%");
+            filters.put("description", filter.getSearchMode().toPattern(filter.getDescription()));
         }
-
-        Page<Role> rolePage = roleRepository.findAll(pageable, filters);
-        return rolePage.map(roleMapper::toDto);
+        return filters;
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "roles", key = "#id")
+    @Caching(evict = {
+            @CacheEvict(value = "roles", key = "#id"),
+            // Nama role menjadi authority di UserDetails yang di-cache
+            @CacheEvict(value = USER_DETAILS_CACHE, allEntries = true)
+    })
     public RoleResponseDto updateRole(Long id, RoleRequestDto roleDto) {
         Role existingRole = roleRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Role not found with id: " + id));
 
+        if (!existingRole.getName().equals(roleDto.name())) {
+            // Authority ROLE_{nama lama} di token yang sudah diterbitkan tidak berlaku lagi
+            tokenRevocationService.revokeRole(existingRole.getName());
+        }
         existingRole.setName(roleDto.name());
         existingRole.setDescription(roleDto.description());
         roleRepository.update(existingRole);
@@ -75,8 +153,15 @@ public class DefaultRoleService implements RoleService {
 
     @Override
     @Transactional
-    @CacheEvict(value = "roles", key = "#id")
+    @Caching(evict = {
+            @CacheEvict(value = "roles", key = "#id"),
+            // Semua user dengan role ini terdampak; username mereka tidak diketahui tanpa query tambahan
+            @CacheEvict(value = USER_DETAILS_CACHE, allEntries = true)
+    })
     public boolean deleteRole(Long id) {
+        if (tokenRevocationService.isEnabled()) {
+            roleRepository.findById(id).ifPresent(role -> tokenRevocationService.revokeRole(role.getName()));
+        }
         return roleRepository.deleteById(id) > 0;
     }
 }
\ No newline at end of file
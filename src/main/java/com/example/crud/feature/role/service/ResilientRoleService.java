@@ -1,8 +1,15 @@
 package com.example.crud.feature.role.service;
 
+import com.example.crud.common.exception.InvalidCursorException;
+import com.example.crud.common.exception.ResourceNotFoundException;
+import com.example.crud.common.repository.CountStrategy;
+import com.example.crud.common.repository.CursorPage;
+import com.example.crud.common.resilience.AdaptiveConcurrencyLimiter;
+import com.example.crud.common.resilience.LoadShedding;
 import com.example.crud.feature.role.dto.RoleFilterDto;
 import com.example.crud.feature.role.dto.RoleRequestDto;
 import com.example.crud.feature.role.dto.RoleResponseDto;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -10,9 +17,14 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,10 +39,18 @@ public class ResilientRoleService implements RoleService {
 
     private static final Logger log = LoggerFactory.getLogger(ResilientRoleService.class);
 
+    private static final String ROLE_SERVICE = "roleService";
+    // Bulkhead terpisah: listing yang berat tidak boleh menghabiskan koneksi untuk lookup by id
+    private static final String ROLE_LIST = "roleList";
+    private static final String ROLE_LOOKUP = "roleLookup";
+
     private final RoleService delegate;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
 
-    public ResilientRoleService(@Qualifier("defaultRoleService") RoleService delegate) {
+    public ResilientRoleService(@Qualifier("defaultRoleService") RoleService delegate,
+            @Qualifier("roleServiceConcurrencyLimiter") AdaptiveConcurrencyLimiter concurrencyLimiter) {
         this.delegate = delegate;
+        this.concurrencyLimiter = concurrencyLimiter;
     }
 
     @Override
@@ -39,15 +59,44 @@ public class ResilientRoleService implements RoleService {
     }
 
     @Override
-    @CircuitBreaker(name = "roleService", fallbackMethod = "fallbackGetRoleById")
+    public List<RoleResponseDto> createRoles(List<RoleRequestDto> roleDtos) {
+        return delegate.createRoles(roleDtos);
+    }
+
+    @Override
+    @CircuitBreaker(name = ROLE_SERVICE, fallbackMethod = "fallbackGetRoleById")
+    @Bulkhead(name = ROLE_LOOKUP)
     public RoleResponseDto getRoleById(Long id) {
-        return delegate.getRoleById(id);
+        return concurrencyLimiter.execute(() -> delegate.getRoleById(id));
     }
 
     @Override
-    @CircuitBreaker(name = "roleService", fallbackMethod = "fallbackGetAllRoles")
+    @CircuitBreaker(name = ROLE_SERVICE, fallbackMethod = "fallbackGetAllRoles")
+    @Bulkhead(name = ROLE_LIST)
     public Page<RoleResponseDto> getAllRoles(Pageable pageable, RoleFilterDto filter) {
-        return delegate.getAllRoles(pageable, filter);
+        return concurrencyLimiter.execute(() -> delegate.getAllRoles(pageable, filter));
+    }
+
+    @Override
+    @CircuitBreaker(name = ROLE_SERVICE, fallbackMethod = "fallbackGetAllRoles")
+    @Bulkhead(name = ROLE_LIST)
+    public Slice<RoleResponseDto> getAllRoles(Pageable pageable, RoleFilterDto filter, CountStrategy countStrategy) {
+        return concurrencyLimiter.execute(() -> delegate.getAllRoles(pageable, filter, countStrategy));
+    }
+
+    @Override
+    @CircuitBreaker(name = ROLE_SERVICE, fallbackMethod = "fallbackGetAllRolesByCursor")
+    @Bulkhead(name = ROLE_LIST)
+    public CursorPage<RoleResponseDto> getAllRolesByCursor(Pageable pageable, RoleFilterDto filter, String cursor) {
+        return concurrencyLimiter.execute(() -> delegate.getAllRolesByCursor(pageable, filter, cursor));
+    }
+
+    /**
+     * Tanpa circuit breaker: fallback tidak bisa dipakai setelah sebagian baris terkirim ke client.
+     */
+    @Override
+    public long exportRoles(RoleFilterDto filter, Sort sort, Consumer<? super RoleResponseDto> sink) {
+        return delegate.exportRoles(filter, sort, sink);
     }
 
     @Override
@@ -61,6 +110,11 @@ public class ResilientRoleService implements RoleService {
     }
 
     private RoleResponseDto fallbackGetRoleById(Long id, Throwable t) {
+        if (t instanceof ResourceNotFoundException notFound) {
+            // Fallback juga dipanggil untuk exception yang diabaikan breaker; 404 tetap 404
+            throw notFound;
+        }
+        LoadShedding.rethrowIfLoadShed(t);
         log.error("Circuit breaker opened for getRoleById: {}", id, t);
         return new RoleResponseDto(id, "Fallback Role", "Service is currently unavailable");
     }
@@ -70,7 +124,32 @@ public class ResilientRoleService implements RoleService {
      */
     @SuppressWarnings("unused")
     private Page<RoleResponseDto> fallbackGetAllRoles(Pageable pageable, RoleFilterDto filter, Throwable t) {
+        LoadShedding.rethrowIfLoadShed(t);
         log.error("Circuit breaker opened for getAllRoles", t);
         return new PageImpl<>(Collections.emptyList(), pageable, 0);
     }
-}
\ No newline at end of file
+
+    /**
+     * Fallback for getAllRoles with a count strategy. The 'filter' and 'countStrategy' parameters are required by Resilience4j fallback signature.
+     */
+    @SuppressWarnings("unused")
+    private Slice<RoleResponseDto> fallbackGetAllRoles(Pageable pageable, RoleFilterDto filter, CountStrategy countStrategy, Throwable t) {
+        LoadShedding.rethrowIfLoadShed(t);
+        log.error("Circuit breaker opened for getAllRoles", t);
+        return new SliceImpl<>(Collections.emptyList(), pageable, false);
+    }
+
+    /**
+     * Fallback for getAllRolesByCursor. The 'filter' and 'cursor' parameters are required by Resilience4j fallback signature.
+     */
+    @SuppressWarnings("unused")
+    private CursorPage<RoleResponseDto> fallbackGetAllRolesByCursor(Pageable pageable, RoleFilterDto filter, String cursor, Throwable t) {
+        if (t instanceof InvalidCursorException invalidCursor) {
+            // Cursor tidak valid adalah kesalahan client, bukan kegagalan service
+            throw invalidCursor;
+        }
+        LoadShedding.rethrowIfLoadShed(t);
+        log.error("Circuit breaker opened for getAllRolesByCursor", t);
+        return CursorPage.empty(pageable.getPageSize());
+    }
+}
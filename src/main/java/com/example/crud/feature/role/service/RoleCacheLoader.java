@@ -0,0 +1,32 @@
+package com.example.crud.feature.role.service;
+
+import com.example.crud.common.cache.RefreshingCacheLoader;
+import com.example.crud.feature.role.dto.RoleMapper;
+import com.example.crud.feature.role.repository.RoleRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Memuat ulang entry cache roles (key id, nilai RoleResponseDto) untuk refresh-ahead,
+ * sama seperti {@link DefaultRoleService#getRoleById}.
+ */
+@Component
+public class RoleCacheLoader implements RefreshingCacheLoader {
+
+    private final RoleRepository roleRepository;
+    private final RoleMapper roleMapper;
+
+    public RoleCacheLoader(RoleRepository roleRepository, RoleMapper roleMapper) {
+        this.roleRepository = roleRepository;
+        this.roleMapper = roleMapper;
+    }
+
+    @Override
+    public String getCacheName() {
+        return "roles";
+    }
+
+    @Override
+    public Object load(Object id) {
+        return roleRepository.findById((Long) id).map(roleMapper::toDto).orElse(null);
+    }
+}
@@ -1,15 +1,26 @@
 package com.example.crud.feature.role.service;
 
+import com.example.crud.common.repository.CountStrategy;
+import com.example.crud.common.repository.CursorPage;
 import com.example.crud.feature.role.dto.RoleFilterDto;
 import com.example.crud.feature.role.dto.RoleRequestDto;
 import com.example.crud.feature.role.dto.RoleResponseDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface RoleService {
     RoleResponseDto createRole(RoleRequestDto roleDto);
+    List<RoleResponseDto> createRoles(List<RoleRequestDto> roleDtos);
     RoleResponseDto getRoleById(Long id);
     Page<RoleResponseDto> getAllRoles(Pageable pageable, RoleFilterDto filter);
+    Slice<RoleResponseDto> getAllRoles(Pageable pageable, RoleFilterDto filter, CountStrategy countStrategy);
+    CursorPage<RoleResponseDto> getAllRolesByCursor(Pageable pageable, RoleFilterDto filter, String cursor);
+    long exportRoles(RoleFilterDto filter, Sort sort, Consumer<? super RoleResponseDto> sink);
     RoleResponseDto updateRole(Long id, RoleRequestDto roleDto);
     boolean deleteRole(Long id);
 }
\ No newline at end of file
@@ -7,5 +7,7 @@ public final class UserConstants {
     public static final String PREFIX_USER = "user_";
     public static final String TABLE_NAME = "users";
     public static final String ID = "id";
+    public static final String USER_DETAILS_CACHE = "userDetails";
+    public static final String USERS_NOT_FOUND_CACHE = "usersNotFound";
     private UserConstants() {}
 }
@@ -1,10 +1,20 @@
 package com.example.crud.feature.user.controller;
 
+import com.example.crud.common.export.CsvColumn;
+import com.example.crud.common.export.ExportFormat;
+import com.example.crud.common.export.ExportWriter;
+import com.example.crud.common.repository.CountStrategy;
+import com.example.crud.common.repository.CursorPage;
+import com.example.crud.common.repository.SearchMode;
+import com.example.crud.feature.user.service.UserImportService;
 import com.example.crud.feature.user.service.UserService;
+import com.example.crud.feature.user.dto.UserExportDto;
 import com.example.crud.feature.user.dto.UserFilterDto;
+import com.example.crud.feature.user.dto.UserImportResultDto;
 import com.example.crud.feature.user.dto.UserRequestDto;
 import com.example.crud.feature.user.dto.UserResponseDto;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -13,7 +23,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springdoc.core.converters.models.PageableAsQueryParam;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,10 +36,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 import org.springframework.security.access.prepost.PreAuthorize;
 
@@ -33,10 +55,21 @@ import org.springframework.security.access.prepost.PreAuthorize;
 @Tag(name = "User Management", description = "Endpoint untuk operasi CRUD pada User")
 public class UserController {
 
+    private static final List<CsvColumn<UserExportDto>> CSV_COLUMNS = List.of(
+            new CsvColumn<>("id", UserExportDto::id),
+            new CsvColumn<>("username", UserExportDto::username),
+            new CsvColumn<>("role_id", user -> user.role() != null ? user.role().id() : null),
+            new CsvColumn<>("role_name", user -> user.role() != null ? user.role().name() : null),
+            new CsvColumn<>("role_description", user -> user.role() != null ? user.role().description() : null));
+
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserImportService userImportService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.userImportService = userImportService;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Membuat user baru", description = "Membuat satu data user baru dan menyimpannya ke database.")
@@ -50,26 +83,87 @@ public class UserController {
         return new ResponseEntity<>(createdUser, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Menampilkan semua user", description = "Mengambil daftar semua user dengan opsi filter, sort, dan pagination.")
+    @Operation(summary = "Membuat banyak user sekaligus", description = "Membuat banyak user dalam satu request menggunakan JDBC batch insert.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Semua user berhasil dibuat"),
+            @ApiResponse(responseCode = "400", description = "Input tidak valid"),
+            @ApiResponse(responseCode = "404", description = "Role dengan ID tersebut tidak ditemukan")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserResponseDto>> createUsers(
+            @RequestBody @NotEmpty List<@Valid UserRequestDto> userDtos) {
+        return new ResponseEntity<>(userService.createUsers(userDtos), HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Import user massal", description = "Mengimpor user dari body text/csv (header username,password,role) atau application/x-ndjson. Role ditulis sebagai nama. Baris yang tidak valid atau username yang sudah ada dilewati dan dilaporkan per baris, bersama throughput import.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import selesai, lihat rejects untuk baris yang dilewati"),
+            @ApiResponse(responseCode = "400", description = "Header CSV tidak lengkap"),
+            @ApiResponse(responseCode = "415", description = "Content-Type bukan text/csv atau application/x-ndjson")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<UserImportResultDto> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) throws IOException {
+        return ResponseEntity.ok(userImportService.importUsers(body, ExportFormat.fromMediaType(contentType)));
+    }
+
+    @Operation(summary = "Menampilkan semua user", description = "Mengambil daftar semua user dengan opsi filter, sort, dan pagination. Parameter count memilih strategi total elemen: EXACT (default), NONE (tanpa total, hanya hasNext), ESTIMATED, atau CACHED. Parameter searchMode memilih pencocokan filter teks: CONTAINS (default) atau STARTS_WITH.")
     @PageableAsQueryParam
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping
-    public ResponseEntity<Page<UserResponseDto>> getAllUsers(
+    public ResponseEntity<Slice<UserResponseDto>> getAllUsers(
             Pageable pageable,
             @RequestParam(required = false) String username,
             @RequestParam(required = false) String password,
-            @RequestParam(required = false) Long roleId) {
-        UserFilterDto filter = new UserFilterDto();
-        filter.setUsername(username);
-        filter.setPassword(password);
-        if (roleId != null) {
-            com.example.crud.feature.role.model.Role role = new com.example.crud.feature.role.model.Role();
-            // Ensure the id is set using the BaseEntity setter
-            role.setId(roleId);
-            filter.setRole(role);
+            @RequestParam(required = false) Long roleId,
+            @RequestParam(required = false) SearchMode searchMode,
+            @RequestParam(required = false) CountStrategy count) {
+        UserFilterDto filter = buildFilter(username, password, roleId, searchMode);
+        if (count == null) {
+            Page<UserResponseDto> page = userService.getAllUsers(pageable, filter);
+            return ResponseEntity.ok(page);
         }
-        Page<UserResponseDto> page = userService.getAllUsers(pageable, filter);
-        return ResponseEntity.ok(page);
+        return ResponseEntity.ok(userService.getAllUsers(pageable, filter, count));
+    }
+
+    @Operation(summary = "Menampilkan semua user dengan cursor", description = "Mengambil daftar user dengan keyset pagination. Kirim parameter cursor kosong untuk halaman pertama, lalu gunakan nextCursor dari respons untuk halaman berikutnya.")
+    @PageableAsQueryParam
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<UserResponseDto>> getAllUsersByCursor(
+            Pageable pageable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String password,
+            @RequestParam(required = false) Long roleId,
+            @RequestParam(required = false) SearchMode searchMode) {
+        UserFilterDto filter = buildFilter(username, password, roleId, searchMode);
+        return ResponseEntity.ok(userService.getAllUsersByCursor(pageable, filter, cursor));
+    }
+
+    @Operation(summary = "Export semua user", description = "Mengalirkan semua user yang cocok dengan filter sebagai NDJSON (default) atau CSV langsung dari cursor database, tanpa paging dan tanpa count query. Parameter sort opsional.")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            Sort sort,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String password,
+            @RequestParam(required = false) Long roleId,
+            @RequestParam(required = false) SearchMode searchMode,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        UserFilterDto filter = buildFilter(username, password, roleId, searchMode);
+        StreamingResponseBody body = out -> {
+            try (ExportWriter<UserExportDto> writer = ExportWriter.open(format, out, objectMapper, CSV_COLUMNS)) {
+                userService.exportUsers(filter, sort, user -> writer.accept(UserExportDto.from(user)));
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(format.fileName("users")).build().toString())
+                .body(body);
     }
 
     @Operation(summary = "Menampilkan user berdasarkan ID", description = "Mengambil satu data user berdasarkan ID uniknya.")
@@ -108,4 +202,18 @@ public class UserController {
             throw new com.example.crud.common.exception.ResourceNotFoundException("User not found with id: " + id);
         }
     }
+
+    private UserFilterDto buildFilter(String username, String password, Long roleId, SearchMode searchMode) {
+        UserFilterDto filter = new UserFilterDto();
+        filter.setUsername(username);
+        filter.setPassword(password);
+        filter.setSearchMode(searchMode);
+        if (roleId != null) {
+            com.example.crud.feature.role.model.Role role = new com.example.crud.feature.role.model.Role();
+            // Ensure the id is set using the BaseEntity setter
+            role.setId(roleId);
+            filter.setRole(role);
+        }
+        return filter;
+    }
 }
\ No newline at end of file
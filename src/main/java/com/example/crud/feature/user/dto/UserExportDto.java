@@ -0,0 +1,13 @@
+package com.example.crud.feature.user.dto;
+
+import com.example.crud.feature.role.dto.RoleResponseDto;
+
+/**
+ * Baris export user. Sengaja tanpa password agar export massal tidak membocorkan hash.
+ */
+public record UserExportDto(Long id, String username, RoleResponseDto role) {
+
+    public static UserExportDto from(UserResponseDto user) {
+        return new UserExportDto(user.id(), user.username(), user.role());
+    }
+}
@@ -1,12 +1,14 @@
 package com.example.crud.feature.user.dto;
 
 
+import com.example.crud.common.repository.SearchMode;
 import com.example.crud.feature.role.model.Role;
 
 public class UserFilterDto {
     private String username;
     private String password;
     private Role role;
+    private SearchMode searchMode = SearchMode.CONTAINS;
 
     // Getters and Setters
     public Role getRole() {
@@ -31,4 +33,12 @@ public class UserFilterDto {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    public SearchMode getSearchMode() {
+        return searchMode;
+    }
+
+    public void setSearchMode(SearchMode searchMode) {
+        this.searchMode = (searchMode != null) ? searchMode : SearchMode.CONTAINS;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,3 @@
+package com.example.crud.feature.user.dto;
+
+public record UserImportRejectDto(long line, String username, String reason) {}
@@ -0,0 +1,9 @@
+package com.example.crud.feature.user.dto;
+
+import java.util.List;
+
+/**
+ * Ringkasan import. rejects hanya memuat sebagian pertama baris yang ditolak; jumlah lengkapnya ada di rejected.
+ */
+public record UserImportResultDto(long totalRows, long imported, long rejected, long elapsedMillis,
+        double rowsPerSecond, List<UserImportRejectDto> rejects) {}
@@ -0,0 +1,6 @@
+package com.example.crud.feature.user.dto;
+
+/**
+ * Satu baris file import: kolom CSV atau properti NDJSON username, password, dan role (nama role).
+ */
+public record UserImportRowDto(String username, String password, String role) {}
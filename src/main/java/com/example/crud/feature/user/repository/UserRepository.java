@@ -1,22 +1,34 @@
 package com.example.crud.feature.user.repository;
 
+import com.example.crud.common.export.CsvColumn;
+import com.example.crud.common.export.ExportFormat;
+import com.example.crud.common.export.ExportWriter;
 import com.example.crud.common.repository.AbstractJdbcRepository;
 import com.example.crud.feature.role.model.Role;
 import com.example.crud.feature.user.model.User;
 import com.example.crud.util.TimerUtil;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Repository;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
 
 import static com.example.crud.common.model.AuditTrailConstants.*;
 import static com.example.crud.feature.role.RoleConstants.*;
@@ -24,15 +36,23 @@ import static com.example.crud.feature.user.UserConstants.*;
 import static com.example.crud.feature.user.UserConstants.TABLE_NAME;
 import static com.example.crud.feature.user.UserConstants.ID;
 import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public class UserRepository extends AbstractJdbcRepository<User, Long> implements UserDetailsService {
+public class UserRepository extends AbstractJdbcRepository<User, Long>
+        implements UserDetailsService, UserDetailsPasswordService {
+    private static final Logger log = LoggerFactory.getLogger(UserRepository.class);
     private static final String FIND_BY_ID_SQL = ("""
             SELECT
                 u.id as user_id, u.username as user_username, u.password as user_password,
@@ -44,8 +64,58 @@ public class UserRepository extends AbstractJdbcRepository<User, Long> implement
             WHERE u.id = :id
         """).stripIndent().trim();
 
+    private static final String SELECT_WITH_ROLE_SQL = ("""
+            SELECT
+                u.id as user_id, u.username as user_username, u.password as user_password,
+                u.created_at as user_created_at, u.created_by as user_created_by,
+                u.updated_at as user_updated_at, u.updated_by as user_updated_by,
+                r.id as role_id, r.name as role_name, r.description as role_description
+            FROM users u
+            LEFT JOIN roles r ON u.role_id = r.id
+        """).stripIndent().trim();
+
+    private static final String FIND_BY_USERNAME_SQL = SELECT_WITH_ROLE_SQL + "\nWHERE u.username = :username";
+
+    private static final String UPDATE_PASSWORD_SQL = "UPDATE users SET password = :password WHERE username = :username";
+
     private static final Set<String> ALLOWED_FILTER_COLUMNS = Set.of(USERNAME, ROLE_ID, PASSWORD);
 
+    // --- Bulk import lewat tabel staging user_import_staging (V8), dipisah per import_id ---
+    private static final String COPY_IMPORT_SQL = "COPY user_import_staging (import_id, line_no, username, password, "
+            + "role_id) FROM STDIN WITH (FORMAT csv, HEADER true)";
+    private static final String BATCH_IMPORT_SQL =
+            "INSERT INTO user_import_staging (import_id, line_no, username, password, role_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String IMPORT_DUPLICATE_PREDICATE = """
+            (EXISTS (SELECT 1 FROM users u WHERE u.username = s.username)
+                OR EXISTS (SELECT 1 FROM user_import_staging d
+                    WHERE d.import_id = s.import_id AND d.username = s.username AND d.line_no < s.line_no))""";
+    private static final String FIND_IMPORT_DUPLICATES_SQL = "SELECT s.line_no, s.username FROM user_import_staging s "
+            + "WHERE s.import_id = :importId AND " + IMPORT_DUPLICATE_PREDICATE + " ORDER BY s.line_no";
+    private static final String INSERT_FROM_IMPORT_SQL = """
+            INSERT INTO users (username, password, role_id, created_at, created_by, updated_at, updated_by)
+            SELECT s.username, s.password, s.role_id, :auditTime, :auditor, :auditTime, :auditor
+            FROM user_import_staging s
+            WHERE s.import_id = :importId AND NOT %s
+            ORDER BY s.line_no""".formatted(IMPORT_DUPLICATE_PREDICATE);
+    private static final String DELETE_IMPORT_SQL = "DELETE FROM user_import_staging WHERE import_id = :importId";
+    private static final String IMPORT_ID = "importId";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Baris import yang sudah tervalidasi dan role-nya sudah di-resolve.
+     */
+    public record StagedUser(long line, String username, String password, long roleId) {
+    }
+
+    /**
+     * Baris yang tidak di-insert karena username sudah ada di tabel atau di baris sebelumnya.
+     */
+    public record DuplicateUser(long line, String username) {
+    }
+
+    public record BulkInsertResult(long inserted, long duplicates, List<DuplicateUser> reportedDuplicates) {
+    }
+
     static final RowMapper<User> USER_ROW_MAPPER = (rs, rowNum) -> {
         User user = new User();
         user.setId(rs.getLong(PREFIX_USER + ID));
@@ -69,8 +139,22 @@ public class UserRepository extends AbstractJdbcRepository<User, Long> implement
         return user;
     };
 
+    private final TimerUtil.Operation findByIdTimer = TimerUtil.operation(TABLE_NAME, "findById");
+    private final TimerUtil.Operation findByUsernameTimer = TimerUtil.operation(TABLE_NAME, "findByUsername");
+    private final TimerUtil.Operation bulkInsertTimer = TimerUtil.operation(TABLE_NAME, "bulkInsert");
+
+    private Cache userDetailsCache;
+
+    private final JdbcTemplate importJdbcTemplate;
+
     public UserRepository(DataSource dataSource, JdbcClient jdbcClient) {
         super(dataSource, jdbcClient);
+        this.importJdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Autowired(required = false)
+    public void setCacheManager(CacheManager cacheManager) {
+        this.userDetailsCache = cacheManager.getCache(USER_DETAILS_CACHE);
     }
 
     @Override
@@ -111,9 +195,44 @@ public class UserRepository extends AbstractJdbcRepository<User, Long> implement
         return Set.of(ID, USERNAME, PASSWORD);
     }
 
+    @Override
+    protected Set<String> getKeysetSortColumns() {
+        // Hash password tidak boleh ikut ter-encode ke nextCursor yang dilihat client
+        return Set.of(ID, USERNAME);
+    }
+
+    /**
+     * Memetakan baris users hasil INSERT ... RETURNING (tanpa join). Role tidak di-select
+     * ulang, melainkan diambil dari entity yang disimpan (sudah di-load oleh service).
+     */
+    @Override
+    protected RowMapper<User> getReturningRowMapper(User entity) {
+        return (rs, rowNum) -> {
+            User user = new User();
+            user.setId(rs.getLong(ID));
+            user.setUsername(rs.getString(USERNAME));
+            user.setPassword(rs.getString(PASSWORD));
+            user.setCreatedAt(rs.getTimestamp(CREATED_AT) != null ? rs.getTimestamp(CREATED_AT).toLocalDateTime() : null);
+            user.setCreatedBy(rs.getString(CREATED_BY));
+            user.setUpdatedAt(rs.getTimestamp(UPDATED_AT) != null ? rs.getTimestamp(UPDATED_AT).toLocalDateTime() : null);
+            user.setUpdatedBy(rs.getString(UPDATED_BY));
+
+            long roleId = rs.getLong(ROLE_ID);
+            if (!rs.wasNull()) {
+                Role role = entity.getRole();
+                if (role == null || !Long.valueOf(roleId).equals(role.getId())) {
+                    role = new Role();
+                    role.setId(roleId);
+                }
+                user.setRole(role);
+            }
+            return user;
+        };
+    }
+
     @Override
     public Optional<User> findById(Long id) {
-        return TimerUtil.time("findById", () -> {
+        return findByIdTimer.time(() -> {
             Map<String, Object> params = Map.of(ID, id);
             logQuery(FIND_BY_ID_SQL, params);
             return jdbcClient.sql(FIND_BY_ID_SQL)
@@ -124,32 +243,17 @@ public class UserRepository extends AbstractJdbcRepository<User, Long> implement
     }
 
     @Override
-    public Page<User> findAll(Pageable pageable, Map<String, Object> filters) {
-        return TimerUtil.time("findAll", () -> {
-            Map<String, Object> actualFilters = processFilters(filters);
-            String countSql = buildCountSql(actualFilters);
-            logQuery(countSql, actualFilters);
-            Long totalElements = jdbcClient.sql(countSql)
-                    .params(actualFilters)
-                    .query(Long.class)
-                    .single();
-
-            String dataSql = buildDataSql(actualFilters, pageable);
-            Map<String, Object> queryParams = new LinkedHashMap<>(actualFilters);
-            queryParams.put("limit", pageable.getPageSize());
-            queryParams.put("offset", pageable.getOffset());
-
-            logQuery(dataSql, queryParams);
-            List<User> content = jdbcClient.sql(dataSql)
-                    .params(queryParams)
-                    .query(getRowMapper())
-                    .list();
+    protected String getQueryAlias() {
+        return "u";
+    }
 
-            return new PageImpl<>(content, pageable, totalElements);
-        });
+    @Override
+    protected String buildSelectSql() {
+        return SELECT_WITH_ROLE_SQL;
     }
 
-    private Map<String, Object> processFilters(Map<String, Object> filters) {
+    @Override
+    protected Map<String, Object> prepareFilters(Map<String, Object> filters) {
         Map<String, Object> actualFilters = new LinkedHashMap<>();
         if (filters != null && !filters.isEmpty()) {
             filters.forEach((k, v) -> {
@@ -170,48 +274,164 @@ public class UserRepository extends AbstractJdbcRepository<User, Long> implement
         return actualFilters;
     }
 
-    private String buildCountSql(Map<String, Object> actualFilters) {
-        StringBuilder countSql = new StringBuilder("SELECT count(*) FROM %s u".formatted(getTableName()));
-        if (!actualFilters.isEmpty()) {
-            String whereClause = buildWhereClause(actualFilters, "u");
-            countSql.append(" WHERE ").append(whereClause);
-        }
-        return countSql.toString();
-    }
-
-    private String buildDataSql(Map<String, Object> actualFilters, Pageable pageable) {
-        StringBuilder dataSql = new StringBuilder(("""
-                    SELECT
-                        u.id as user_id, u.username as user_username, u.password as user_password,
-                        u.created_at as user_created_at, u.created_by as user_created_by,
-                        u.updated_at as user_updated_at, u.updated_by as user_updated_by,
-                        r.id as role_id, r.name as role_name, r.description as role_description
-                    FROM users u
-                    LEFT JOIN roles r ON u.role_id = r.id
-                """).stripIndent().trim());
-
-        if (!actualFilters.isEmpty()) {
-            String whereClause = buildWhereClause(actualFilters, "u");
-            dataSql.append(" WHERE ").append(whereClause);
+    /**
+     * Satu query lewat unique index users.username (tanpa count query dan OFFSET).
+     */
+    public Optional<User> findByUsername(String username) {
+        return findByUsernameTimer.time(() -> {
+            Map<String, Object> params = Map.of(USERNAME, username);
+            logQuery(FIND_BY_USERNAME_SQL, params);
+            return jdbcClient.sql(FIND_BY_USERNAME_SQL)
+                    .param(USERNAME, username)
+                    .query(getRowMapper())
+                    .optional();
+        });
+    }
+
+    /**
+     * Bulk insert lewat tabel staging: baris dimuat per chunk repository.batch.chunk-size, masing-masing
+     * dalam transaksi pendek sendiri (COPY ... FROM STDIN di PostgreSQL, JDBC batch di database lain),
+     * lalu dipindahkan ke users dengan satu INSERT ... SELECT. Username yang sudah ada, atau muncul di
+     * baris sebelumnya, dilewati dan dilaporkan. Kolom audit diisi sekali untuk semua baris, seperti
+     * AuditTrailAspect. Stream dikonsumsi sekali dan hanya satu chunk yang ditampung di memori; elemen
+     * stream diambil di luar transaksi, sehingga pekerjaan mahal di stream (mis. hashing) tidak menahan
+     * koneksi. Baris staging dihapus setelah selesai maupun gagal.
+     */
+    public BulkInsertResult bulkInsert(Stream<StagedUser> users, String auditor, LocalDateTime auditTime,
+            int maxReportedDuplicates) {
+        return bulkInsertTimer.time(() -> {
+            String importId = UUID.randomUUID().toString();
+            try {
+                stageInChunks(importId, users);
+                return inTransaction(() -> insertStaged(importId, auditor, auditTime, maxReportedDuplicates));
+            } catch (RuntimeException e) {
+                discardStaged(importId);
+                throw e;
+            }
+        });
+    }
+
+    private void stageInChunks(String importId, Stream<StagedUser> users) {
+        int chunkSize = getBatchChunkSize();
+        List<StagedUser> chunk = new ArrayList<>(chunkSize);
+        users.forEach(user -> {
+            chunk.add(user);
+            if (chunk.size() == chunkSize) {
+                stageChunk(importId, chunk);
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            stageChunk(importId, chunk);
         }
+    }
 
-        String sortClause = buildSortClause(pageable.getSort(), "u");
-        if (!sortClause.isEmpty()) {
-            dataSql.append(" ORDER BY ").append(sortClause);
+    private void stageChunk(String importId, List<StagedUser> chunk) {
+        inTransaction(() -> {
+            if (isPostgreSql()) {
+                copyIntoImportTable(importId, chunk);
+            } else {
+                importJdbcTemplate.batchUpdate(BATCH_IMPORT_SQL, chunk.stream()
+                        .map(user -> new Object[] { importId, user.line(), user.username(), user.password(),
+                                user.roleId() })
+                        .toList());
+            }
+            return null;
+        });
+    }
+
+    private BulkInsertResult insertStaged(String importId, String auditor, LocalDateTime auditTime,
+            int maxReportedDuplicates) {
+        List<DuplicateUser> reported = new ArrayList<>();
+        long[] duplicates = { 0 };
+        jdbcClient.sql(FIND_IMPORT_DUPLICATES_SQL).param(IMPORT_ID, importId).query((RowCallbackHandler) rs -> {
+            if (duplicates[0]++ < maxReportedDuplicates) {
+                reported.add(new DuplicateUser(rs.getLong("line_no"), rs.getString(USERNAME)));
+            }
+        });
+
+        Map<String, Object> params = Map.of("auditTime", Timestamp.valueOf(auditTime), "auditor", auditor,
+                IMPORT_ID, importId);
+        logQuery(INSERT_FROM_IMPORT_SQL, params);
+        int inserted = jdbcClient.sql(INSERT_FROM_IMPORT_SQL).params(params).update();
+        jdbcClient.sql(DELETE_IMPORT_SQL).param(IMPORT_ID, importId).update();
+        invalidateCountCache();
+        return new BulkInsertResult(inserted, duplicates[0], reported);
+    }
+
+    private void discardStaged(String importId) {
+        try {
+            inTransaction(() -> jdbcClient.sql(DELETE_IMPORT_SQL).param(IMPORT_ID, importId).update());
+        } catch (DataAccessException e) {
+            // Baris yatim dikenali dari staged_at dan aman dihapus kapan saja
+            log.warn("Could not discard staged import {}: {}", importId, e.getMessage());
         }
+    }
 
-        dataSql.append(" LIMIT :limit OFFSET :offset");
-        return dataSql.toString();
+    private void copyIntoImportTable(String importId, List<StagedUser> users) {
+        List<CsvColumn<StagedUser>> columns = List.of(
+                new CsvColumn<>("import_id", user -> importId),
+                new CsvColumn<>("line_no", StagedUser::line),
+                new CsvColumn<>(USERNAME, StagedUser::username),
+                new CsvColumn<>(PASSWORD, StagedUser::password),
+                new CsvColumn<>(ROLE_ID, StagedUser::roleId));
+        importJdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            // Writer CSV yang sama dengan export; HEADER true membuat COPY melewati baris header
+            try (ExportWriter<StagedUser> writer = ExportWriter.open(ExportFormat.CSV,
+                    new PGCopyOutputStream(pgConnection, COPY_IMPORT_SQL, COPY_BUFFER_SIZE), null, columns)) {
+                users.forEach(writer);
+            } catch (IOException e) {
+                throw new DataAccessResourceFailureException("COPY into user_import_staging failed", e);
+            }
+            return null;
+        });
     }
 
+    /**
+     * Dipanggil di setiap request terautentikasi. User yang ditemukan disimpan di cache
+     * userDetails (dievict oleh service saat user/role berubah); UserDetails selalu dibuat
+     * baru karena ProviderManager menghapus password dari principal setelah login.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = this.findAll(PageRequest.of(0, 1), Map.of(USERNAME, username))
-                .getContent().stream().findFirst()
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+        User user = (userDetailsCache != null) ? userDetailsCache.get(username, User.class) : null;
+        if (user == null) {
+            user = findByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+            if (userDetailsCache != null) {
+                userDetailsCache.put(username, user);
+            }
+        }
         return buildUserDetails(user);
     }
 
+    /**
+     * Dipanggil DaoAuthenticationProvider setelah login berhasil jika hash tersimpan memakai format
+     * atau cost lama. Hanya kolom password yang diubah; audit trail tidak disentuh karena ini
+     * bukan perubahan oleh user.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        try {
+            // Satu UPDATE per username; cache "users" tidak memuat password sehingga tidak perlu dievict
+            int updated = jdbcClient.sql(UPDATE_PASSWORD_SQL)
+                    .param(PASSWORD, newPassword)
+                    .param(USERNAME, userDetails.getUsername())
+                    .update();
+            if (updated > 0 && userDetailsCache != null) {
+                userDetailsCache.evict(userDetails.getUsername());
+            }
+        } catch (DataAccessException e) {
+            // Rehash hanya peningkatan; login tetap berhasil dan dicoba lagi pada login berikutnya
+            log.warn("Could not upgrade password hash for {}: {}", userDetails.getUsername(), e.getMessage());
+            return userDetails;
+        }
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newPassword)
+                .build();
+    }
+
     public static UserDetails buildUserDetails(User user) {
         String roleName = user.getRole() != null ? user.getRole().getName() : "USER";
         GrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + roleName);
@@ -1,5 +1,6 @@
 package com.example.crud.feature.user.service;
 
+import com.example.crud.feature.auth.service.TokenRevocationService;
 import com.example.crud.feature.role.model.Role;
 import com.example.crud.feature.role.repository.RoleRepository;
 import com.example.crud.feature.user.dto.UserFilterDto;
@@ -8,88 +9,269 @@ import com.example.crud.feature.user.dto.UserRequestDto;
 import com.example.crud.feature.user.dto.UserResponseDto;
 import com.example.crud.feature.user.model.User;
 import com.example.crud.feature.user.repository.UserRepository;
+import com.example.crud.common.cache.NotFoundCache;
 import com.example.crud.common.exception.ResourceNotFoundException;
+import com.example.crud.common.repository.CountStrategy;
+import com.example.crud.common.repository.CursorPage;
+import com.example.crud.common.security.BoundedPasswordEncoder;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 
+import static com.example.crud.feature.user.UserConstants.USER_DETAILS_CACHE;
+import static com.example.crud.feature.user.UserConstants.USERS_NOT_FOUND_CACHE;
+
 @Service("defaultUserService")
 public class DefaultUserService implements UserService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final UserMapper userMapper;
+    private final TokenRevocationService tokenRevocationService;
+    private final PasswordEncoder passwordEncoder;
+    // BCrypt tidak boleh berjalan di dalam transaksi: hash dihitung dulu, baru transaksi dibuka
+    private final TransactionOperations transactionOperations;
+    private NotFoundCache notFoundCache;
+    private Cache userDetailsCache;
 
-    public DefaultUserService(UserRepository userRepository, RoleRepository roleRepository, UserMapper userMapper) {
+    public DefaultUserService(UserRepository userRepository, RoleRepository roleRepository, UserMapper userMapper,
+            TokenRevocationService tokenRevocationService, PasswordEncoder passwordEncoder,
+            TransactionOperations transactionOperations) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.userMapper = userMapper;
+        this.tokenRevocationService = tokenRevocationService;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionOperations = transactionOperations;
     }
 
-    @Transactional
+    @Autowired(required = false)
+    public void setNotFoundCache(@Qualifier("userNotFoundCache") NotFoundCache notFoundCache) {
+        this.notFoundCache = notFoundCache;
+    }
+
+    @Autowired(required = false)
+    public void setCacheManager(CacheManager cacheManager) {
+        this.userDetailsCache = cacheManager.getCache(USER_DETAILS_CACHE);
+    }
+
+    // Id baru bisa saja sudah tercatat sebagai not found oleh client yang menebak id
+    @CacheEvict(value = USERS_NOT_FOUND_CACHE, allEntries = true)
     public UserResponseDto createUser(UserRequestDto userDto) {
-        Role role = roleRepository.findById(userDto.roleId())
-                .orElseThrow(() -> new ResourceNotFoundException("Role not found with id: " + userDto.roleId()));
+        String passwordHash = encodePassword(userDto);
+        return transactionOperations.execute(status -> {
+            Role role = roleRepository.findById(userDto.roleId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Role not found with id: " + userDto.roleId()));
 
-        User user = userMapper.toEntity(userDto);
-        user.setRole(role);
+            User user = userMapper.toEntity(userDto);
+            user.setPassword(passwordHash);
+            user.setRole(role);
 
-        User savedUser = userRepository.save(user); // AOP audit trail tetap berjalan di sini
-        return userMapper.toDto(savedUser);
+            User savedUser = userRepository.save(user); // AOP audit trail tetap berjalan di sini
+            return userMapper.toDto(savedUser);
+        });
     }
 
-    @Cacheable(value = "users", key = "#id")
+    @CacheEvict(value = USERS_NOT_FOUND_CACHE, allEntries = true)
+    public List<UserResponseDto> createUsers(List<UserRequestDto> userDtos) {
+        List<String> passwordHashes = encodeAll(userDtos);
+        return transactionOperations.execute(status -> {
+            // Role di-resolve sekali per roleId, bukan per baris
+            Map<Long, Role> roles = new HashMap<>();
+            List<User> users = new ArrayList<>(userDtos.size());
+            for (int i = 0; i < userDtos.size(); i++) {
+                UserRequestDto userDto = userDtos.get(i);
+                Role role = roles.computeIfAbsent(userDto.roleId(), roleId -> roleRepository.findById(roleId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Role not found with id: " + roleId)));
+                User user = userMapper.toEntity(userDto);
+                user.setPassword(passwordHashes.get(i));
+                user.setRole(role);
+                users.add(user);
+            }
+
+            List<User> savedUsers = userRepository.saveAll(users); // AOP audit trail menandai setiap entity
+            return savedUsers.stream().map(userMapper::toDto).toList();
+        });
+    }
+
+    /**
+     * Request tanpa password tetap diteruskan ke transaksi agar ditolak oleh validasi yang sama seperti
+     * sebelumnya (user/role tidak ditemukan).
+     */
+    private String encodePassword(UserRequestDto userDto) {
+        return (userDto != null && userDto.password() != null) ? passwordEncoder.encode(userDto.password()) : null;
+    }
+
+    /**
+     * Hash password satu batch secara paralel di pool hashing, per gelombang sebesar pool.
+     */
+    private List<String> encodeAll(List<UserRequestDto> userDtos) {
+        int chunkSize = BoundedPasswordEncoder.parallelism(passwordEncoder);
+        List<String> hashes = new ArrayList<>(userDtos.size());
+        for (int from = 0; from < userDtos.size(); from += chunkSize) {
+            List<CompletableFuture<String>> chunk = userDtos.subList(from, Math.min(from + chunkSize, userDtos.size()))
+                    .stream()
+                    .map(userDto -> BoundedPasswordEncoder.encodeAsync(passwordEncoder, userDto.password()))
+                    .toList();
+            for (CompletableFuture<String> hash : chunk) {
+                try {
+                    hashes.add(hash.join());
+                } catch (CompletionException e) {
+                    // Mis. RateLimitExceededException saat pool hashing jenuh (429)
+                    if (e.getCause() instanceof RuntimeException cause) {
+                        throw cause;
+                    }
+                    throw e;
+                }
+            }
+        }
+        return hashes;
+    }
+
+    // sync: miss serentak untuk id yang sama hanya memicu satu query, pemanggil lain menunggu hasilnya
+    @Cacheable(value = "users", key = "#id", sync = true)
     public UserResponseDto getUserById(Long id) {
+        if (notFoundCache != null && notFoundCache.isKnownMissing(id)) {
+            throw userNotFound(id);
+        }
         return userRepository.findById(id)
                 .map(userMapper::toDto)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+                .orElseThrow(() -> {
+                    if (notFoundCache != null) {
+                        notFoundCache.markMissing(id);
+                    }
+                    return userNotFound(id);
+                });
+    }
+
+    private static ResourceNotFoundException userNotFound(Long id) {
+        return new ResourceNotFoundException("User not found with id: " + id);
     }
 
     public Page<UserResponseDto> getAllUsers(Pageable pageable, UserFilterDto filter) {
+        Page<User> userPage = userRepository.findAll(pageable, buildFilters(filter));
+        return userPage.map(userMapper::toDto);
+    }
+
+    public Slice<UserResponseDto> getAllUsers(Pageable pageable, UserFilterDto filter, CountStrategy countStrategy) {
+        Slice<User> userSlice = userRepository.findAll(pageable, buildFilters(filter), countStrategy);
+        return userSlice.map(userMapper::toDto);
+    }
+
+    public CursorPage<UserResponseDto> getAllUsersByCursor(Pageable pageable, UserFilterDto filter, String cursor) {
+        CursorPage<User> userPage = userRepository.findAllByCursor(pageable, buildFilters(filter), cursor);
+        return userPage.map(userMapper::toDto);
+    }
+
+    /**
+     * Tanpa @Transactional: repository membuka transaksi read-only sendiri yang hanya hidup selama stream.
+     */
+    @Override
+    public long exportUsers(UserFilterDto filter, Sort sort, Consumer<? super UserResponseDto> sink) {
+        return userRepository.streamAll(buildFilters(filter), sort, user -> sink.accept(userMapper.toDto(user)));
+    }
+
+    private Map<String, Object> buildFilters(UserFilterDto filter) {
         // Bangun map filter secara internal dari DTO
         Map<String, Object> filters = new HashMap<>();
         if (filter.getUsername() != null && !filter.getUsername().isBlank()) {
-            filters.put("username", "%" + filter.getUsername() + "%");
+            filters.put("username", filter.getSearchMode().toPattern(filter.getUsername()));
         }
         if (filter.getPassword() != null && !filter.getPassword().isBlank()) {
-            filters.put("password", "%" + filter.getPassword() + "%");
+            filters.put("password", filter.getSearchMode().toPattern(filter.getPassword()));
         }
         if (filter.getRole() != null && filter.getRole().getId() != null) {
             filters.put("role", filter.getRole());
         }
-
-        Page<User> userPage = userRepository.findAll(pageable, filters);
-        return userPage.map(userMapper::toDto);
+        return filters;
     }
 
-    @Transactional
     @CacheEvict(value = "users", key = "#id")
     public UserResponseDto updateUser(Long id, UserRequestDto userDto) {
-        User existingUser = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        String passwordHash = encodePassword(userDto);
+        return transactionOperations.execute(status -> {
+            User existingUser = userRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
-        // Validasi Role baru jika ada perubahan
-        Role role = roleRepository.findById(userDto.roleId())
-                .orElseThrow(() -> new ResourceNotFoundException("Role not found with id: " + userDto.roleId()));
+            // Validasi Role baru jika ada perubahan
+            Role role = roleRepository.findById(userDto.roleId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Role not found with id: " + userDto.roleId()));
 
-        existingUser.setUsername(userDto.username());
-        existingUser.setPassword(userDto.password());
-        existingUser.setRole(role); // Update Role
+            // Token yang sudah diterbitkan membawa username/role lama
+            tokenRevocationService.revokeUser(existingUser.getUsername());
+            // Principal di-cache per username: username lama dan baru sama-sama dibuang
+            evictUserDetails(existingUser.getUsername(), userDto.username());
+            existingUser.setUsername(userDto.username());
+            existingUser.setPassword(passwordHash);
+            existingUser.setRole(role); // Update Role
 
-        userRepository.update(existingUser);
-        return userMapper.toDto(existingUser);
+            userRepository.update(existingUser);
+            return userMapper.toDto(existingUser);
+        });
     }
 
     @Transactional
     @CacheEvict(value = "users", key = "#id")
     public boolean deleteUser(Long id) {
+        // Username hanya dibutuhkan untuk revoke token dan principal cache
+        Optional<User> user = (tokenRevocationService.isEnabled() || userDetailsCache != null)
+                ? userRepository.findById(id)
+                : Optional.empty();
+        user.ifPresent(existing -> {
+            tokenRevocationService.revokeUser(existing.getUsername());
+            evictUserDetails(existing.getUsername());
+        });
         return userRepository.deleteById(id) > 0;
     }
+
+    /**
+     * Evict principal setelah commit; evict sebelum commit bisa langsung diisi ulang dengan baris lama
+     * oleh request lain.
+     */
+    private void evictUserDetails(String... usernames) {
+        if (userDetailsCache == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(usernames);
+                }
+            });
+        } else {
+            evictNow(usernames);
+        }
+    }
+
+    private void evictNow(String... usernames) {
+        for (String username : usernames) {
+            if (username != null) {
+                userDetailsCache.evict(username);
+            }
+        }
+    }
 }
\ No newline at end of file
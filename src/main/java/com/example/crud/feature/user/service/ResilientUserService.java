@@ -1,18 +1,37 @@
 package com.example.crud.feature.user.service;
 
+import com.example.crud.common.cache.LastKnownGoodCache;
+import com.example.crud.common.exception.InvalidCursorException;
+import com.example.crud.common.exception.ResourceNotFoundException;
+import com.example.crud.common.repository.CountStrategy;
+import com.example.crud.common.repository.CursorPage;
+import com.example.crud.common.repository.SearchMode;
+import com.example.crud.common.resilience.AdaptiveConcurrencyLimiter;
+import com.example.crud.common.resilience.LoadShedding;
+import com.example.crud.common.web.StaleResponseAdvice;
 import com.example.crud.feature.user.dto.UserFilterDto;
 import com.example.crud.feature.user.dto.UserRequestDto;
 import com.example.crud.feature.user.dto.UserResponseDto;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import java.util.Collections;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,10 +42,39 @@ public class ResilientUserService implements UserService {
 
     private static final Logger log = LoggerFactory.getLogger(ResilientUserService.class);
 
+    private static final String USER_SERVICE = "userService";
+    private static final String USERS_CACHE = "users";
+    // Bulkhead terpisah: listing yang berat tidak boleh menghabiskan koneksi untuk lookup by id
+    private static final String USER_LIST = "userList";
+    private static final String USER_LOOKUP = "userLookup";
+
     private final UserService delegate;
+    private final io.github.resilience4j.circuitbreaker.CircuitBreaker circuitBreaker;
+    private final io.github.resilience4j.bulkhead.Bulkhead lookupBulkhead;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    // Hasil sukses terakhir yang disajikan fallback selama circuit terbuka
+    private final LastKnownGoodCache<Long, UserResponseDto> lastKnownUsers;
+    private final LastKnownGoodCache<PageKey, Object> lastKnownPages;
+    private Cache usersCache;
 
-    public ResilientUserService(@Qualifier("defaultUserService") UserService delegate) {
+    public ResilientUserService(@Qualifier("defaultUserService") UserService delegate,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            @Qualifier("userServiceConcurrencyLimiter") AdaptiveConcurrencyLimiter concurrencyLimiter,
+            @Value("${cache.stale.max-age-seconds:86400}") long staleMaxAgeSeconds,
+            @Value("${cache.stale.users.max-size:10000}") long staleUsersMaxSize,
+            @Value("${cache.stale.pages.max-size:1000}") long stalePagesMaxSize) {
         this.delegate = delegate;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(USER_SERVICE);
+        this.lookupBulkhead = bulkheadRegistry.bulkhead(USER_LOOKUP);
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.lastKnownUsers = new LastKnownGoodCache<>(staleUsersMaxSize, Duration.ofSeconds(staleMaxAgeSeconds));
+        this.lastKnownPages = new LastKnownGoodCache<>(stalePagesMaxSize, Duration.ofSeconds(staleMaxAgeSeconds));
+    }
+
+    @Autowired(required = false)
+    public void setCacheManager(CacheManager cacheManager) {
+        this.usersCache = cacheManager.getCache(USERS_CACHE);
     }
 
     @Override
@@ -35,38 +83,169 @@ public class ResilientUserService implements UserService {
     }
 
     @Override
-    @CircuitBreaker(name = "userService", fallbackMethod = "fallbackGetUserById")
+    public List<UserResponseDto> createUsers(List<UserRequestDto> userDtos) {
+        return delegate.createUsers(userDtos);
+    }
+
+    /**
+     * Cache hit dilayani tanpa melewati circuit breaker: tidak menyentuh database dan tidak ikut
+     * dihitung sebagai panggilan sukses yang menutupi kegagalan database. Karena itu breaker dan
+     * bulkhead di sini dipasang secara programatik, bukan lewat anotasi.
+     */
+    @Override
     public UserResponseDto getUserById(Long id) {
-        return delegate.getUserById(id);
+        UserResponseDto cached = cachedUser(id);
+        if (cached != null) {
+            return cached;
+        }
+        UserResponseDto user;
+        try {
+            user = circuitBreaker.executeSupplier(() -> lookupBulkhead.executeSupplier(
+                    () -> concurrencyLimiter.execute(() -> delegate.getUserById(id))));
+        } catch (RuntimeException e) {
+            return fallbackGetUserById(id, e);
+        }
+        lastKnownUsers.put(id, user);
+        return user;
     }
 
     @Override
-    @CircuitBreaker(name = "userService", fallbackMethod = "fallbackGetAllUsers")
+    @CircuitBreaker(name = USER_SERVICE, fallbackMethod = "fallbackGetAllUsers")
+    @Bulkhead(name = USER_LIST)
     public Page<UserResponseDto> getAllUsers(Pageable pageable, UserFilterDto filters) {
-        return delegate.getAllUsers(pageable, filters);
+        Page<UserResponseDto> page = concurrencyLimiter.execute(() -> delegate.getAllUsers(pageable, filters));
+        lastKnownPages.put(PageKey.of("page", pageable, filters, null), page);
+        return page;
+    }
+
+    @Override
+    @CircuitBreaker(name = USER_SERVICE, fallbackMethod = "fallbackGetAllUsers")
+    @Bulkhead(name = USER_LIST)
+    public Slice<UserResponseDto> getAllUsers(Pageable pageable, UserFilterDto filters, CountStrategy countStrategy) {
+        Slice<UserResponseDto> slice = concurrencyLimiter.execute(
+                () -> delegate.getAllUsers(pageable, filters, countStrategy));
+        lastKnownPages.put(PageKey.of("slice", pageable, filters, countStrategy), slice);
+        return slice;
+    }
+
+    @Override
+    @CircuitBreaker(name = USER_SERVICE, fallbackMethod = "fallbackGetAllUsersByCursor")
+    @Bulkhead(name = USER_LIST)
+    public CursorPage<UserResponseDto> getAllUsersByCursor(Pageable pageable, UserFilterDto filters, String cursor) {
+        CursorPage<UserResponseDto> page = concurrencyLimiter.execute(
+                () -> delegate.getAllUsersByCursor(pageable, filters, cursor));
+        lastKnownPages.put(PageKey.of("cursor", pageable, filters, cursor), page);
+        return page;
+    }
+
+    /**
+     * Tanpa circuit breaker: fallback tidak bisa dipakai setelah sebagian baris terkirim ke client.
+     */
+    @Override
+    public long exportUsers(UserFilterDto filters, Sort sort, Consumer<? super UserResponseDto> sink) {
+        return delegate.exportUsers(filters, sort, sink);
     }
 
     @Override
     public UserResponseDto updateUser(Long id, UserRequestDto userDto) {
-        return delegate.updateUser(id, userDto);
+        UserResponseDto user = delegate.updateUser(id, userDto);
+        lastKnownUsers.put(id, user);
+        return user;
     }
 
     @Override
     public boolean deleteUser(Long id) {
-        return delegate.deleteUser(id);
+        boolean deleted = delegate.deleteUser(id);
+        lastKnownUsers.invalidate(id);
+        return deleted;
     }
 
-    private UserResponseDto fallbackGetUserById(Long id, Throwable t) {
-        log.error("Circuit breaker opened for getUserById: {}", id, t);
-        return new UserResponseDto(id, "fallback@example.com", "******", null);
+    @SuppressWarnings("unchecked")
+    private UserResponseDto cachedUser(Long id) {
+        // Lewat native cache: lookup Spring pada LoadingCache akan memuat dari database saat miss
+        if (usersCache != null && usersCache.getNativeCache()
+                instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache
+                && ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).getIfPresent(id)
+                        instanceof UserResponseDto user) {
+            return user;
+        }
+        return null;
+    }
+
+    private UserResponseDto fallbackGetUserById(Long id, RuntimeException e) {
+        if (e instanceof ResourceNotFoundException notFound) {
+            // User yang tidak ada adalah jawaban valid, bukan kegagalan service
+            throw notFound;
+        }
+        LoadShedding.rethrowIfLoadShed(e);
+        log.error("Circuit breaker fallback for getUserById: {}", id, e);
+        return serveStale(lastKnownUsers, id, e);
     }
 
     /**
      * Fallback for getAllUsers. The 'filters' parameter is required by Resilience4j fallback signature.
      */
-    @SuppressWarnings("unused")
+    @SuppressWarnings({"unused", "unchecked"})
     private Page<UserResponseDto> fallbackGetAllUsers(Pageable pageable, UserFilterDto filters, Throwable t) {
-        log.error("Circuit breaker opened for getAllUsers", t);
-        return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        LoadShedding.rethrowIfLoadShed(t);
+        log.error("Circuit breaker fallback for getAllUsers", t);
+        return (Page<UserResponseDto>) serveStale(lastKnownPages, PageKey.of("page", pageable, filters, null), t);
+    }
+
+    /**
+     * Fallback for getAllUsers with a count strategy. The 'filters' and 'countStrategy' parameters are required by Resilience4j fallback signature.
+     */
+    @SuppressWarnings({"unused", "unchecked"})
+    private Slice<UserResponseDto> fallbackGetAllUsers(Pageable pageable, UserFilterDto filters, CountStrategy countStrategy, Throwable t) {
+        LoadShedding.rethrowIfLoadShed(t);
+        log.error("Circuit breaker fallback for getAllUsers", t);
+        return (Slice<UserResponseDto>) serveStale(lastKnownPages,
+                PageKey.of("slice", pageable, filters, countStrategy), t);
+    }
+
+    /**
+     * Fallback for getAllUsersByCursor. The 'filters' and 'cursor' parameters are required by Resilience4j fallback signature.
+     */
+    @SuppressWarnings({"unused", "unchecked"})
+    private CursorPage<UserResponseDto> fallbackGetAllUsersByCursor(Pageable pageable, UserFilterDto filters, String cursor, Throwable t) {
+        if (t instanceof InvalidCursorException invalidCursor) {
+            // Cursor tidak valid adalah kesalahan client, bukan kegagalan service
+            throw invalidCursor;
+        }
+        LoadShedding.rethrowIfLoadShed(t);
+        log.error("Circuit breaker fallback for getAllUsersByCursor", t);
+        return (CursorPage<UserResponseDto>) serveStale(lastKnownPages,
+                PageKey.of("cursor", pageable, filters, cursor), t);
+    }
+
+    /**
+     * Menyajikan hasil sukses terakhir dengan penanda stale. Tanpa data lama, kegagalan aslinya
+     * diteruskan; data palsu atau halaman kosong membuat client mengulang request lebih agresif.
+     */
+    private <K, V> V serveStale(LastKnownGoodCache<K, V> lastKnown, K key, Throwable t) {
+        LastKnownGoodCache.Entry<V> entry = lastKnown.get(key).orElse(null);
+        if (entry == null) {
+            if (t instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(t);
+        }
+        StaleResponseAdvice.markStale(entry.age(lastKnown.getClock()));
+        return entry.value();
+    }
+
+    /**
+     * Key hasil halaman. UserFilterDto tidak punya equals, jadi isinya disalin ke record ini.
+     */
+    private record PageKey(String type, Pageable pageable, String username, String password, Long roleId,
+            SearchMode searchMode, Object extra) {
+
+        static PageKey of(String type, Pageable pageable, UserFilterDto filters, Object extra) {
+            if (filters == null) {
+                return new PageKey(type, pageable, null, null, null, null, extra);
+            }
+            return new PageKey(type, pageable, filters.getUsername(), filters.getPassword(),
+                    filters.getRole() != null ? filters.getRole().getId() : null, filters.getSearchMode(), extra);
+        }
     }
 }
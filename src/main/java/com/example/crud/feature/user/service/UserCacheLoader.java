@@ -0,0 +1,32 @@
+package com.example.crud.feature.user.service;
+
+import com.example.crud.common.cache.RefreshingCacheLoader;
+import com.example.crud.feature.user.dto.UserMapper;
+import com.example.crud.feature.user.repository.UserRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Memuat ulang entry cache users (key id, nilai UserResponseDto) untuk refresh-ahead,
+ * sama seperti {@link DefaultUserService#getUserById}.
+ */
+@Component
+public class UserCacheLoader implements RefreshingCacheLoader {
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+
+    public UserCacheLoader(UserRepository userRepository, UserMapper userMapper) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+    }
+
+    @Override
+    public String getCacheName() {
+        return "users";
+    }
+
+    @Override
+    public Object load(Object id) {
+        return userRepository.findById((Long) id).map(userMapper::toDto).orElse(null);
+    }
+}
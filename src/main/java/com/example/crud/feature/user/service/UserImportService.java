@@ -0,0 +1,339 @@
+package com.example.crud.feature.user.service;
+
+import com.example.crud.aop.AuditTrailAspect;
+import com.example.crud.common.exception.InvalidImportFileException;
+import com.example.crud.common.export.CsvReader;
+import com.example.crud.common.export.ExportFormat;
+import com.example.crud.common.security.BoundedPasswordEncoder;
+import com.example.crud.feature.role.repository.RoleRepository;
+import com.example.crud.feature.user.dto.UserImportRejectDto;
+import com.example.crud.feature.user.dto.UserImportResultDto;
+import com.example.crud.feature.user.dto.UserImportRowDto;
+import com.example.crud.feature.user.dto.UserRequestDto;
+import com.example.crud.feature.user.repository.UserRepository;
+import com.example.crud.feature.user.repository.UserRepository.BulkInsertResult;
+import com.example.crud.feature.user.repository.UserRepository.StagedUser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static com.example.crud.feature.user.UserConstants.PASSWORD;
+import static com.example.crud.feature.user.UserConstants.USERNAME;
+import static com.example.crud.feature.user.UserConstants.USERS_NOT_FOUND_CACHE;
+
+/**
+ * Import user massal dari upload CSV atau NDJSON. File dibaca satu baris setiap kali, divalidasi
+ * dengan aturan yang sama dengan UserRequestDto, password di-hash paralel per chunk di pool hashing,
+ * lalu baris yang sudah di-hash dialirkan ke UserRepository.bulkInsert (COPY di PostgreSQL), yang
+ * menulisnya ke tabel staging per chunk dalam transaksi pendek. Memori tetap konstan berapa pun
+ * ukuran file. Baris yang ditolak tidak menggagalkan import,
+ * melainkan dilaporkan.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final String ROLE = "role";
+    private static final int MAX_REPORTED_REJECTS = 1_000;
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final AuditTrailAspect auditTrailAspect;
+    private final PasswordEncoder passwordEncoder;
+
+    public UserImportService(UserRepository userRepository, RoleRepository roleRepository, Validator validator,
+            ObjectMapper objectMapper, AuditTrailAspect auditTrailAspect, PasswordEncoder passwordEncoder) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.auditTrailAspect = auditTrailAspect;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @CacheEvict(value = USERS_NOT_FOUND_CACHE, allEntries = true)
+    public UserImportResultDto importUsers(InputStream input, ExportFormat format) throws IOException {
+        long start = System.nanoTime();
+        // Nama role di-resolve dari satu query untuk seluruh file, bukan per baris
+        Map<String, Long> roleIds = new HashMap<>();
+        roleRepository.streamAll(Map.of(), null, role -> roleIds.put(role.getName(), role.getId()));
+
+        List<UserImportRejectDto> rejects = new ArrayList<>();
+        long[] counters = { 0, 0 }; // total baris, baris ditolak sebelum insert
+        BulkInsertResult result;
+        try (RowReader reader = openReader(format, input)) {
+            // Hash dihitung saat bulkInsert menarik baris di antara transaksi staging per chunk:
+            // BCrypt tidak boleh berjalan di dalam transaksi / COPY
+            Iterator<StagedUser> staged = new HashingIterator(reader, roleIds, rejects, counters);
+            // Header yang tidak valid ditolak sebelum import dimulai
+            staged.hasNext();
+            // Audit sama untuk semua baris, seperti AuditTrailAspect pada saveAll
+            result = userRepository.bulkInsert(
+                    StreamSupport.stream(Spliterators.spliteratorUnknownSize(staged, Spliterator.ORDERED), false),
+                    auditTrailAspect.getCurrentUsername(), LocalDateTime.now(), MAX_REPORTED_REJECTS);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        result.reportedDuplicates().forEach(duplicate -> rejects.add(
+                new UserImportRejectDto(duplicate.line(), duplicate.username(), "Username already exists")));
+        rejects.sort(Comparator.comparingLong(UserImportRejectDto::line));
+        List<UserImportRejectDto> reported = rejects.subList(0, Math.min(rejects.size(), MAX_REPORTED_REJECTS));
+
+        long elapsedNanos = System.nanoTime() - start;
+        double rowsPerSecond = (elapsedNanos > 0) ? counters[0] * 1_000_000_000d / elapsedNanos : 0d;
+        log.info("Imported {} of {} users in {} ms ({} rows/s)", result.inserted(), counters[0],
+                elapsedNanos / 1_000_000, Math.round(rowsPerSecond));
+        return new UserImportResultDto(counters[0], result.inserted(), counters[1] + result.duplicates(),
+                elapsedNanos / 1_000_000, rowsPerSecond, List.copyOf(reported));
+    }
+
+    /**
+     * Membaca dan memvalidasi baris berikutnya sampai satu chunk sebesar pool hashing terkumpul, lalu
+     * meng-hash chunk itu secara paralel. Hanya satu chunk yang ditampung di memori. Hash yang gagal
+     * (mis. pool hashing jenuh) hanya menolak baris itu.
+     */
+    private final class HashingIterator implements Iterator<StagedUser> {
+
+        private final RowReader reader;
+        private final Map<String, Long> roleIds;
+        private final List<UserImportRejectDto> rejects;
+        private final long[] counters;
+        private final int chunkSize = BoundedPasswordEncoder.parallelism(passwordEncoder);
+        private final List<ParsedRow> chunk = new ArrayList<>();
+        private final Deque<StagedUser> hashed = new ArrayDeque<>();
+        private boolean endOfFile;
+
+        private HashingIterator(RowReader reader, Map<String, Long> roleIds, List<UserImportRejectDto> rejects,
+                long[] counters) {
+            this.reader = reader;
+            this.roleIds = roleIds;
+            this.rejects = rejects;
+            this.counters = counters;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (hashed.isEmpty() && !endOfFile) {
+                readChunk();
+                hashChunk();
+            }
+            return !hashed.isEmpty();
+        }
+
+        @Override
+        public StagedUser next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return hashed.poll();
+        }
+
+        private void readChunk() {
+            try {
+                while (chunk.size() < chunkSize) {
+                    ParsedRow row = reader.next();
+                    if (row == null) {
+                        endOfFile = true;
+                        return;
+                    }
+                    counters[0]++;
+                    String reason = (row.error() != null) ? row.error() : validate(row.value(), roleIds);
+                    if (reason != null) {
+                        reject(rejects, counters, row, reason);
+                    } else {
+                        chunk.add(row);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void hashChunk() {
+            List<CompletableFuture<String>> hashes = chunk.stream()
+                    .map(row -> BoundedPasswordEncoder.encodeAsync(passwordEncoder, row.value().password()))
+                    .toList();
+            for (int i = 0; i < chunk.size(); i++) {
+                ParsedRow row = chunk.get(i);
+                try {
+                    hashed.add(new StagedUser(row.line(), row.value().username(), hashes.get(i).join(),
+                            roleIds.get(row.value().role())));
+                } catch (CompletionException e) {
+                    log.warn("Password hashing failed for import line {}: {}", row.line(), e.getCause().getMessage());
+                    reject(rejects, counters, row, "Password hashing failed, retry this row");
+                }
+            }
+            chunk.clear();
+        }
+    }
+
+    private static void reject(List<UserImportRejectDto> rejects, long[] counters, ParsedRow row, String reason) {
+        counters[1]++;
+        if (rejects.size() < MAX_REPORTED_REJECTS) {
+            rejects.add(new UserImportRejectDto(row.line(),
+                    (row.value() != null) ? row.value().username() : null, reason));
+        }
+    }
+
+    private String validate(UserImportRowDto row, Map<String, Long> roleIds) {
+        if (row.role() == null || row.role().isBlank()) {
+            return "Role is mandatory";
+        }
+        Long roleId = roleIds.get(row.role());
+        if (roleId == null) {
+            return "Role not found with name: " + row.role();
+        }
+        Set<ConstraintViolation<UserRequestDto>> violations = validator.validate(
+                new UserRequestDto(row.username(), row.password(), roleId));
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+    }
+
+    private RowReader openReader(ExportFormat format, InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return switch (format) {
+            case CSV -> new CsvRowReader(new CsvReader(reader));
+            case NDJSON -> new NdjsonRowReader(reader, objectMapper);
+        };
+    }
+
+    /**
+     * Baris yang sudah diparse, atau pesan error jika baris tidak bisa dibaca.
+     */
+    private record ParsedRow(long line, UserImportRowDto value, String error) {
+    }
+
+    private abstract static class RowReader implements Closeable {
+
+        /**
+         * Baris berikutnya, atau null di akhir file.
+         */
+        protected abstract ParsedRow next() throws IOException;
+    }
+
+    private static final class CsvRowReader extends RowReader {
+
+        private final CsvReader reader;
+        private Map<String, Integer> columns;
+
+        private CsvRowReader(CsvReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        protected ParsedRow next() throws IOException {
+            if (columns == null) {
+                readHeader();
+            }
+            List<String> fields = reader.readRecord();
+            if (fields == null) {
+                return null;
+            }
+            long line = reader.getRecordLine();
+            if (fields.size() != columns.size()) {
+                return new ParsedRow(line, null,
+                        "Expected %d fields but found %d".formatted(columns.size(), fields.size()));
+            }
+            return new ParsedRow(line, new UserImportRowDto(field(fields, USERNAME), field(fields, PASSWORD),
+                    field(fields, ROLE)), null);
+        }
+
+        private void readHeader() throws IOException {
+            List<String> header = reader.readRecord();
+            if (header == null) {
+                throw new InvalidImportFileException("CSV import is empty, expected a header row");
+            }
+            columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(), i);
+            }
+            if (!columns.keySet().containsAll(List.of(USERNAME, PASSWORD, ROLE))) {
+                throw new InvalidImportFileException("CSV header must contain username, password and role columns");
+            }
+        }
+
+        private String field(List<String> fields, String column) {
+            return fields.get(columns.get(column));
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class NdjsonRowReader extends RowReader {
+
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long line;
+
+        private NdjsonRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        protected ParsedRow next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+            } while (text != null && text.isBlank());
+            if (text == null) {
+                return null;
+            }
+            try {
+                UserImportRowDto row = objectMapper.readValue(text, UserImportRowDto.class);
+                return (row != null) ? new ParsedRow(line, row, null)
+                        : new ParsedRow(line, null, "Malformed JSON: expected an object");
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(line, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -2,15 +2,26 @@ package com.example.crud.feature.user.service;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.example.crud.common.repository.CountStrategy;
+import com.example.crud.common.repository.CursorPage;
 import com.example.crud.feature.user.dto.UserFilterDto;
 import com.example.crud.feature.user.dto.UserRequestDto;
 import com.example.crud.feature.user.dto.UserResponseDto;
 
 public interface UserService {
     UserResponseDto createUser(UserRequestDto userDto);
+    List<UserResponseDto> createUsers(List<UserRequestDto> userDtos);
     UserResponseDto getUserById(Long id);
     Page<UserResponseDto> getAllUsers(Pageable pageable, UserFilterDto userFilterDto);
+    Slice<UserResponseDto> getAllUsers(Pageable pageable, UserFilterDto userFilterDto, CountStrategy countStrategy);
+    CursorPage<UserResponseDto> getAllUsersByCursor(Pageable pageable, UserFilterDto userFilterDto, String cursor);
+    long exportUsers(UserFilterDto userFilterDto, Sort sort, Consumer<? super UserResponseDto> sink);
     UserResponseDto updateUser(Long id, UserRequestDto userDto);
     boolean deleteUser(Long id);
 }
\ No newline at end of file
@@ -1,40 +1,187 @@
 package com.example.crud.util;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.util.StopWatch;
 
+/**
+ * Mengukur latensi operasi repository ke Timer Micrometer {@value #METRIC_NAME}
+ * dengan tag table, operation dan outcome. Percentile histogram dan SLO diatur lewat
+ * management.metrics.distribution.* agar ikut dipublikasikan actuator.
+ * Tanpa registry terpasang dan tanpa DEBUG log, supplier dipanggil langsung.
+ * <p>
+ * Hot path (repository) memakai handle {@link #operation(String, String)} yang dibuat sekali;
+ * Timer-nya di-resolve sekali per registry sehingga pengukuran tidak mengalokasikan apa pun.
+ */
 public class TimerUtil {
 
+    public static final String METRIC_NAME = "repository.operation";
+
     private static final Logger log = LoggerFactory.getLogger(TimerUtil.class);
 
+    private static final String UNKNOWN_TABLE = "unknown";
+
+    private static volatile MeterRegistry meterRegistry;
+
+    // Timer untuk pemanggil ad-hoc (tanpa handle), di-cache per tag
+    private static final Map<TimerKey, Timer> TIMERS = new ConcurrentHashMap<>();
+
+    private record TimerKey(MeterRegistry registry, String table, String operation, boolean success) {
+    }
+
     private TimerUtil() {
         throw new IllegalStateException("Utility class");
     }
 
+    /**
+     * Memasang registry tujuan metrik; null menonaktifkan pencatatan.
+     */
+    public static synchronized void bind(MeterRegistry registry) {
+        meterRegistry = registry;
+        TIMERS.clear();
+    }
+
+    /**
+     * Melepas registry hanya jika registry tersebut yang sedang terpasang.
+     */
+    public static synchronized void unbind(MeterRegistry registry) {
+        if (meterRegistry == registry) {
+            bind(null);
+        }
+    }
+
+    /**
+     * Handle untuk satu operasi pada satu tabel; simpan di field dan panggil {@link Operation#time}.
+     */
+    public static Operation operation(String table, String operation) {
+        return new Operation(table, operation);
+    }
+
+    /**
+     * Operasi yang diukur dengan Timer sukses dan error yang di-resolve sekali. Jika registry
+     * diganti lewat {@link #bind}, Timer di-resolve ulang pada panggilan berikutnya.
+     */
+    public static final class Operation {
+
+        private final String table;
+        private final String operation;
+        private volatile BoundTimers bound;
+
+        private record BoundTimers(MeterRegistry registry, Timer success, Timer error) {
+        }
+
+        private Operation(String table, String operation) {
+            this.table = table;
+            this.operation = operation;
+        }
+
+        public <T> T time(Supplier<T> supplier) {
+            MeterRegistry registry = meterRegistry;
+            if (registry == null && !log.isDebugEnabled()) {
+                return supplier.get();
+            }
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                T result = supplier.get();
+                success = true;
+                return result;
+            } finally {
+                long elapsedNanos = System.nanoTime() - start;
+                if (registry != null) {
+                    BoundTimers timers = timers(registry);
+                    (success ? timers.success() : timers.error()).record(elapsedNanos, TimeUnit.NANOSECONDS);
+                }
+                logElapsed(table, operation, elapsedNanos);
+            }
+        }
+
+        private BoundTimers timers(MeterRegistry registry) {
+            BoundTimers timers = bound;
+            if (timers == null || timers.registry() != registry) {
+                timers = new BoundTimers(registry, register(registry, table, operation, true),
+                        register(registry, table, operation, false));
+                bound = timers;
+            }
+            return timers;
+        }
+    }
+
     /**
      * Mengukur waktu eksekusi sebuah Supplier (aksi yang mengembalikan nilai).
-     * 
+     *
      * @param actionName Nama aksi untuk logging.
      * @param supplier   Fungsi yang akan dieksekusi.
      * @return Hasil dari eksekusi supplier.
      */
     public static <T> T time(String actionName, Supplier<T> supplier) {
-        StopWatch stopWatch = new StopWatch(actionName);
-        stopWatch.start();
-        T result = supplier.get();
-        stopWatch.stop();
-        log.debug("Execution time for '{}': {} ms", stopWatch.getId(), stopWatch.getTotalTimeMillis());
-        return result;
+        return time(UNKNOWN_TABLE, actionName, supplier);
     }
 
     // Versi untuk Runnable (jika diperlukan)
     public static void time(String actionName, Runnable action) {
-        StopWatch stopWatch = new StopWatch(actionName);
-        stopWatch.start();
-        action.run();
-        stopWatch.stop();
-        log.debug("Execution time for '{}': {} ms", stopWatch.getId(), stopWatch.getTotalTimeMillis());
+        time(UNKNOWN_TABLE, actionName, action);
+    }
+
+    /**
+     * Mengukur waktu eksekusi operasi repository pada tabel tertentu.
+     *
+     * @param table     Nama tabel (tag table).
+     * @param operation Nama operasi, mis. findById (tag operation).
+     * @param supplier  Fungsi yang akan dieksekusi.
+     * @return Hasil dari eksekusi supplier.
+     */
+    public static <T> T time(String table, String operation, Supplier<T> supplier) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null && !log.isDebugEnabled()) {
+            return supplier.get();
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = supplier.get();
+            success = true;
+            return result;
+        } finally {
+            record(registry, table, operation, success, System.nanoTime() - start);
+        }
+    }
+
+    public static void time(String table, String operation, Runnable action) {
+        time(table, operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private static void record(MeterRegistry registry, String table, String operation, boolean success,
+            long elapsedNanos) {
+        if (registry != null) {
+            TIMERS.computeIfAbsent(new TimerKey(registry, table, operation, success),
+                    key -> register(key.registry(), key.table(), key.operation(), key.success()))
+                    .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+        logElapsed(table, operation, elapsedNanos);
+    }
+
+    private static void logElapsed(String table, String operation, long elapsedNanos) {
+        if (log.isDebugEnabled()) {
+            log.debug("Execution time for '{}' on '{}': {} ms", operation, table,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+    }
+
+    private static Timer register(MeterRegistry registry, String table, String operation, boolean success) {
+        return Timer.builder(METRIC_NAME)
+                .description("Latency of repository operations")
+                .tag("table", table)
+                .tag("operation", operation)
+                .tag("outcome", success ? "success" : "error")
+                .register(registry);
     }
-}
\ No newline at end of file
+}
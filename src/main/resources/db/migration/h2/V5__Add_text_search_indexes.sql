@@ -0,0 +1,4 @@
+-- Padanan H2 untuk V5 PostgreSQL: H2 tidak punya pg_trgm, sehingga LIKE/ILIKE '%term%' tetap scan.
+-- Prefix LIKE 'term%' bisa memakai index B-tree biasa; username dan roles.name sudah punya index UNIQUE.
+-- H2 tidak mendukung index ekspresi, sehingga prefix case-insensitive (lower(kolom) LIKE) tetap scan.
+CREATE INDEX IF NOT EXISTS idx_roles_description ON roles (description);
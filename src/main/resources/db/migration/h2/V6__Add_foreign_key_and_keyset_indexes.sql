@@ -0,0 +1,9 @@
+-- Padanan H2 untuk V6 PostgreSQL. H2 sudah membuat index untuk constraint fk_users_roles,
+-- tetapi (role_id, id) tetap dibutuhkan agar filter role plus urutan id tidak perlu sort.
+CREATE INDEX IF NOT EXISTS idx_users_role_id_id ON users (role_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_users_username_id ON users (username, id);
+CREATE INDEX IF NOT EXISTS idx_roles_name_id ON roles (name, id);
+
+CREATE INDEX IF NOT EXISTS idx_users_created_at ON users (created_at);
+CREATE INDEX IF NOT EXISTS idx_users_updated_at ON users (updated_at);
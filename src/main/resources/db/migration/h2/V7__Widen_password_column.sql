@@ -0,0 +1,2 @@
+-- Hash ditulis dengan prefix id encoder ({bcrypt}...), lebih panjang dari 60 karakter BCrypt murni
+ALTER TABLE users ALTER COLUMN password VARCHAR(255);
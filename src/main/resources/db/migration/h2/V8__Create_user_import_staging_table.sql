@@ -0,0 +1,11 @@
+-- Padanan H2 untuk V8 PostgreSQL (H2 tidak mengenal UNLOGGED).
+CREATE TABLE IF NOT EXISTS user_import_staging (
+    import_id VARCHAR(36) NOT NULL,
+    line_no BIGINT NOT NULL,
+    username VARCHAR(255),
+    password VARCHAR(255),
+    role_id BIGINT,
+    staged_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_import_staging_import ON user_import_staging (import_id, username, line_no);
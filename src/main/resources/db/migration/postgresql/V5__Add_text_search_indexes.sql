@@ -0,0 +1,16 @@
+-- Index untuk filter teks pada username, nama role, dan deskripsi role.
+-- Dibuat CONCURRENTLY agar tabel tetap bisa ditulis selama build index; karena itu script ini
+-- berjalan di luar transaksi (V5__Add_text_search_indexes.sql.conf). Build CONCURRENTLY yang gagal
+-- meninggalkan index INVALID yang dilewati IF NOT EXISTS: DROP index tersebut sebelum migrate ulang.
+-- pg_trgm: GIN gin_trgm_ops melayani LIKE/ILIKE '%term%' (searchMode=CONTAINS), serta prefix LIKE
+-- case-sensitive 'term%' (searchMode=STARTS_WITH dengan repository.search.case-insensitive=false)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username_trgm ON users USING gin (username gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_roles_name_trgm ON roles USING gin (name gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_roles_description_trgm ON roles USING gin (description gin_trgm_ops);
+
+-- Prefix case-insensitive: ILIKE tidak bisa memakai B-tree, sehingga repository memakai
+-- lower(kolom) LIKE lower('term%'). varchar_pattern_ops diperlukan untuk prefix LIKE di collation non-C.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username_lower_prefix ON users (lower(username) varchar_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_roles_name_lower_prefix ON roles (lower(name) varchar_pattern_ops);
@@ -0,0 +1,14 @@
+-- PostgreSQL tidak membuat index untuk kolom foreign key secara otomatis.
+-- Semua index dibuat CONCURRENTLY agar users/roles tetap bisa ditulis selama build index; script ini
+-- berjalan di luar transaksi (V6__Add_foreign_key_and_keyset_indexes.sql.conf).
+-- (role_id, id) melayani filter role, keyset pagination berfilter role, dan pengecekan FK
+-- saat role dihapus; index terpisah untuk role_id saja tidak perlu karena role_id kolom terdepan.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_role_id_id ON users (role_id, id);
+
+-- Keyset "(username, id) > (:keysetValue, :keysetId) ORDER BY username, id" dan padanannya di roles
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username_id ON users (username, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_roles_name_id ON roles (name, id);
+
+-- Kolom audit untuk sort dan filter berdasarkan waktu
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_created_at ON users (created_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_updated_at ON users (updated_at);
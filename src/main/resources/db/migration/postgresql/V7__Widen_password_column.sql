@@ -0,0 +1,3 @@
+-- Hash ditulis dengan prefix id encoder ({bcrypt}...), lebih panjang dari 60 karakter BCrypt murni.
+-- Skema PostgreSQL sudah VARCHAR(255); migrasi ini menyamakan versi dengan skema H2.
+ALTER TABLE users ALTER COLUMN password TYPE VARCHAR(255);
@@ -0,0 +1,15 @@
+-- Tabel staging untuk import user massal. Setiap import menulis barisnya dengan import_id sendiri,
+-- per chunk dalam transaksi pendek, lalu memindahkannya ke users sekaligus dan menghapusnya.
+-- UNLOGGED: isinya hanya sementara sehingga tidak perlu WAL; setelah crash PostgreSQL mengosongkannya.
+-- staged_at menandai baris yatim dari proses yang mati di tengah import.
+CREATE UNLOGGED TABLE IF NOT EXISTS user_import_staging (
+    import_id VARCHAR(36) NOT NULL,
+    line_no BIGINT NOT NULL,
+    username VARCHAR(255),
+    password VARCHAR(255),
+    role_id BIGINT,
+    staged_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Melayani pengecekan duplikat di dalam import, INSERT ... SELECT dan DELETE per import_id
+CREATE INDEX IF NOT EXISTS idx_user_import_staging_import ON user_import_staging (import_id, username, line_no);
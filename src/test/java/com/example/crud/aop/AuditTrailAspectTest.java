@@ -20,6 +20,7 @@ import org.springframework.test.context.ActiveProfiles;
 
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -180,4 +181,34 @@ class AuditTrailAspectTest {
         assertThat(result).isSameAs(expected);
         verify(pjp).proceed();
     }
+
+    @Test
+    @WithMockUser(username = "batch_user")
+    void beforeSaveAll_shouldStampEveryEntityInBatch() {
+        List<AuditableTestEntity> saved = auditableTestEntityRepository.saveAll(List.of(
+                new AuditableTestEntity(null, "First"),
+                new AuditableTestEntity(null, "Second")));
+
+        assertThat(saved).allSatisfy(entity -> {
+            assertThat(entity.getId()).isNotNull();
+            assertThat(entity.getCreatedBy()).isEqualTo("batch_user");
+            assertThat(entity.getUpdatedAt()).isEqualTo(entity.getCreatedAt());
+        });
+        AuditableTestEntity reloaded = auditableTestEntityRepository.findById(saved.get(1).getId()).orElseThrow();
+        assertThat(reloaded.getCreatedBy()).isEqualTo("batch_user");
+    }
+
+    @Test
+    @WithMockUser(username = "batch_user")
+    void beforeUpdateAll_shouldStampEveryEntityInBatch() {
+        AuditableTestEntity entity = auditableTestEntityRepository.save(new AuditableTestEntity(null, "Initial"));
+        entity.setUpdatedBy(null);
+        entity.setUpdatedAt(null);
+
+        auditableTestEntityRepository.updateAll(List.of(entity));
+
+        AuditableTestEntity reloaded = auditableTestEntityRepository.findById(entity.getId()).orElseThrow();
+        assertThat(reloaded.getUpdatedBy()).isEqualTo("batch_user");
+        assertThat(reloaded.getUpdatedAt()).isNotNull();
+    }
 }
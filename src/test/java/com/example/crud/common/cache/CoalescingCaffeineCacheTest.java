@@ -0,0 +1,71 @@
+package com.example.crud.common.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class CoalescingCaffeineCacheTest {
+
+    private static final int CALLERS = 8;
+
+    private final CoalescingCaffeineCache cache =
+            new CoalescingCaffeineCache("users", Caffeine.newBuilder().build(), true);
+
+    @Test
+    void concurrentMisses_shouldRunOneLoaderAndCountTheRestAsCoalesced() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> callers = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS, runnable -> {
+            Thread thread = new Thread(runnable);
+            callers.add(thread);
+            return thread;
+        });
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> cache.get(1L, () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return "alice";
+                })));
+            }
+
+            // Loader baru dilepas setelah semua pemanggil lain menunggu key yang sama
+            await().atMost(Duration.ofSeconds(5)).until(() -> callers.size() == CALLERS && callers.stream()
+                    .filter(thread -> thread.getState() == Thread.State.BLOCKED
+                            || thread.getState() == Thread.State.WAITING)
+                    .count() == CALLERS);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo("alice");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getCoalescedCount()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void hitsAndSequentialMisses_shouldNotBeCountedAsCoalesced() {
+        assertThat(cache.get(1L, () -> "alice")).isEqualTo("alice");
+        assertThat(cache.get(1L, () -> "other")).isEqualTo("alice");
+        assertThat(cache.get(2L, () -> "bob")).isEqualTo("bob");
+
+        assertThat(cache.getCoalescedCount()).isZero();
+    }
+}
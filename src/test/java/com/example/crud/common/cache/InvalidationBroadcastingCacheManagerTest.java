@@ -0,0 +1,80 @@
+package com.example.crud.common.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvalidationBroadcastingCacheManagerTest {
+
+    private final List<CacheInvalidation> published = new ArrayList<>();
+    private Consumer<CacheInvalidation> remote;
+    private Runnable messagesLost;
+
+    private CaffeineCacheManager local;
+    private InvalidationBroadcastingCacheManager manager;
+
+    @BeforeEach
+    void setUp() {
+        local = new CaffeineCacheManager("users", "tokens");
+        CacheInvalidationBus bus = new CacheInvalidationBus() {
+            @Override
+            public void publish(CacheInvalidation invalidation) {
+                published.add(invalidation);
+            }
+
+            @Override
+            public void subscribe(Consumer<CacheInvalidation> onInvalidation, Runnable onMessagesLost) {
+                remote = onInvalidation;
+                messagesLost = onMessagesLost;
+            }
+        };
+        manager = new InvalidationBroadcastingCacheManager(local, bus, List.of("users"));
+    }
+
+    @Test
+    void evictAndClear_shouldBeBroadcastButPutShouldNot() {
+        Cache users = manager.getCache("users");
+        users.put(1L, "alice");
+        users.evict(1L);
+        users.evictIfPresent(2L);
+        users.clear();
+
+        assertThat(local.getCache("users").get(1L)).isNull();
+        assertThat(published).containsExactly(
+                CacheInvalidation.entry("users", 1L),
+                CacheInvalidation.entry("users", 2L),
+                CacheInvalidation.allEntries("users"));
+    }
+
+    @Test
+    void cacheNotListed_shouldStayLocal() {
+        Cache tokens = manager.getCache("tokens");
+        tokens.put("t", "alice");
+        tokens.evict("t");
+
+        assertThat(tokens).isSameAs(local.getCache("tokens"));
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void remoteInvalidation_shouldEvictLocallyWithoutRebroadcast() {
+        Cache users = manager.getCache("users");
+        users.put(1L, "alice");
+        users.put(2L, "bob");
+
+        remote.accept(CacheInvalidation.entry("users", 1L));
+        assertThat(users.get(1L)).isNull();
+        assertThat(users.get(2L)).isNotNull();
+
+        messagesLost.run();
+        assertThat(users.get(2L)).isNull();
+        assertThat(published).isEmpty();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.crud.common.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotFoundCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private double notFound(String source) {
+        return registry.get("resource.not_found").tags("resource", "user", "source", source).counter().count();
+    }
+
+    @Test
+    void markedId_shouldBeKnownMissingUntilCacheIsCleared() {
+        ConcurrentMapCache cache = new ConcurrentMapCache("usersNotFound");
+        NotFoundCache notFoundCache = new NotFoundCache(cache, "user", registry);
+
+        assertThat(notFoundCache.isKnownMissing(7L)).isFalse();
+        notFoundCache.markMissing(7L);
+        assertThat(notFoundCache.isKnownMissing(7L)).isTrue();
+        assertThat(notFoundCache.isKnownMissing(8L)).isFalse();
+
+        cache.clear();
+        assertThat(notFoundCache.isKnownMissing(7L)).isFalse();
+        assertThat(notFound("database")).isEqualTo(1);
+        assertThat(notFound("cache")).isEqualTo(1);
+    }
+
+    @Test
+    void withoutCache_shouldOnlyRecordMetrics() {
+        NotFoundCache notFoundCache = new NotFoundCache(null, "user", registry);
+
+        notFoundCache.markMissing(7L);
+
+        assertThat(notFoundCache.isKnownMissing(7L)).isFalse();
+        assertThat(notFound("database")).isEqualTo(1);
+    }
+}
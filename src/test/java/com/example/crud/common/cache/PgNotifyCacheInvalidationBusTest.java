@@ -0,0 +1,122 @@
+package com.example.crud.common.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * pg_notify diganti alias H2 yang mencatat payload, sehingga batching, dedup dan pengiriman
+ * setelah commit bisa diuji tanpa PostgreSQL.
+ */
+public class PgNotifyCacheInvalidationBusTest {
+
+    static final List<String> NOTIFIED = new CopyOnWriteArrayList<>();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private DriverManagerDataSource dataSource;
+    private PgNotifyCacheInvalidationBus bus;
+
+    public static String pgNotify(String channel, String payload) {
+        NOTIFIED.add(payload);
+        return "";
+    }
+
+    @BeforeEach
+    void setUp() {
+        NOTIFIED.clear();
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:notify;DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(dataSource).execute("CREATE ALIAS IF NOT EXISTS PG_NOTIFY FOR \""
+                + PgNotifyCacheInvalidationBusTest.class.getName() + ".pgNotify\"");
+        bus = new PgNotifyCacheInvalidationBus(dataSource, objectMapper, "cache_invalidation");
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+    }
+
+    private List<CacheInvalidation> receivedByOtherNode() {
+        PgNotifyCacheInvalidationBus other = new PgNotifyCacheInvalidationBus(dataSource, objectMapper,
+                "cache_invalidation");
+        List<CacheInvalidation> received = new ArrayList<>();
+        other.subscribe(received::add, () -> { });
+        NOTIFIED.forEach(other::handle);
+        return received;
+    }
+
+    @Test
+    void flush_shouldSendDeduplicatedBatchAsOneNotification() {
+        bus.publish(CacheInvalidation.entry("users", 1L));
+        bus.publish(CacheInvalidation.entry("users", 1L));
+        bus.publish(CacheInvalidation.entry("roles", 7L));
+        bus.publish(CacheInvalidation.entry("userDetails", "alice"));
+        bus.publish(CacheInvalidation.allEntries("userDetails"));
+
+        bus.flush();
+        bus.flush();
+
+        assertThat(NOTIFIED).hasSize(1);
+        assertThat(receivedByOtherNode()).containsExactly(
+                CacheInvalidation.entry("users", 1L),
+                CacheInvalidation.entry("roles", 7L),
+                CacheInvalidation.allEntries("userDetails"));
+    }
+
+    @Test
+    void ownNotifications_shouldBeIgnored() {
+        List<CacheInvalidation> received = new ArrayList<>();
+        bus.subscribe(received::add, () -> { });
+        bus.publish(CacheInvalidation.entry("users", 1L));
+        bus.flush();
+
+        NOTIFIED.forEach(bus::handle);
+
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void publishInTransaction_shouldOnlyBeSentAfterCommit() {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        transaction.executeWithoutResult(status -> {
+            bus.publish(CacheInvalidation.entry("users", 1L));
+            bus.flush();
+            assertThat(NOTIFIED).isEmpty();
+        });
+        transaction.executeWithoutResult(status -> {
+            bus.publish(CacheInvalidation.entry("users", 2L));
+            status.setRollbackOnly();
+        });
+        bus.flush();
+
+        assertThat(receivedByOtherNode()).containsExactly(CacheInvalidation.entry("users", 1L));
+    }
+
+    @Test
+    void largeBatch_shouldBeSplitBelowPayloadLimit() {
+        IntStream.range(0, 2_000).forEach(i -> bus.publish(CacheInvalidation.entry("users", (long) i)));
+        bus.publish(CacheInvalidation.entry("users", "x".repeat(10_000)));
+
+        bus.flush();
+
+        assertThat(NOTIFIED).hasSizeGreaterThan(1)
+                .allSatisfy(payload -> assertThat(payload.getBytes().length)
+                        .isLessThanOrEqualTo(PgNotifyCacheInvalidationBus.MAX_PAYLOAD_BYTES));
+        List<CacheInvalidation> received = receivedByOtherNode();
+        assertThat(received).hasSize(2_001).contains(CacheInvalidation.entry("users", 1999L));
+        // Key yang terlalu panjang dikirim sebagai invalidation seluruh cache
+        assertThat(received).last().isEqualTo(CacheInvalidation.allEntries("users"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.crud.common.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Dua "node" dengan cache Caffeine masing-masing, tersambung ke PostgreSQL yang sama.
+ * Dilewati tanpa Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PgNotifyCacheInvalidationPostgresTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private DriverManagerDataSource dataSource;
+    private PgNotifyCacheInvalidationBus busA;
+    private PgNotifyCacheInvalidationBus busB;
+    private Cache usersOnA;
+    private Cache usersOnB;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        ObjectMapper objectMapper = new ObjectMapper();
+        busA = new PgNotifyCacheInvalidationBus(dataSource, objectMapper, "cache_invalidation");
+        busB = new PgNotifyCacheInvalidationBus(dataSource, objectMapper, "cache_invalidation");
+        usersOnA = new InvalidationBroadcastingCacheManager(new CaffeineCacheManager("users"), busA, List.of("users"))
+                .getCache("users");
+        usersOnB = new InvalidationBroadcastingCacheManager(new CaffeineCacheManager("users"), busB, List.of("users"))
+                .getCache("users");
+        busA.start(Duration.ofMillis(20));
+        busB.start(Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void tearDown() {
+        busA.close();
+        busB.close();
+    }
+
+    @Test
+    void evictOnOneNode_shouldReachOtherNode() {
+        usersOnA.put(1L, "alice");
+        usersOnB.put(1L, "alice");
+        usersOnB.put(2L, "bob");
+
+        usersOnA.evict(1L);
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> usersOnB.get(1L) == null);
+        assertThat(usersOnB.get(2L)).isNotNull();
+
+        usersOnA.clear();
+        await().atMost(Duration.ofSeconds(10)).until(() -> usersOnB.get(2L) == null);
+    }
+
+    @Test
+    void evictInRolledBackTransaction_shouldNotReachOtherNode() throws InterruptedException {
+        usersOnB.put(1L, "alice");
+        usersOnB.put(2L, "bob");
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        transaction.executeWithoutResult(status -> {
+            usersOnA.evict(1L);
+            status.setRollbackOnly();
+        });
+        transaction.executeWithoutResult(status -> usersOnA.evict(2L));
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> usersOnB.get(2L) == null);
+        assertThat(usersOnB.get(1L)).isNotNull();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.crud.common.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing diuji dengan dua database H2 terpisah; tabel node di masing-masing berisi nama
+ * database sehingga tujuan koneksi terlihat dari hasil query.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration MAX_LAG = Duration.ofSeconds(1);
+
+    private DriverManagerDataSource primary;
+    private ReplicaRoutingDataSource.Replica replica;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        primary = node("primary");
+        replica = new ReplicaRoutingDataSource.Replica("replica-1", node("replica"));
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), MAX_LAG,
+                new ReadYourWritesTracker(Duration.ofMinutes(1), 100));
+        routing.setReplicaLag(replica, Duration.ZERO);
+        jdbcTemplate = new JdbcTemplate(routing);
+        transactionManager = new DataSourceTransactionManager(routing);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+        new JdbcTemplate(replica.getDataSource()).execute("DROP ALL OBJECTS");
+    }
+
+    private static DriverManagerDataSource node(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT max(name) FROM node", String.class);
+    }
+
+    @Test
+    void nonTransactionalStatements_shouldRouteReadsToReplicaAndWritesToPrimary() {
+        assertThat(currentNode()).isEqualTo("replica");
+
+        jdbcTemplate.update("INSERT INTO node VALUES ('written')");
+
+        assertThat(new JdbcTemplate(primary).queryForList("SELECT name FROM node", String.class))
+                .containsExactlyInAnyOrder("primary", "written");
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM node WHERE name = 'written' FOR UPDATE", String.class))
+                .isEqualTo("written");
+    }
+
+    @Test
+    void transactions_shouldRouteByReadOnlyFlag() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        String readOnlyNode = readOnly.execute(status -> currentNode());
+        String readWriteNode = readWrite.execute(status -> currentNode());
+
+        assertThat(readOnlyNode).isEqualTo("replica");
+        assertThat(readWriteNode).isEqualTo("primary");
+    }
+
+    @Test
+    void readAfterCommittedWrite_shouldStayOnPrimaryForSameUserOnly() {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("alice", null, List.of()));
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO node VALUES ('written')"));
+
+        assertThat(currentNode()).isEqualTo("written");
+
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("bob", null, List.of()));
+        assertThat(currentNode()).isEqualTo("replica");
+    }
+
+    @Test
+    void rolledBackWrite_shouldNotOpenReadYourWritesWindow() {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("alice", null, List.of()));
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO node VALUES ('written')");
+            status.setRollbackOnly();
+        });
+
+        assertThat(currentNode()).isEqualTo("replica");
+    }
+
+    @Test
+    void laggingOrUncheckedReplica_shouldFallBackToPrimary() {
+        routing.setReplicaLag(replica, MAX_LAG.plusMillis(1));
+        assertThat(currentNode()).isEqualTo("primary");
+
+        routing.setReplicaLag(replica, MAX_LAG);
+        assertThat(currentNode()).isEqualTo("replica");
+
+        // Query lag khusus PostgreSQL gagal di H2, replica dianggap tidak tersedia
+        routing.checkReplicaLag();
+        assertThat(replica.getLagMillis()).isEqualTo(Long.MAX_VALUE);
+        assertThat(currentNode()).isEqualTo("primary");
+    }
+
+    @Test
+    void isReadStatement_shouldOnlyAcceptPlainSelects() {
+        assertThat(ReplicaRoutingDataSource.isReadStatement("  SELECT * FROM users")).isTrue();
+        assertThat(ReplicaRoutingDataSource.isReadStatement("(select id from users) union (select id from roles)"))
+                .isTrue();
+        assertThat(ReplicaRoutingDataSource.isReadStatement("SELECT * FROM users WHERE id = ? FOR UPDATE")).isFalse();
+        assertThat(ReplicaRoutingDataSource.isReadStatement("SELECT * FROM users FOR NO KEY UPDATE")).isFalse();
+        assertThat(ReplicaRoutingDataSource.isReadStatement("SELECT nextval('users_id_seq')")).isFalse();
+        assertThat(ReplicaRoutingDataSource.isReadStatement("SELECT pg_notify(?, ?)")).isFalse();
+        assertThat(ReplicaRoutingDataSource.isReadStatement("INSERT INTO users (username) VALUES (?)")).isFalse();
+        assertThat(ReplicaRoutingDataSource.isReadStatement("WITH d AS (DELETE FROM users) SELECT 1")).isFalse();
+        assertThat(ReplicaRoutingDataSource.isReadStatement(null)).isFalse();
+    }
+}
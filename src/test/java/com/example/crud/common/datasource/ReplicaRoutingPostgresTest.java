@@ -0,0 +1,176 @@
+package com.example.crud.common.datasource;
+
+import com.example.crud.feature.user.model.User;
+import com.example.crud.feature.user.repository.UserRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Routing terhadap primary dan hot standby PostgreSQL sungguhan yang tersambung lewat
+ * streaming replication. Lag dibuat dengan menghentikan replay WAL di replica. Dilewati tanpa Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ReplicaRoutingPostgresTest {
+
+    private static final Duration MAX_LAG = Duration.ofSeconds(2);
+    private static final Duration LAG_CHECK_INTERVAL = Duration.ofMillis(200);
+    private static final String IS_REPLICA_SQL = "SELECT pg_is_in_recovery()";
+
+    private static final Network NETWORK = Network.newNetwork();
+
+    @Container
+    private static final PostgreSQLContainer<?> PRIMARY = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withNetwork(NETWORK)
+            .withNetworkAliases("primary")
+            .withCommand("postgres", "-c", "wal_level=replica", "-c", "max_wal_senders=4", "-c", "fsync=off")
+            .withCopyToContainer(Transferable.of("echo 'host replication all all trust' >> \"$PGDATA/pg_hba.conf\"\n"),
+                    "/docker-entrypoint-initdb.d/10-replication.sh");
+
+    // Standby dibuat dengan pg_basebackup -R (menulis primary_conninfo dan standby.signal)
+    @Container
+    private static final GenericContainer<?> REPLICA = new GenericContainer<>("postgres:16-alpine")
+            .withNetwork(NETWORK)
+            .dependsOn(PRIMARY)
+            .withExposedPorts(5432)
+            .withCommand("sh", "-c", """
+                    set -e
+                    until pg_isready -h primary -U test; do sleep 1; done
+                    rm -rf "$PGDATA"/*
+                    su-exec postgres pg_basebackup -h primary -U test -D "$PGDATA" -R -X stream
+                    chmod 700 "$PGDATA"
+                    exec su-exec postgres postgres -D "$PGDATA" -c hot_standby=on
+                    """)
+            .waitingFor(Wait.forLogMessage(".*database system is ready to accept read-only connections.*", 1)
+                    .withStartupTimeout(Duration.ofMinutes(2)));
+
+    private static DriverManagerDataSource primary;
+    private static DriverManagerDataSource replica;
+    private static ReplicaRoutingDataSource routing;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate readWrite;
+    private static TransactionTemplate readOnly;
+
+    @BeforeAll
+    static void setUp() {
+        primary = new DriverManagerDataSource(PRIMARY.getJdbcUrl(), PRIMARY.getUsername(), PRIMARY.getPassword());
+        Flyway.configure()
+                .dataSource(primary)
+                .locations("classpath:db/migration/postgresql")
+                .load()
+                .migrate();
+
+        replica = new DriverManagerDataSource("jdbc:postgresql://" + REPLICA.getHost() + ":"
+                + REPLICA.getMappedPort(5432) + "/" + PRIMARY.getDatabaseName(),
+                PRIMARY.getUsername(), PRIMARY.getPassword());
+        routing = new ReplicaRoutingDataSource(primary,
+                List.of(new ReplicaRoutingDataSource.Replica("replica-1", replica)), MAX_LAG,
+                new ReadYourWritesTracker(Duration.ofSeconds(30), 100));
+        routing.start(LAG_CHECK_INTERVAL);
+
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        awaitReplicaAvailable();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        routing.close();
+    }
+
+    @AfterEach
+    void resumeReplay() {
+        SecurityContextHolder.clearContext();
+        new JdbcTemplate(replica).execute("SELECT pg_wal_replay_resume()");
+        awaitReplicaAvailable();
+    }
+
+    private static void awaitReplicaAvailable() {
+        await().atMost(Duration.ofSeconds(30))
+                .until(() -> routing.getReplicas().get(0).getLagMillis() <= MAX_LAG.toMillis());
+    }
+
+    private static void authenticateAs(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+    }
+
+    private static boolean routedToReplica() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_REPLICA_SQL, Boolean.class));
+    }
+
+    @Test
+    void readsAndWrites_shouldBeRoutedByTransactionType() {
+        assertThat(routedToReplica()).isTrue();
+        Boolean readOnlyOnReplica = readOnly.execute(status -> routedToReplica());
+        Boolean readWriteOnReplica = readWrite.execute(status -> routedToReplica());
+
+        assertThat(readOnlyOnReplica).isTrue();
+        assertThat(readWriteOnReplica).isFalse();
+    }
+
+    @Test
+    void readAfterUpdate_shouldSeeOwnWriteWhileReplicaHasNotReplayedIt() {
+        // Tanpa lag monitor: replica yang di-pause tetap dianggap sehat, sehingga hanya
+        // read-your-writes yang membuat bacaan alice melihat tulisannya sendiri
+        ReplicaRoutingDataSource.Replica pausedReplica = new ReplicaRoutingDataSource.Replica("replica-1", replica);
+        ReplicaRoutingDataSource unmonitored = new ReplicaRoutingDataSource(primary, List.of(pausedReplica), MAX_LAG,
+                new ReadYourWritesTracker(Duration.ofSeconds(30), 100));
+        unmonitored.setReplicaLag(pausedReplica, Duration.ZERO);
+        UserRepository userRepository = new UserRepository(unmonitored, JdbcClient.create(unmonitored));
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(unmonitored));
+        User user = userRepository.findById(1L).orElseThrow();
+        String originalPassword = user.getPassword();
+        new JdbcTemplate(replica).execute("SELECT pg_wal_replay_pause()");
+
+        authenticateAs("alice");
+        user.setPassword("changed-" + System.nanoTime());
+        transaction.executeWithoutResult(status -> userRepository.update(user));
+
+        assertThat(userRepository.findById(1L)).get().extracting(User::getPassword).isEqualTo(user.getPassword());
+
+        // User lain masih membaca replica yang belum memutar ulang perubahan tersebut
+        authenticateAs("bob");
+        assertThat(userRepository.findById(1L)).get().extracting(User::getPassword).isEqualTo(originalPassword);
+    }
+
+    @Test
+    void laggingReplica_shouldFallBackToPrimaryUntilItCatchesUp() {
+        new JdbcTemplate(replica).execute("SELECT pg_wal_replay_pause()");
+        new JdbcTemplate(primary).update("UPDATE roles SET description = ? WHERE id = 1", "lag-" + System.nanoTime());
+
+        await().atMost(Duration.ofSeconds(30)).pollInterval(LAG_CHECK_INTERVAL)
+                .until(() -> routing.getReplicas().get(0).getLagMillis() > MAX_LAG.toMillis());
+        assertThat(routedToReplica()).isFalse();
+
+        new JdbcTemplate(replica).execute("SELECT pg_wal_replay_resume()");
+        awaitReplicaAvailable();
+        assertThat(routedToReplica()).isTrue();
+    }
+}
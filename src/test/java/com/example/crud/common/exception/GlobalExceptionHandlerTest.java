@@ -11,9 +11,11 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 
 import org.springframework.boot.test.mock.mockito.MockBean;
 import com.example.crud.feature.auth.service.JwtService;
+import com.example.crud.feature.auth.service.TokenRevocationService;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -32,6 +34,10 @@ class GlobalExceptionHandlerTest {
     @MockBean
     private JwtService jwtService;
 
+    @SuppressWarnings("removal")
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
     @Test
     void shouldHandleResourceNotFoundException() throws Exception {
         mockMvc.perform(get("/test/resource-not-found"))
@@ -42,6 +48,32 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.path").value("/test/resource-not-found"));
     }
 
+    @Test
+    void shouldHandleCallNotPermittedExceptionAsServiceUnavailable() throws Exception {
+        mockMvc.perform(get("/test/call-not-permitted"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value(503))
+                .andExpect(jsonPath("$.error").value("Service Unavailable"))
+                .andExpect(jsonPath("$.path").value("/test/call-not-permitted"));
+    }
+
+    @Test
+    void shouldHandleServiceOverloadedExceptionWithRetryAfter() throws Exception {
+        mockMvc.perform(get("/test/service-overloaded"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"))
+                .andExpect(jsonPath("$.status").value(503))
+                .andExpect(jsonPath("$.message").value("Service test is overloaded, retry later"));
+    }
+
+    @Test
+    void shouldHandleBulkheadFullExceptionWithRetryAfter() throws Exception {
+        mockMvc.perform(get("/test/bulkhead-full"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.status").value(503));
+    }
+
     @Test
     void shouldHandleMethodArgumentNotValidException() throws Exception {
         TestController.TestDto testDto = new TestController.TestDto(); // name is null
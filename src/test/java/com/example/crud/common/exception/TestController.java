@@ -1,5 +1,9 @@
 package com.example.crud.common.exception;
 
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
@@ -9,6 +13,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+
 @RestController
 public class TestController {
 
@@ -22,6 +28,21 @@ public class TestController {
         throw new ResourceNotFoundException("Test resource not found");
     }
 
+    @GetMapping("/test/call-not-permitted")
+    public void throwCallNotPermittedException() {
+        throw CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("test"));
+    }
+
+    @GetMapping("/test/service-overloaded")
+    public void throwServiceOverloadedException() {
+        throw new ServiceOverloadedException("Service test is overloaded, retry later", Duration.ofSeconds(3));
+    }
+
+    @GetMapping("/test/bulkhead-full")
+    public void throwBulkheadFullException() {
+        throw BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("test"));
+    }
+
     @PostMapping("/test/validation-error")
     public ResponseEntity<String> testValidationError(@Valid @RequestBody TestDto testDto) {
         return ResponseEntity.ok("Valid");
@@ -0,0 +1,56 @@
+package com.example.crud.common.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTest {
+
+    @Test
+    void readRecord_shouldParseQuotedFieldsAndTrackLines() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+                "a,b,c\r\n1,\"x, \"\"y\"\"\",\r\n\n2,\"multi\nline\",z\n3,last,"));
+
+        assertThat(reader.readRecord()).containsExactly("a", "b", "c");
+        assertThat(reader.getRecordLine()).isEqualTo(1);
+        assertThat(reader.readRecord()).containsExactly("1", "x, \"y\"", "");
+        assertThat(reader.getRecordLine()).isEqualTo(2);
+        // Baris kosong dilewati
+        assertThat(reader.readRecord()).containsExactly("2", "multi\nline", "z");
+        assertThat(reader.getRecordLine()).isEqualTo(4);
+        assertThat(reader.readRecord()).containsExactly("3", "last", "");
+        assertThat(reader.getRecordLine()).isEqualTo(6);
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    void readRecord_shouldRoundTripExportWriterOutput() throws IOException {
+        var out = new java.io.ByteArrayOutputStream();
+        List<CsvColumn<List<String>>> columns = List.of(
+                new CsvColumn<>("first", row -> row.get(0)),
+                new CsvColumn<>("second", row -> row.get(1)));
+        try (ExportWriter<List<String>> writer = ExportWriter.open(ExportFormat.CSV, out, null, columns)) {
+            writer.accept(List.of("plain", "with,comma"));
+            writer.accept(List.of("\"quoted\"", "line\r\nbreak"));
+        }
+
+        CsvReader reader = new CsvReader(new StringReader(out.toString(java.nio.charset.StandardCharsets.UTF_8)));
+        assertThat(reader.readRecord()).containsExactly("first", "second");
+        assertThat(reader.readRecord()).containsExactly("plain", "with,comma");
+        assertThat(reader.readRecord()).containsExactly("\"quoted\"", "line\r\nbreak");
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    void readRecord_withUnterminatedQuote_shouldThrow() {
+        CsvReader reader = new CsvReader(new StringReader("\"open,field\n"));
+
+        assertThatThrownBy(reader::readRecord).isInstanceOf(IOException.class)
+                .hasMessageContaining("line 1");
+    }
+}
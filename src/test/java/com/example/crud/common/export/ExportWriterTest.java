@@ -0,0 +1,69 @@
+package com.example.crud.common.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExportWriterTest {
+
+    record Row(Long id, String name) {
+    }
+
+    private static final List<CsvColumn<Row>> COLUMNS = List.of(
+            new CsvColumn<>("id", Row::id),
+            new CsvColumn<>("name", Row::name));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void ndjson_shouldWriteOneJsonObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter<Row> writer = ExportWriter.open(ExportFormat.NDJSON, out, objectMapper, COLUMNS)) {
+            writer.accept(new Row(1L, "ADMIN"));
+            writer.accept(new Row(2L, "USER"));
+        }
+
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo("{\"id\":1,\"name\":\"ADMIN\"}\n{\"id\":2,\"name\":\"USER\"}\n");
+    }
+
+    @Test
+    void csv_shouldWriteHeaderAndQuoteSpecialCharacters() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter<Row> writer = ExportWriter.open(ExportFormat.CSV, out, objectMapper, COLUMNS)) {
+            writer.accept(new Row(1L, "plain"));
+            writer.accept(new Row(2L, "a,b \"c\""));
+            writer.accept(new Row(3L, null));
+        }
+
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo("id,name\r\n1,plain\r\n2,\"a,b \"\"c\"\"\"\r\n3,\r\n");
+    }
+
+    @Test
+    void accept_whenOutputFails_shouldThrowUncheckedIOException() throws IOException {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        ExportWriter<Row> writer = ExportWriter.open(ExportFormat.CSV, broken, objectMapper, COLUMNS);
+
+        // Header dan baris masih di buffer; kegagalan muncul saat buffer di-flush
+        assertThatThrownBy(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                writer.accept(new Row((long) i, "row"));
+            }
+        }).isInstanceOf(UncheckedIOException.class);
+    }
+}
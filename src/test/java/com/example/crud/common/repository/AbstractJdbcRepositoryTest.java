@@ -6,10 +6,13 @@ import org.mockito.ArgumentMatchers;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.mock.env.MockEnvironment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import javax.sql.DataSource;
 import java.util.*;
@@ -61,6 +64,37 @@ class AbstractJdbcRepositoryTest {
         assertThat(where).contains("name LIKE :name").contains("age = :age");
     }
 
+    @Test
+    void buildWhereClause_withCaseInsensitiveSearch_shouldUseIlike() {
+        Map<String, Object> filters = new LinkedHashMap<>();
+        filters.put("name", "%adm%");
+        filters.put("age", 30);
+        repository.setCaseInsensitiveSearch(true);
+
+        assertThat(repository.buildWhereClause(filters)).isEqualTo("name ILIKE :name AND age = :age");
+        assertThat(repository.buildWhereClause(filters, "u")).isEqualTo("u.name ILIKE :name AND u.age = :age");
+    }
+
+    @Test
+    void buildWhereClause_withCaseInsensitivePrefix_shouldCompareLowercase() {
+        Map<String, Object> filters = new LinkedHashMap<>();
+        filters.put("name", "adm%");
+        filters.put("age", 30);
+        repository.setCaseInsensitiveSearch(true);
+
+        // ILIKE 'adm%' tidak bisa memakai index B-tree; lower(name) LIKE bisa (index ekspresi V5)
+        assertThat(repository.buildWhereClause(filters)).isEqualTo("lower(name) LIKE lower(:name) AND age = :age");
+        assertThat(repository.buildWhereClause(filters, "u"))
+                .isEqualTo("lower(u.name) LIKE lower(:name) AND u.age = :age");
+    }
+
+    @Test
+    void setEnvironment_shouldReadCaseInsensitiveSearchProperty() {
+        repository.setEnvironment(new MockEnvironment().withProperty("repository.search.case-insensitive", "true"));
+
+        assertThat(repository.likeOperator()).isEqualTo("ILIKE");
+    }
+
     @Test
     void buildWhereClause_withAlias_shouldUseLikeAndEquals() {
         Map<String, Object> filters = new LinkedHashMap<>();
@@ -274,4 +308,168 @@ class AbstractJdbcRepositoryTest {
             return Set.of("name");
         }
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void findAll_withSameShape_shouldReuseCachedSqlInstances() {
+        when(jdbcClient.sql(anyString()).params(anyMap()).query(any(Class.class)).single()).thenReturn(1L);
+        when(jdbcClient.sql(anyString()).params(anyMap()).query(any(RowMapper.class)).list())
+                .thenReturn(List.of(new DummyEntity(1L, "admin")));
+        clearInvocations(jdbcClient);
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("name"));
+
+        repository.findAll(pageable, Map.of("name", "%admin%"));
+        repository.findAll(PageRequest.of(3, 2, Sort.by("name")), Map.of("name", "%user%"));
+
+        org.mockito.ArgumentCaptor<String> sqlCaptor = org.mockito.ArgumentCaptor.forClass(String.class);
+        verify(jdbcClient, times(4)).sql(sqlCaptor.capture());
+        List<String> sqls = sqlCaptor.getAllValues();
+        // count + data per panggilan, panggilan kedua memakai instance String yang sama
+        assertThat(sqls.get(2)).isSameAs(sqls.get(0));
+        assertThat(sqls.get(3)).isSameAs(sqls.get(1));
+        assertThat(repository.getStatementCache().stats().hitCount()).isEqualTo(2);
+        assertThat(repository.getStatementCache().stats().missCount()).isEqualTo(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void findAll_withLikeAndEqualityOnSameColumn_shouldCacheDistinctShapes() {
+        when(jdbcClient.sql(anyString()).params(anyMap()).query(any(Class.class)).single()).thenReturn(1L);
+        when(jdbcClient.sql(anyString()).params(anyMap()).query(any(RowMapper.class)).list()).thenReturn(List.of());
+        clearInvocations(jdbcClient);
+
+        repository.findAll(PageRequest.of(0, 2), Map.of("name", "%admin%"));
+        repository.findAll(PageRequest.of(0, 2), Map.of("name", "admin"));
+
+        verify(jdbcClient).sql("SELECT count(*) FROM dummy WHERE name LIKE :name");
+        verify(jdbcClient).sql("SELECT count(*) FROM dummy WHERE name = :name");
+        assertThat(repository.getStatementCache().size()).isEqualTo(4);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void findAll_withDisallowedSortColumn_shouldNotCreateNewShape() {
+        when(jdbcClient.sql(anyString()).params(anyMap()).query(any(Class.class)).single()).thenReturn(0L);
+        when(jdbcClient.sql(anyString()).params(anyMap()).query(any(RowMapper.class)).list()).thenReturn(List.of());
+
+        repository.findAll(PageRequest.of(0, 2, Sort.by("name")), Map.of());
+        repository.findAll(PageRequest.of(0, 2, Sort.by("name", "notAllowed")), Map.of());
+
+        assertThat(repository.getStatementCache().size()).isEqualTo(2);
+    }
+
+    @Test
+    void update_shouldBuildSqlOnceAndNotMutateUpdateParameters() {
+        when(jdbcClient.sql(anyString()).params(anyMap()).update()).thenReturn(1);
+        clearInvocations(jdbcClient);
+
+        // getUpdateParameters DummyRepository mengembalikan Map.of yang immutable
+        assertThat(repository.update(new DummyEntity(1L, "first"))).isEqualTo(1);
+        repository.update(new DummyEntity(2L, "second"));
+
+        verify(jdbcClient, times(2)).sql("UPDATE dummy SET name = :name WHERE id = :id");
+        assertThat(repository.getStatementCache().stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void statementCacheMetrics_shouldExposeHitsMissesAndSize() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        repository.setMeterRegistry(registry);
+
+        repository.findById(1L);
+        repository.findById(2L);
+
+        assertThat(registry.get("repository.statement.cache.gets").tag("table", "dummy").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("repository.statement.cache.gets").tag("table", "dummy").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("repository.statement.cache.size").tag("table", "dummy").gauge().value())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void countFingerprint_shouldIgnoreFilterOrder() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("name", "%admin%");
+        first.put("age", 30);
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("age", 30);
+        second.put("name", "%admin%");
+
+        assertThat(repository.countFingerprint(first)).isEqualTo(repository.countFingerprint(second));
+    }
+
+    @Test
+    void buildCountSql_shouldReuseFilteredFromClause() {
+        Map<String, Object> filters = Map.of("name", "%admin%");
+
+        assertThat(repository.buildCountSql(filters)).isEqualTo("SELECT count(*) FROM dummy WHERE name LIKE :name");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void findAll_withCountStrategyNone_shouldSkipCountQuery() {
+        Pageable pageable = PageRequest.of(0, 1);
+        when(jdbcClient.sql(anyString()).params(anyMap()).query(any(RowMapper.class)).list())
+                .thenReturn(List.of(new DummyEntity(1L, "a"), new DummyEntity(2L, "b")));
+
+        Slice<DummyEntity> slice = repository.findAll(pageable, Map.of(), CountStrategy.NONE);
+
+        assertThat(slice.getContent()).hasSize(1);
+        assertThat(slice.hasNext()).isTrue();
+        verify(jdbcClient.sql(anyString()).params(anyMap()).query(any(Class.class)), never()).single();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void findAll_withParallelCountEnabled_shouldJoinResultsAndRecordSavings() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        repository.setMeterRegistry(meterRegistry);
+        repository.setParallelCountEnabled(true);
+        when(jdbcClient.sql(anyString()).params(anyMap()).query(any(Class.class)).single()).thenReturn(5L);
+        when(jdbcClient.sql(anyString()).params(anyMap()).query(any(RowMapper.class)).list())
+                .thenReturn(List.of(new DummyEntity(1L, "a")));
+
+        Page<DummyEntity> page = repository.findAll(PageRequest.of(0, 1), Map.of());
+
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(meterRegistry.get("repository.findall.parallel.saved").tag("table", "dummy").timer().count())
+                .isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void findAll_withParallelCountEnabled_shouldPropagateCountFailure() {
+        repository.setParallelCountEnabled(true);
+        when(jdbcClient.sql(anyString()).params(anyMap()).query(any(Class.class)).single())
+                .thenThrow(new IllegalStateException("count failed"));
+        when(jdbcClient.sql(anyString()).params(anyMap()).query(any(RowMapper.class)).list()).thenReturn(List.of());
+
+        Pageable pageable = PageRequest.of(0, 1);
+        Map<String, Object> filters = Map.of();
+        assertThrows(IllegalStateException.class, () -> repository.findAll(pageable, filters));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void setEnvironment_shouldReadParallelCountPerTable() {
+        MockEnvironment environment = new MockEnvironment().withProperty("repository.dummy.parallel-count", "true");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        repository.setEnvironment(environment);
+        repository.setMeterRegistry(meterRegistry);
+        when(jdbcClient.sql(anyString()).params(anyMap()).query(any(Class.class)).single()).thenReturn(0L);
+        when(jdbcClient.sql(anyString()).params(anyMap()).query(any(RowMapper.class)).list()).thenReturn(List.of());
+
+        repository.findAll(PageRequest.of(0, 1), Map.of());
+
+        // Timer sudah terdaftar sejak setMeterRegistry; yang membuktikan jalur paralel adalah rekamannya
+        assertThat(meterRegistry.get("repository.findall.parallel.saved").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void buildInsertSql_shouldUseNamedParametersInColumnOrder() {
+        String sql = repository.buildInsertSql(List.of("name", "age"));
+        assertThat(sql).isEqualTo("INSERT INTO dummy (name, age) VALUES (:name, :age)");
+    }
 }
@@ -0,0 +1,54 @@
+package com.example.crud.common.repository;
+
+import com.example.crud.common.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodeDecode_shouldRoundTripStringValue() {
+        KeysetCursor cursor = KeysetCursor.first("username", true).after("bob@example.com", 42L);
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.isFirst()).isFalse();
+    }
+
+    @Test
+    void encodeDecode_shouldKeepValueTypes() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+        KeysetCursor cursor = KeysetCursor.first("created_at", false).after(now, 7L);
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        assertThat(decoded.value()).isEqualTo(now);
+        assertThat(decoded.id()).isEqualTo(7L);
+        assertThat(decoded.ascending()).isFalse();
+    }
+
+    @Test
+    void encodeDecode_shouldAllowSeparatorInsideValue() {
+        KeysetCursor cursor = KeysetCursor.first("description", true).after("line1\nline2", 3L);
+
+        assertThat(KeysetCursor.decode(cursor.encode()).value()).isEqualTo("line1\nline2");
+    }
+
+    @Test
+    void first_shouldHaveNoPosition() {
+        assertThat(KeysetCursor.first("id", true).isFirst()).isTrue();
+    }
+
+    @Test
+    void decode_withGarbage_shouldThrowInvalidCursorException() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not a cursor!"))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("YWJj"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
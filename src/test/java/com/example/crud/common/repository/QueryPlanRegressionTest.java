@@ -0,0 +1,245 @@
+package com.example.crud.common.repository;
+
+import com.example.crud.feature.role.repository.RoleRepository;
+import com.example.crud.feature.user.repository.UserRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regression test rencana query: setiap statement yang dibangkitkan UserRepository dan
+ * RoleRepository di-EXPLAIN dengan parameter aslinya di PostgreSQL, dan gagal jika ada
+ * Seq Scan pada tabel yang ukurannya sudah melewati ambang. Dilewati tanpa Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanRegressionTest {
+
+    // Di atas ambang ini planner seharusnya selalu memilih index untuk query yang selektif
+    private static final int SEQ_SCAN_THRESHOLD = 1_000;
+    private static final int SEEDED_ROLES = 2_000;
+    private static final int SEEDED_USERS = 50_000;
+    // Id 1 dan 2 sudah dipakai data awal dari V4
+    private static final long FIRST_SEEDED_ID = 3;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static PlanCapturingDataSource dataSource;
+    private static Map<String, Long> tableSizes;
+
+    private UserRepository userRepository;
+    private RoleRepository roleRepository;
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        DriverManagerDataSource target = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        Flyway.configure()
+                .dataSource(target)
+                .locations("classpath:db/migration/postgresql")
+                .load()
+                .migrate();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(target);
+        jdbcTemplate.update("""
+                INSERT INTO roles (id, name, description)
+                SELECT g, 'ROLE_' || lpad(g::text, 5, '0'), 'Deskripsi role ' || lpad(g::text, 5, '0')
+                FROM generate_series(?::bigint, ?::bigint) g
+                """, FIRST_SEEDED_ID, FIRST_SEEDED_ID + SEEDED_ROLES - 1);
+        jdbcTemplate.update("""
+                INSERT INTO users (id, username, password, role_id, created_at, created_by)
+                SELECT g, 'user-' || lpad(g::text, 6, '0') || '@example.com', 'x',
+                       ?::bigint + (g % ?), now(), 'seed'
+                FROM generate_series(?::bigint, ?::bigint) g
+                """, FIRST_SEEDED_ID, SEEDED_ROLES, FIRST_SEEDED_ID, FIRST_SEEDED_ID + SEEDED_USERS - 1);
+        jdbcTemplate.execute("SELECT setval(pg_get_serial_sequence('roles', 'id'), (SELECT max(id) FROM roles))");
+        jdbcTemplate.execute("SELECT setval(pg_get_serial_sequence('users', 'id'), (SELECT max(id) FROM users))");
+        jdbcTemplate.execute("ANALYZE roles");
+        jdbcTemplate.execute("ANALYZE users");
+
+        tableSizes = Map.of(
+                "users", jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class),
+                "roles", jdbcTemplate.queryForObject("SELECT count(*) FROM roles", Long.class));
+        dataSource = new PlanCapturingDataSource(target);
+    }
+
+    @BeforeEach
+    void setUp() {
+        JdbcClient jdbcClient = JdbcClient.create(dataSource);
+        userRepository = new UserRepository(dataSource, jdbcClient);
+        roleRepository = new RoleRepository(dataSource, jdbcClient);
+        dataSource.plans.clear();
+    }
+
+    @Test
+    void userLookups_shouldUseIndexes() {
+        userRepository.findById(FIRST_SEEDED_ID + 42);
+        userRepository.findByUsername("user-000042@example.com");
+        userRepository.deleteById(Long.MAX_VALUE);
+
+        assertNoSeqScanOnLargeTables();
+    }
+
+    @Test
+    void userFilteredPages_shouldUseIndexes() {
+        PageRequest byUsername = PageRequest.of(0, 20, Sort.by("username"));
+        userRepository.findAll(byUsername, Map.of("username", SearchMode.CONTAINS.toPattern("004242@")));
+        userRepository.findAll(byUsername, Map.of("username", SearchMode.STARTS_WITH.toPattern("user-00424")));
+        userRepository.findAll(PageRequest.of(0, 20, Sort.by("id")), Map.of("role", FIRST_SEEDED_ID + 7));
+
+        userRepository.setCaseInsensitiveSearch(true);
+        userRepository.findAll(byUsername, Map.of("username", SearchMode.CONTAINS.toPattern("004242@")));
+        // Awalan case-insensitive: lower(username) LIKE, dilayani index ekspresi lower() varchar_pattern_ops
+        userRepository.findAll(byUsername, Map.of("username", SearchMode.STARTS_WITH.toPattern("USER-00424")));
+
+        assertNoSeqScanOnLargeTables();
+    }
+
+    @Test
+    void userKeysetPages_shouldUseIndexes() {
+        PageRequest byUsername = PageRequest.of(0, 20, Sort.by("username"));
+        CursorPage<?> first = userRepository.findAllByCursor(byUsername, Map.of(), null);
+        userRepository.findAllByCursor(byUsername, Map.of(), first.nextCursor());
+
+        PageRequest byId = PageRequest.of(0, 20, Sort.by("id"));
+        Map<String, Object> roleFilter = Map.of("role", FIRST_SEEDED_ID + 7);
+        CursorPage<?> firstOfRole = userRepository.findAllByCursor(byId, roleFilter, null);
+        userRepository.findAllByCursor(byId, roleFilter, firstOfRole.nextCursor());
+
+        assertNoSeqScanOnLargeTables();
+    }
+
+    @Test
+    void roleQueries_shouldUseIndexes() {
+        roleRepository.findById(FIRST_SEEDED_ID + 42);
+        PageRequest byName = PageRequest.of(0, 20, Sort.by("name"));
+        roleRepository.findAll(byName, Map.of("name", SearchMode.CONTAINS.toPattern("_01042")));
+        roleRepository.findAll(byName, Map.of("name", SearchMode.STARTS_WITH.toPattern("ROLE_0104")));
+        roleRepository.findAll(byName, Map.of("description", SearchMode.CONTAINS.toPattern("role 01042")));
+
+        CursorPage<?> first = roleRepository.findAllByCursor(byName, Map.of(), null);
+        roleRepository.findAllByCursor(byName, Map.of(), first.nextCursor());
+
+        assertNoSeqScanOnLargeTables();
+    }
+
+    private void assertNoSeqScanOnLargeTables() {
+        assertThat(tableSizes).allSatisfy((table, size) -> assertThat(size).isGreaterThan(SEQ_SCAN_THRESHOLD));
+        assertThat(dataSource.plans).isNotEmpty();
+        for (CapturedPlan plan : dataSource.plans) {
+            tableSizes.forEach((table, size) -> {
+                if (size > SEQ_SCAN_THRESHOLD) {
+                    assertThat(plan.plan())
+                            .as("Rencana query untuk:%n%s", plan.sql())
+                            .doesNotContain("Seq Scan on " + table + " ");
+                }
+            });
+        }
+    }
+
+    record CapturedPlan(String sql, String plan) {
+    }
+
+    private record ParameterCall(Method method, Object[] args) {
+    }
+
+    /**
+     * Membungkus PreparedStatement: parameter yang di-set dicatat, lalu sebelum eksekusi
+     * statement yang sama di-EXPLAIN (tanpa ANALYZE, jadi DELETE/UPDATE tidak ikut dijalankan).
+     */
+    static final class PlanCapturingDataSource extends DelegatingDataSource {
+
+        final List<CapturedPlan> plans = new CopyOnWriteArrayList<>();
+
+        PlanCapturingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                    (proxy, method, args) -> {
+                        Object result = invoke(method, connection, args);
+                        if (method.getName().equals("prepareStatement") && isExplainable((String) args[0])) {
+                            return capturing(connection, (String) args[0], (PreparedStatement) result);
+                        }
+                        return result;
+                    });
+        }
+
+        private PreparedStatement capturing(Connection connection, String sql, PreparedStatement statement) {
+            List<ParameterCall> parameters = new ArrayList<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.startsWith("set") && args != null && args.length > 1 && args[0] instanceof Integer) {
+                            parameters.add(new ParameterCall(method, args));
+                        } else if (name.equals("clearParameters")) {
+                            parameters.clear();
+                        } else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                            plans.add(new CapturedPlan(sql, explain(connection, sql, parameters)));
+                        }
+                        return invoke(method, statement, args);
+                    });
+        }
+
+        private static String explain(Connection connection, String sql, List<ParameterCall> parameters)
+                throws SQLException {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (ParameterCall parameter : parameters) {
+                    invoke(parameter.method(), explain, parameter.args());
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rs = explain.executeQuery()) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            } catch (SQLException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new SQLException("EXPLAIN gagal untuk: " + sql, e);
+            }
+        }
+
+        private static boolean isExplainable(String sql) {
+            String head = sql.stripLeading().toUpperCase();
+            return head.startsWith("SELECT") || head.startsWith("UPDATE") || head.startsWith("DELETE");
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args) throws Exception {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw (Exception) e.getCause();
+            }
+        }
+    }
+}
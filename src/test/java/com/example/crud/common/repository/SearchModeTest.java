@@ -0,0 +1,23 @@
+package com.example.crud.common.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchModeTest {
+
+    @Test
+    void toPattern_contains_shouldWrapTermWithWildcards() {
+        assertThat(SearchMode.CONTAINS.toPattern("admin")).isEqualTo("%admin%");
+    }
+
+    @Test
+    void toPattern_startsWith_shouldAppendWildcardOnly() {
+        assertThat(SearchMode.STARTS_WITH.toPattern("admin")).isEqualTo("admin%");
+    }
+
+    @Test
+    void toPattern_shouldEscapeLikeWildcardsInTerm() {
+        assertThat(SearchMode.STARTS_WITH.toPattern("50%_off\\")).isEqualTo("50\\%\\_off\\\\%");
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.crud.common.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatementCacheTest {
+
+    @Test
+    void get_shouldBuildOncePerShapeAndCountHitsAndMisses() {
+        SqlStatementCache cache = new SqlStatementCache(10);
+        AtomicInteger builds = new AtomicInteger();
+
+        String first = cache.get(SqlStatementCache.Kind.FIND_BY_ID, List.of(), () -> "SELECT " + builds.incrementAndGet());
+        String second = cache.get(SqlStatementCache.Kind.FIND_BY_ID, List.of(), () -> "SELECT " + builds.incrementAndGet());
+        cache.get(SqlStatementCache.Kind.DELETE_BY_ID, List.of(), () -> "DELETE " + builds.incrementAndGet());
+
+        assertThat(second).isSameAs(first);
+        assertThat(builds.get()).isEqualTo(2);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.stats().missCount()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void filterShape_shouldIgnoreValuesButKeepOperatorAndOrder() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("name", "%admin%");
+        first.put("age", 30);
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("name", "%user%");
+        second.put("age", 45);
+        Map<String, Object> equality = new LinkedHashMap<>();
+        equality.put("name", "user");
+        equality.put("age", 45);
+
+        assertThat(SqlStatementCache.filterShape(first)).isEqualTo(SqlStatementCache.filterShape(second));
+        assertThat(SqlStatementCache.filterShape(first)).isNotEqualTo(SqlStatementCache.filterShape(equality));
+        assertThat(SqlStatementCache.filterShape(first)).containsExactly(
+                new SqlStatementCache.FilterShape("name", true, false),
+                new SqlStatementCache.FilterShape("age", false, false));
+        assertThat(SqlStatementCache.filterShape(Map.of("name", "adm%")))
+                .containsExactly(new SqlStatementCache.FilterShape("name", true, true));
+    }
+
+    @Test
+    void sortShape_shouldDropDisallowedColumns() {
+        Sort sort = Sort.by(Sort.Order.asc("name"), Sort.Order.desc("password"));
+
+        assertThat(SqlStatementCache.sortShape(sort, Set.of("name"))).containsExactly(Sort.Order.asc("name"));
+        assertThat(SqlStatementCache.sortShape(Sort.unsorted(), Set.of("name"))).isEmpty();
+    }
+
+    @Test
+    void clear_shouldDropAllShapes() {
+        SqlStatementCache cache = new SqlStatementCache(10);
+        cache.get(SqlStatementCache.Kind.COUNT, List.of(), () -> "SELECT count(*) FROM dummy");
+
+        cache.clear();
+
+        assertThat(cache.size()).isZero();
+    }
+}
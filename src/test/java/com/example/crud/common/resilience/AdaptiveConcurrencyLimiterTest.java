@@ -0,0 +1,110 @@
+package com.example.crud.common.resilience;
+
+import com.example.crud.common.exception.ResourceNotFoundException;
+import com.example.crud.common.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, Duration latencyThreshold) {
+        return new AdaptiveConcurrencyLimiter("userService", initialLimit, 1, 10, 0.5, latencyThreshold,
+                Duration.ofSeconds(2), registry);
+    }
+
+    @Test
+    void callsAboveLimit_shouldBeShedWithRetryAfter() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, Duration.ofSeconds(10));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(() -> limiter.execute(() -> {
+            started.countDown();
+            await(release);
+            return "done";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> limiter.execute(() -> "rejected"))
+                .isInstanceOf(ServiceOverloadedException.class)
+                .extracting(e -> ((ServiceOverloadedException) e).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(2));
+        release.countDown();
+
+        assertThat(inFlight.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(registry.get("service.concurrency.rejected").tag("service", "userService").counter().count())
+                .isEqualTo(1);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void fastCallsAtLimit_shouldIncreaseLimitAdditively() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, Duration.ofSeconds(10));
+
+        limiter.execute(() -> "ok");
+
+        assertThat(limiter.getLimit()).isEqualTo(3);
+        assertThat(registry.get("service.concurrency.limit").tag("service", "userService").gauge().value())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void slowCalls_shouldDecreaseLimitMultiplicatively() {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, Duration.ofMillis(1));
+
+        limiter.execute(AdaptiveConcurrencyLimiterTest::slowCall);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+
+        limiter.execute(AdaptiveConcurrencyLimiterTest::slowCall);
+        limiter.execute(AdaptiveConcurrencyLimiterTest::slowCall);
+        limiter.execute(AdaptiveConcurrencyLimiterTest::slowCall);
+        assertThat(limiter.getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    void transientDatabaseFailures_shouldDecreaseLimitButClientErrorsShouldNot() {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, Duration.ofSeconds(10));
+
+        assertThatThrownBy(() -> limiter.execute(() -> {
+            throw new ResourceNotFoundException("User not found");
+        })).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> limiter.execute(() -> {
+            throw new DataIntegrityViolationException("duplicate");
+        })).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(limiter.getLimit()).isEqualTo(8);
+
+        assertThatThrownBy(() -> limiter.execute(() -> {
+            throw new QueryTimeoutException("timeout");
+        })).isInstanceOf(QueryTimeoutException.class);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    private static String slowCall() {
+        await(new CountDownLatch(1), 5);
+        return "slow";
+    }
+
+    private static void await(CountDownLatch latch) {
+        await(latch, 5000);
+    }
+
+    private static void await(CountDownLatch latch, long millis) {
+        try {
+            latch.await(millis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.crud.common.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    void burstExhausted_shouldRejectUntilTokenRefills() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 6, 100, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("ip:10.0.0.1")).isZero();
+        }
+        assertThat(limiter.tryAcquire("ip:10.0.0.1")).isEqualTo(Duration.ofSeconds(10));
+        assertThat(limiter.tryAcquire("ip:10.0.0.2")).isZero();
+
+        advance(Duration.ofSeconds(4));
+        assertThat(limiter.tryAcquire("ip:10.0.0.1")).isEqualTo(Duration.ofSeconds(6));
+
+        advance(Duration.ofSeconds(6));
+        assertThat(limiter.tryAcquire("ip:10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("ip:10.0.0.1")).isPositive();
+    }
+
+    @Test
+    void refund_shouldReturnToken() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 100, now::get);
+
+        assertThat(limiter.tryAcquire("user:alice")).isZero();
+        limiter.refund("user:alice");
+
+        assertThat(limiter.tryAcquire("user:alice")).isZero();
+        assertThat(limiter.tryAcquire("user:alice")).isPositive();
+    }
+
+    @Test
+    void idleBuckets_shouldBeEvicted() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 60, 100, now::get);
+        limiter.tryAcquire("ip:10.0.0.1");
+        limiter.tryAcquire("ip:10.0.0.2");
+        assertThat(limiter.estimatedSize()).isEqualTo(2);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(3));
+
+        assertThat(limiter.estimatedSize()).isZero();
+    }
+}
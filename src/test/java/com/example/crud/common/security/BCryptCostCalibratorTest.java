@@ -0,0 +1,34 @@
+package com.example.crud.common.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BCryptCostCalibratorTest {
+
+    private static final long TEN_MS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void calibrate_shouldPickHighestStrengthWithinTarget() {
+        // 10 ms di cost 10: 11 = 20 ms, 12 = 40 ms, 13 = 80 ms
+        assertThat(BCryptCostCalibrator.calibrate(Duration.ofMillis(50), 10, 16, strength -> TEN_MS)).isEqualTo(12);
+        assertThat(BCryptCostCalibrator.calibrate(Duration.ofMillis(80), 10, 16, strength -> TEN_MS)).isEqualTo(13);
+    }
+
+    @Test
+    void calibrate_shouldStayWithinBounds() {
+        assertThat(BCryptCostCalibrator.calibrate(Duration.ofMillis(5), 10, 16, strength -> TEN_MS)).isEqualTo(10);
+        assertThat(BCryptCostCalibrator.calibrate(Duration.ofSeconds(60), 10, 14, strength -> TEN_MS)).isEqualTo(14);
+        assertThatThrownBy(() -> BCryptCostCalibrator.calibrate(Duration.ofMillis(50), 12, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void calibrate_withRealBCrypt_shouldReturnStrengthInRange() {
+        assertThat(BCryptCostCalibrator.calibrate(Duration.ofMillis(1), 4, 6)).isBetween(4, 6);
+    }
+}
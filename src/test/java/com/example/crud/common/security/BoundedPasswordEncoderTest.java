@@ -0,0 +1,127 @@
+package com.example.crud.common.security;
+
+import com.example.crud.common.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (encoder != null) {
+            encoder.close();
+        }
+    }
+
+    /**
+     * Delegate yang menahan setiap hash sampai {@link #release} dibuka.
+     */
+    private final PasswordEncoder blockingEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    };
+
+    @Test
+    void encodeAndMatches_shouldDelegateAndRecordLatency() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4, Duration.ofSeconds(10),
+                Duration.ofSeconds(1), registry);
+
+        String hash = encoder.encode("s3cr3t");
+
+        assertThat(encoder.matches("s3cr3t", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        assertThat(registry.get("password.hash.duration").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(registry.get("password.hash.duration").tag("operation", "matches").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void fullQueue_shouldRejectImmediately() throws Exception {
+        encoder = new BoundedPasswordEncoder(blockingEncoder, 1, 1, Duration.ofSeconds(10), Duration.ofSeconds(2),
+                registry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> encoder.getQueueDepth() == 1);
+        assertThat(registry.get("password.hash.queue.depth").gauge().value()).isEqualTo(1.0);
+
+        assertThatThrownBy(() -> encoder.matches("c", "hash:c"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .extracting(e -> ((RateLimitExceededException) e).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(2));
+        assertThat(registry.get("password.hash.rejected").tag("reason", "queue_full").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:a");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash:b");
+    }
+
+    @Test
+    void slowHash_shouldTimeOutAndCancelQueuedWork() throws Exception {
+        encoder = new BoundedPasswordEncoder(blockingEncoder, 1, 4, Duration.ofMillis(100), Duration.ofSeconds(1),
+                registry);
+        CompletableFuture.runAsync(() -> {
+            try {
+                encoder.encode("a");
+            } catch (RateLimitExceededException e) {
+                // Pemanggil pertama juga kehabisan waktu; yang diuji pemanggil kedua
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> encoder.encode("b")).isInstanceOf(RateLimitExceededException.class);
+
+        assertThat(encoder.getQueueDepth()).isZero();
+        assertThat(registry.get("password.hash.rejected").tag("reason", "timeout").counter().count())
+                .isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void encodeAsync_shouldHashInParallelAndFailQueuedWorkOnTimeout() throws Exception {
+        encoder = new BoundedPasswordEncoder(blockingEncoder, 1, 4, Duration.ofMillis(100), Duration.ofSeconds(1),
+                registry);
+        CompletableFuture<String> running = encoder.encodeAsync("a");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = encoder.encodeAsync("b");
+
+        assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RateLimitExceededException.class);
+        assertThat(encoder.getQueueDepth()).isZero();
+
+        release.countDown();
+        assertThatThrownBy(() -> running.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RateLimitExceededException.class);
+        assertThat(encoder.encodeAsync("c").get(5, TimeUnit.SECONDS)).isEqualTo("hash:c");
+        assertThat(encoder.getPoolSize()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.crud.common.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class StaleResponseAdviceTest {
+
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new StaleController())
+            .setControllerAdvice(new StaleResponseAdvice())
+            .build();
+
+    @RestController
+    static class StaleController {
+
+        @GetMapping("/fresh")
+        Map<String, String> fresh() {
+            return Map.of("name", "fresh");
+        }
+
+        @GetMapping("/stale")
+        Map<String, String> stale() {
+            StaleResponseAdvice.markStale(Duration.ofSeconds(42));
+            return Map.of("name", "stale");
+        }
+    }
+
+    @Test
+    void staleResponse_shouldCarryWarningAndAgeHeaders() throws Exception {
+        mockMvc.perform(get("/stale"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Warning", StaleResponseAdvice.STALE_WARNING))
+                .andExpect(header().string("Age", "42"))
+                .andExpect(jsonPath("$.name").value("stale"));
+    }
+
+    @Test
+    void freshResponse_shouldNotBeMarked() throws Exception {
+        mockMvc.perform(get("/fresh"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Warning"))
+                .andExpect(header().doesNotExist("Age"));
+    }
+}
@@ -1,10 +1,20 @@
 package com.example.crud.config;
 
+import com.example.crud.common.cache.RefreshingCacheLoader;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 class CacheConfigStandaloneTest {
     @Test
@@ -78,4 +88,108 @@ class CacheConfigStandaloneTest {
             throw new RuntimeException(e);
         }
     }
+
+    @Test
+    void cacheManager_shouldRegisterUserDetailsCacheWithOwnSpec_whenNamed() {
+        CacheConfig config = new CacheConfig();
+        setField(config, "cacheNames", "tokens,userDetails");
+        setField(config, "cacheExpiryMs", 60000L);
+        setField(config, "cacheExpiryUnit", "minutes");
+        setField(config, "cacheExpiryMin", 1L);
+        setField(config, "cacheMaxSize", 1000);
+        setField(config, "jwtTokenExpiration", 12345L);
+        setField(config, "userDetailsMaxSize", 1L);
+
+        CaffeineCacheManager manager = (CaffeineCacheManager) config.cacheManager();
+        assertThat(manager.getCacheNames()).contains("tokens", "userDetails");
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache =
+                ((CaffeineCache) manager.getCache("userDetails")).getNativeCache();
+        assertThat(nativeCache.policy().eviction().orElseThrow().getMaximum()).isEqualTo(1L);
+        assertThat(nativeCache.policy().expireAfterWrite().orElseThrow().getExpiresAfter())
+                .isEqualTo(Duration.ofSeconds(300));
+    }
+
+    @Test
+    void cacheManager_shouldApplyPerCacheSpecWithStats() {
+        CacheConfig config = new CacheConfig();
+        setField(config, "cacheNames", "tokens,roles");
+        setField(config, "cacheExpiryMs", 60000L);
+        setField(config, "cacheExpiryUnit", "minutes");
+        setField(config, "cacheExpiryMin", 1L);
+        setField(config, "cacheMaxSize", 1000);
+        setField(config, "jwtTokenExpiration", 12345L);
+        setField(config, "cacheSpecs", Map.of("roles", "maximumWeight=50,expireAfterAccess=10m,recordStats"));
+
+        CaffeineCacheManager manager = (CaffeineCacheManager) config.cacheManager();
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> roles =
+                ((CaffeineCache) manager.getCache("roles")).getNativeCache();
+        assertThat(roles.policy().eviction().orElseThrow().isWeighted()).isTrue();
+        assertThat(roles.policy().expireAfterAccess().orElseThrow().getExpiresAfter())
+                .isEqualTo(Duration.ofMinutes(10));
+        assertThat(roles.policy().expireAfterWrite()).isEmpty();
+        assertThat(roles.policy().isRecordingStats()).isTrue();
+
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> tokens =
+                ((CaffeineCache) manager.getCache("tokens")).getNativeCache();
+        assertThat(tokens.policy().isRecordingStats()).isTrue();
+        assertThat(CacheConfig.weigh("k", List.of(1, 2, 3))).isEqualTo(3);
+    }
+
+    @Test
+    void cacheManager_shouldRefreshHotEntriesInBackground() {
+        CacheConfig config = new CacheConfig();
+        setField(config, "cacheNames", "users");
+        setField(config, "cacheExpiryMs", 60000L);
+        setField(config, "cacheExpiryUnit", "minutes");
+        setField(config, "cacheExpiryMin", 1L);
+        setField(config, "cacheMaxSize", 1000);
+        setField(config, "jwtTokenExpiration", 12345L);
+        setField(config, "cacheSpecs", Map.of("users", "maximumSize=100,expireAfterWrite=10m,refreshAfterWrite=PT0.05S"));
+        AtomicInteger version = new AtomicInteger(1);
+        RefreshingCacheLoader loader = new RefreshingCacheLoader() {
+            @Override
+            public String getCacheName() {
+                return "users";
+            }
+
+            @Override
+            public Object load(Object key) {
+                return key + "-v" + version.get();
+            }
+        };
+        config.setCacheLoaders(new StaticListableBeanFactory(
+                Map.of("userCacheLoader", loader))
+                .getBeanProvider(RefreshingCacheLoader.class));
+
+        try {
+            Cache users = config.cacheManager().getCache("users");
+            assertThat(users.get(1L).get()).isEqualTo("1-v1");
+
+            version.set(2);
+            await().atMost(Duration.ofSeconds(5))
+                    .pollInterval(Duration.ofMillis(20))
+                    // Pembacaan setelah interval refresh masih mendapat nilai lama, nilai baru menyusul
+                    .until(() -> "1-v2".equals(users.get(1L).get()));
+        } finally {
+            config.shutdownRefreshExecutor();
+        }
+    }
+
+    @Test
+    void cacheManager_withRefreshSpecButNoLoader_shouldBehaveAsPlainCache() {
+        CacheConfig config = new CacheConfig();
+        setField(config, "cacheNames", "users");
+        setField(config, "cacheExpiryMs", 60000L);
+        setField(config, "cacheExpiryUnit", "minutes");
+        setField(config, "cacheExpiryMin", 1L);
+        setField(config, "cacheMaxSize", 1000);
+        setField(config, "jwtTokenExpiration", 12345L);
+        setField(config, "cacheSpecs", Map.of("users", "maximumSize=100,refreshAfterWrite=5m"));
+
+        Cache users = config.cacheManager().getCache("users");
+        assertThat(users.get(1L)).isNull();
+        users.put(1L, "alice");
+        assertThat(users.get(1L).get()).isEqualTo("alice");
+        config.shutdownRefreshExecutor();
+    }
 }
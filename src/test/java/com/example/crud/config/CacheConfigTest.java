@@ -1,16 +1,31 @@
 package com.example.crud.config;
 
+import com.example.crud.common.exception.ResourceNotFoundException;
+import com.example.crud.feature.role.dto.RoleRequestDto;
+import com.example.crud.feature.role.dto.RoleResponseDto;
 import com.example.crud.feature.role.model.Role;
 import com.example.crud.feature.role.repository.RoleRepository;
 import com.example.crud.feature.role.service.RoleService;
+import com.example.crud.feature.user.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -26,6 +41,9 @@ class CacheConfigTest {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     void findById_shouldCacheRole() {
         // Given
@@ -47,4 +65,88 @@ class CacheConfigTest {
         // Verify that the repository method was only called once
         verify(roleRepository, times(1)).findById(roleId);
     }
+
+    @Test
+    void updateRole_shouldEvictUserDetailsCache() {
+        Role role = new Role("ADMIN", "Administrator");
+        role.setId(1L);
+        when(roleRepository.findById(1L)).thenReturn(Optional.of(role));
+        Cache userDetailsCache = cacheManager.getCache("userDetails");
+        userDetailsCache.put("admin@email.com", new User("admin@email.com", "secret"));
+
+        roleService.updateRole(1L, new RoleRequestDto("SUPER_ADMIN", "Super Administrator"));
+
+        assertThat(userDetailsCache.get("admin@email.com")).isNull();
+    }
+
+    @Test
+    void cacheStatistics_shouldBeBoundToMicrometerPerCache() {
+        Role role = new Role("ADMIN", "Administrator");
+        role.setId(2L);
+        when(roleRepository.findById(2L)).thenReturn(Optional.of(role));
+
+        roleService.getRoleById(2L);
+        roleService.getRoleById(2L);
+
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "roles").tag("result", "hit").functionCounter())
+                .isNotNull()
+                .satisfies(counter -> assertThat(counter.count()).isGreaterThanOrEqualTo(1));
+        assertThat(meterRegistry.find("cache.evictions").tag("cache", "users").functionCounter()).isNotNull();
+    }
+
+    @Test
+    void concurrentCacheMisses_shouldQueryRepositoryOnce() throws Exception {
+        Role role = new Role("ADMIN", "Administrator");
+        role.setId(3L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(roleRepository.findById(3L)).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(role);
+        });
+        double coalescedBefore = coalescedRoles();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<RoleResponseDto>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> roleService.getRoleById(3L)));
+            }
+            verify(roleRepository, timeout(5000)).findById(3L);
+            // Beri waktu pemanggil lain sampai menunggu loader yang sedang berjalan
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<RoleResponseDto> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).name()).isEqualTo("ADMIN");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(roleRepository, times(1)).findById(3L);
+        assertThat(coalescedRoles() - coalescedBefore).isEqualTo(3);
+    }
+
+    private double coalescedRoles() {
+        return meterRegistry.get("cache.coalesced").tag("cache", "roles").functionCounter().count();
+    }
+
+    @Test
+    void missingRole_shouldBeNegativelyCachedUntilRoleIsCreated() {
+        when(roleRepository.findById(404L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> roleService.getRoleById(404L)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> roleService.getRoleById(404L)).isInstanceOf(ResourceNotFoundException.class);
+        verify(roleRepository, times(1)).findById(404L);
+        assertThat(meterRegistry.get("resource.not_found").tags("resource", "role", "source", "cache").counter()
+                .count()).isGreaterThanOrEqualTo(1);
+
+        Role created = new Role("AUDITOR", "Auditor");
+        created.setId(404L);
+        when(roleRepository.save(any(Role.class))).thenReturn(created);
+        roleService.createRole(new RoleRequestDto("AUDITOR", "Auditor"));
+        when(roleRepository.findById(404L)).thenReturn(Optional.of(created));
+
+        assertThat(roleService.getRoleById(404L).name()).isEqualTo("AUDITOR");
+    }
 }
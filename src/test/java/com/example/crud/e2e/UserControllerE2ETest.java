@@ -97,7 +97,7 @@ class UserControllerE2ETest {
         RestAssured.given()
                 .header("Authorization", "Bearer " + accessToken)
                 .get("/api/users/9999999")
-                .then().statusCode(200);
+                .then().statusCode(404);
     }
 
     @Test
@@ -11,12 +11,17 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 
+import static com.example.crud.feature.user.UserConstants.USER_DETAILS_CACHE;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
@@ -39,6 +44,9 @@ class AuthControllerIntegrationTest {
         @Autowired
         private JdbcTemplate jdbcTemplate;
 
+        @Autowired
+        private CacheManager cacheManager;
+
         @BeforeEach
         void setUpUser() throws Exception {
                 // Log metadata kolom tabel users
@@ -59,6 +67,8 @@ class AuthControllerIntegrationTest {
                 String bcrypt = new BCryptPasswordEncoder().encode("s3cr3t");
                 jdbcTemplate.update("INSERT INTO users (id, username, password, role_id) VALUES (?, ?, ?, ?)", 100L,
                                 "admin@email.com", bcrypt, roleId);
+                // Baris user diganti langsung lewat JDBC, principal yang ter-cache dari test lain dibuang
+                cacheManager.getCache(USER_DETAILS_CACHE).clear();
         }
 
         @Test
@@ -112,4 +122,64 @@ class AuthControllerIntegrationTest {
                                 .content(objectMapper.writeValueAsString(logoutRequest)))
                                 .andExpect(status().is4xxClientError());
         }
+
+        @Test
+        void login_withLegacyHash_shouldRehashWithEncoderPrefix() throws Exception {
+                AuthRequest loginRequest = new AuthRequest();
+                loginRequest.setUsername("admin@email.com");
+                loginRequest.setPassword("s3cr3t");
+                String body = objectMapper.writeValueAsString(loginRequest);
+
+                mockMvc.perform(post("/api/auth/login")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                                .andExpect(status().isOk());
+
+                // Hash dari setUp tanpa prefix id, setelah login berhasil di-upgrade ke {bcrypt}
+                String stored = jdbcTemplate.queryForObject("SELECT password FROM users WHERE username = ?",
+                                String.class, "admin@email.com");
+                assertThat(stored).startsWith("{bcrypt}");
+
+                mockMvc.perform(post("/api/auth/login")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                                .andExpect(status().isOk());
+        }
+
+        @Test
+        void repeatedFailedLogins_shouldBeRateLimitedPerUsername() throws Exception {
+                AuthRequest loginRequest = new AuthRequest();
+                loginRequest.setUsername("brute@email.com");
+                loginRequest.setPassword("wrong");
+                String body = objectMapper.writeValueAsString(loginRequest);
+
+                // Burst default per username = 5
+                for (int i = 0; i < 5; i++) {
+                        mockMvc.perform(post("/api/auth/login")
+                                        .with(csrf())
+                                        .with(remoteAddr("10.20.30.40"))
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(body))
+                                        .andExpect(result -> assertThat(result.getResponse().getStatus())
+                                                        .isNotEqualTo(429));
+                }
+
+                // IP lain tetap dibatasi karena username yang sama
+                mockMvc.perform(post("/api/auth/login")
+                                .with(csrf())
+                                .with(remoteAddr("10.20.30.41"))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                                .andExpect(status().isTooManyRequests())
+                                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        }
+
+        private static RequestPostProcessor remoteAddr(String address) {
+                return request -> {
+                        request.setRemoteAddr(address);
+                        return request;
+                };
+        }
 }
@@ -4,6 +4,9 @@ package com.example.crud.feature.auth.filter;
 import org.junit.jupiter.api.AfterEach;
 
 import com.example.crud.feature.auth.service.JwtService;
+import com.example.crud.feature.auth.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -19,9 +22,11 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -39,7 +44,7 @@ class JwtAuthenticationFilterTest {
                 userDetails.getAuthorities());
         SecurityContextHolder.getContext().setAuthentication(existingAuth);
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.getUsernameFromToken(token)).thenReturn(username);
+        when(jwtService.parseToken(token)).thenReturn(claimsFor(username));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -71,7 +76,7 @@ class JwtAuthenticationFilterTest {
         String token = "validToken";
         String username = "user";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.getUsernameFromToken(token)).thenReturn(username);
+        when(jwtService.parseToken(token)).thenReturn(claimsFor(username));
         when(userDetailsService.loadUserByUsername(username)).thenReturn(null);
 
         // When
@@ -93,6 +98,9 @@ class JwtAuthenticationFilterTest {
     @Mock
     private UserDetailsService userDetailsService;
 
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     @InjectMocks
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -113,7 +121,7 @@ class JwtAuthenticationFilterTest {
         UserDetails userDetails = new User(username, "password", new ArrayList<>());
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.getUsernameFromToken(token)).thenReturn(username);
+        when(jwtService.parseToken(token)).thenReturn(claimsFor(username));
         when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
 
         // When
@@ -123,6 +131,8 @@ class JwtAuthenticationFilterTest {
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
         assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo(username);
         verify(filterChain).doFilter(request, response);
+        // Mode stateful memuat ulang user dari database, deny-list tidak dicek
+        verifyNoInteractions(tokenRevocationService);
     }
 
     @Test
@@ -130,7 +140,7 @@ class JwtAuthenticationFilterTest {
         // Given
         String token = "invalidToken";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.getUsernameFromToken(token)).thenThrow(new JwtException("Invalid token"));
+        when(jwtService.parseToken(token)).thenThrow(new JwtException("Invalid token"));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -160,7 +170,7 @@ class JwtAuthenticationFilterTest {
         String token = "validToken";
         String username = "unknownUser";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.getUsernameFromToken(token)).thenReturn(username);
+        when(jwtService.parseToken(token)).thenReturn(claimsFor(username));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -171,4 +181,48 @@ class JwtAuthenticationFilterTest {
         assertThat(authentication == null || authentication.getPrincipal() == null).isTrue();
         verify(filterChain).doFilter(request, response);
     }
+
+    @Test
+    void doFilterInternal_inStatelessMode_shouldNotAuthenticate_whenTokenIsRevoked() throws ServletException, IOException {
+        // Given
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "statelessMode", true);
+        String token = "revokedToken";
+        Claims claims = claimsFor("user");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtService.parseToken(token)).thenReturn(claims);
+        when(tokenRevocationService.isRevoked(claims)).thenReturn(true);
+
+        // When
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verifyNoInteractions(userDetailsService);
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_inStatelessMode_shouldBuildAuthenticationFromClaims() throws ServletException, IOException {
+        // Given
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "statelessMode", true);
+        String token = "validToken";
+        Claims claims = claimsFor("admin@email.com");
+        claims.put(JwtService.ROLES_CLAIM, List.of("ROLE_ADMIN"));
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtService.parseToken(token)).thenReturn(claims);
+
+        // When
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Then: tidak ada akses ke UserDetailsService (database)
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getName()).isEqualTo("admin@email.com");
+        assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
+        verifyNoInteractions(userDetailsService);
+        verify(filterChain).doFilter(request, response);
+    }
+
+    private static Claims claimsFor(String username) {
+        return Jwts.claims().setSubject(username);
+    }
 }
@@ -23,6 +23,10 @@ import java.util.List;
 
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import java.util.Date;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +44,12 @@ class AuthenticationServiceTest {
     @Mock
     private Cache cache;
 
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     @InjectMocks
     private AuthenticationService authenticationService;
 
@@ -88,7 +98,9 @@ class AuthenticationServiceTest {
         when(jwtService.getCacheManager()).thenReturn(cacheManager);
         when(cacheManager.getCache("tokens")).thenReturn(cache);
         when(cache.get("validToken", String.class)).thenReturn("user");
-        when(jwtService.generateToken("user")).thenReturn("newAccessToken");
+        when(userDetailsService.loadUserByUsername("user"))
+                .thenReturn(new User("user", "password", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+        when(jwtService.generateToken("user", List.of("ROLE_ADMIN"))).thenReturn("newAccessToken");
         when(jwtService.generateRefreshToken("user")).thenReturn("newRefreshToken");
 
         RefreshResponse response = authenticationService.refresh("validToken");
@@ -132,4 +144,16 @@ class AuthenticationServiceTest {
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(jwtService).generateToken(eq("user"), anyList());
     }
+
+    @Test
+    void logout_withAccessToken_shouldRevokeItsJti() {
+        Date expiration = new Date((System.currentTimeMillis() / 1000 + 60) * 1000);
+        Claims claims = Jwts.claims().setId("jti-1").setExpiration(expiration);
+        when(jwtService.parseToken("accessToken")).thenReturn(claims);
+
+        authenticationService.logout("someToken", "accessToken");
+
+        verify(jwtService).removeRefreshToken("someToken");
+        verify(tokenRevocationService).revokeToken("jti-1", expiration);
+    }
 }
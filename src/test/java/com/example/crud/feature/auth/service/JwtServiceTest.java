@@ -6,10 +6,13 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 import java.lang.reflect.Field;
@@ -165,4 +168,82 @@ class JwtServiceTest {
         List<String> rolesClaim = (List<String>) claims.get("roles", List.class);
         assertThat(rolesClaim).containsExactly("ROLE_ADMIN", "ROLE_USER");
     }
+
+    @Test
+    void parseToken_shouldReturnCachedClaimsForSameToken() throws Exception {
+        JwtService service = newSignedService("mySecretKey1234567890");
+        String token = service.generateToken("testuser", List.of("ROLE_USER"));
+
+        Claims first = service.parseToken(token);
+        Claims second = service.parseToken(token);
+
+        assertThat(first.getSubject()).isEqualTo("testuser");
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void parseToken_withCacheDisabled_shouldVerifyEveryTime() throws Exception {
+        JwtService service = newSignedService("mySecretKey1234567890");
+        service.setVerifiedCacheMaxSize(0);
+        String token = service.generateToken("testuser");
+
+        Claims first = service.parseToken(token);
+        Claims second = service.parseToken(token);
+
+        assertThat(second.getSubject()).isEqualTo("testuser");
+        assertThat(second).isNotSameAs(first);
+    }
+
+    @Test
+    void parseToken_shouldRejectTamperedTokenEvenAfterOriginalIsCached() throws Exception {
+        JwtService service = newSignedService("mySecretKey1234567890");
+        String token = service.generateToken("testuser");
+        service.parseToken(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> service.parseToken(tampered)).isInstanceOf(JwtException.class);
+        // Token invalid tidak boleh masuk cache
+        assertThatThrownBy(() -> service.parseToken(tampered)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void parseToken_shouldRejectTokenSignedWithAnotherSecret() throws Exception {
+        JwtService issuer = newSignedService("anotherSecretKey0987654321");
+        JwtService service = newSignedService("mySecretKey1234567890");
+        String token = issuer.generateToken("testuser");
+
+        assertThatThrownBy(() -> service.parseToken(token)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void parseToken_shouldExposeHitRateAndVerificationTime() throws Exception {
+        JwtService service = newSignedService("mySecretKey1234567890");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service.setMeterRegistry(registry);
+        service.bindCacheMetrics();
+        String token = service.generateToken("testuser");
+
+        service.parseToken(token);
+        service.parseToken(token);
+        service.parseToken(token);
+
+        assertThat(registry.get("cache.gets").tag("cache", "jwtVerifiedTokens").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2.0);
+        assertThat(registry.get("cache.gets").tag("cache", "jwtVerifiedTokens").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("jwt.verification").tag("outcome", "valid").timer().count()).isEqualTo(1);
+        assertThat(registry.get("jwt.verification").tag("outcome", "invalid").timer().count()).isZero();
+    }
+
+    private JwtService newSignedService(String secret) throws Exception {
+        JwtService service = new JwtService(mock(CacheManager.class));
+        Field secretField = JwtService.class.getDeclaredField("jwtSecret");
+        secretField.setAccessible(true);
+        secretField.set(service, secret);
+        Field expField = JwtService.class.getDeclaredField("jwtExpirationMs");
+        expField.setAccessible(true);
+        expField.set(service, 3600000L);
+        return service;
+    }
 }
@@ -0,0 +1,163 @@
+package com.example.crud.feature.auth.service;
+
+import com.example.crud.common.cache.CacheInvalidation;
+import com.example.crud.common.cache.CacheInvalidationBus;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationServiceTest {
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new TokenRevocationService(3_600_000L, 1_000L, true);
+    }
+
+    @Test
+    void isRevoked_shouldReturnFalse_forUnknownToken() {
+        assertThat(revocationService.isRevoked(claims("jti-1", "user", secondsAgo(5), "ROLE_USER"))).isFalse();
+    }
+
+    @Test
+    void revokeToken_shouldRejectOnlyThatJti() {
+        revocationService.revokeToken("jti-1", new Date(System.currentTimeMillis() + 60_000));
+
+        assertThat(revocationService.isRevoked(claims("jti-1", "user", secondsAgo(5), "ROLE_USER"))).isTrue();
+        assertThat(revocationService.isRevoked(claims("jti-2", "user", secondsAgo(5), "ROLE_USER"))).isFalse();
+    }
+
+    @Test
+    void revokeToken_withPastExpiration_shouldNotKeepEntry() {
+        revocationService.revokeToken("jti-1", new Date(System.currentTimeMillis() - 1_000));
+
+        assertThat(revocationService.isRevoked(claims("jti-1", "user", secondsAgo(5), "ROLE_USER"))).isFalse();
+    }
+
+    @Test
+    void revokeUser_shouldRejectTokensIssuedBeforeWatermark() {
+        revocationService.revokeUser("user");
+
+        assertThat(revocationService.isRevoked(claims("jti-1", "user", secondsAgo(5), "ROLE_USER"))).isTrue();
+        assertThat(revocationService.isRevoked(claims("jti-2", "other", secondsAgo(5), "ROLE_USER"))).isFalse();
+        // Token yang diterbitkan setelah watermark tetap berlaku
+        assertThat(revocationService.isRevoked(claims("jti-3", "user", secondsAgo(-5), "ROLE_USER"))).isFalse();
+    }
+
+    @Test
+    void revokeRole_shouldRejectTokensCarryingThatRole() {
+        revocationService.revokeRole("ADMIN");
+
+        assertThat(revocationService.isRevoked(claims("jti-1", "admin", secondsAgo(5), "ROLE_ADMIN"))).isTrue();
+        assertThat(revocationService.isRevoked(claims("jti-2", "user", secondsAgo(5), "ROLE_USER"))).isFalse();
+    }
+
+    @Test
+    void isRevoked_withoutIssuedAt_shouldOnlyCheckJti() {
+        revocationService.revokeUser("user");
+        Claims claims = Jwts.claims().setSubject("user").setId("jti-1");
+
+        assertThat(revocationService.isRevoked(claims)).isFalse();
+    }
+
+    @Test
+    void revokeUser_shouldAcceptTokenIssuedLaterInTheSameSecond() throws InterruptedException {
+        revocationService.revokeUser("user");
+        Thread.sleep(2);
+
+        // Re-login sesaat setelah update: iat detiknya sama, tetapi iat_ms sesudah watermark
+        Claims claims = claims("jti-1", "user", new Date(System.currentTimeMillis() / 1000 * 1000), "ROLE_USER");
+        claims.put(JwtService.ISSUED_AT_MILLIS_CLAIM, System.currentTimeMillis());
+
+        assertThat(revocationService.isRevoked(claims)).isFalse();
+    }
+
+    @Test
+    void revokeUser_insideTransaction_shouldOnlyApplyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            revocationService.revokeUser("user");
+            assertThat(revocationService.isRevoked(claims("jti-1", "user", secondsAgo(5), "ROLE_USER"))).isFalse();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(revocationService.isRevoked(claims("jti-1", "user", secondsAgo(5), "ROLE_USER"))).isTrue();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void revokeUser_insideRolledBackTransaction_shouldNotRevoke() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            revocationService.revokeUser("user");
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync ->
+                    sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(revocationService.isRevoked(claims("jti-1", "user", secondsAgo(5), "ROLE_USER"))).isFalse();
+    }
+
+    @Test
+    void statefulMode_shouldIgnoreRevocations() {
+        TokenRevocationService stateful = new TokenRevocationService(3_600_000L, 1_000L, false);
+        stateful.revokeUser("user");
+        stateful.revokeToken("jti-1", new Date(System.currentTimeMillis() + 60_000));
+
+        assertThat(stateful.isEnabled()).isFalse();
+        assertThat(stateful.isRevoked(claims("jti-1", "user", secondsAgo(5), "ROLE_USER"))).isFalse();
+    }
+
+    @Test
+    void revocations_shouldPropagateToOtherNodesThroughBus() {
+        InMemoryBus bus = new InMemoryBus();
+        TokenRevocationService otherNode = new TokenRevocationService(3_600_000L, 1_000L, true);
+        revocationService.setInvalidationBus(bus);
+        otherNode.setInvalidationBus(bus);
+
+        revocationService.revokeRole("ADMIN");
+        revocationService.revokeToken("jti-2", new Date(System.currentTimeMillis() + 60_000));
+        bus.published.forEach(invalidation -> bus.subscribers.forEach(subscriber -> subscriber.accept(invalidation)));
+
+        assertThat(otherNode.isRevoked(claims("jti-1", "admin", secondsAgo(5), "ROLE_ADMIN"))).isTrue();
+        assertThat(otherNode.isRevoked(claims("jti-2", "user", secondsAgo(5), "ROLE_USER"))).isTrue();
+    }
+
+    private static final class InMemoryBus implements CacheInvalidationBus {
+        private final List<CacheInvalidation> published = new ArrayList<>();
+        private final List<Consumer<CacheInvalidation>> subscribers = new ArrayList<>();
+
+        @Override
+        public void publish(CacheInvalidation invalidation) {
+            published.add(invalidation);
+        }
+
+        @Override
+        public void subscribe(Consumer<CacheInvalidation> onInvalidation, Runnable onMessagesLost) {
+            subscribers.add(onInvalidation);
+        }
+    }
+
+    private static Date secondsAgo(long seconds) {
+        return new Date(System.currentTimeMillis() - seconds * 1000);
+    }
+
+    private static Claims claims(String jti, String username, Date issuedAt, String role) {
+        Claims claims = Jwts.claims().setId(jti).setSubject(username).setIssuedAt(issuedAt);
+        claims.put(JwtService.ROLES_CLAIM, List.of(role));
+        return claims;
+    }
+}
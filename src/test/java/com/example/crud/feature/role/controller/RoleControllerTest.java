@@ -1,6 +1,8 @@
 package com.example.crud.feature.role.controller;
 
 import com.example.crud.common.exception.ResourceNotFoundException;
+import com.example.crud.common.repository.CountStrategy;
+import com.example.crud.common.repository.CursorPage;
 import com.example.crud.feature.role.dto.RoleFilterDto;
 import com.example.crud.feature.role.dto.RoleRequestDto;
 import com.example.crud.feature.role.dto.RoleResponseDto;
@@ -15,21 +17,27 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -142,4 +150,66 @@ class RoleControllerTest {
         mockMvc.perform(delete("/api/roles/99").with(csrf()))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllRolesByCursor_shouldReturnCursorPage() throws Exception {
+        when(roleService.getAllRolesByCursor(any(Pageable.class), any(RoleFilterDto.class), eq("")))
+                .thenReturn(new CursorPage<>(List.of(roleResponseDto), 20, false, null));
+
+        mockMvc.perform(get("/api/roles?cursor="))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+    }
+
+    @Test
+    void getAllRoles_withCountCached_shouldUseCountStrategy() throws Exception {
+        when(roleService.getAllRoles(any(Pageable.class), any(RoleFilterDto.class), eq(CountStrategy.CACHED)))
+                .thenReturn(new PageImpl<>(List.of(roleResponseDto)));
+
+        mockMvc.perform(get("/api/roles?count=CACHED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.page.totalElements", is(1)));
+    }
+
+    @Test
+    void createRoles_shouldReturnCreatedRoles() throws Exception {
+        when(roleService.createRoles(anyList())).thenReturn(List.of(roleResponseDto));
+
+        mockMvc.perform(post("/api/roles/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(roleRequestDto))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("ADMIN")));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void createRoles_withNonAdminRole_shouldReturnForbidden() throws Exception {
+        mockMvc.perform(post("/api/roles/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(roleRequestDto))))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void exportRoles_asCsv_shouldStreamRowsFromService() throws Exception {
+        when(roleService.exportRoles(any(RoleFilterDto.class), any(Sort.class), any())).thenAnswer(invocation -> {
+            Consumer<RoleResponseDto> sink = invocation.getArgument(2);
+            sink.accept(new RoleResponseDto(1L, "ADMIN", "Administrator, full access"));
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/roles/export?format=CSV&name=ADM"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id,name,description\r\n1,ADMIN,\"Administrator, full access\"\r\n"));
+    }
+}
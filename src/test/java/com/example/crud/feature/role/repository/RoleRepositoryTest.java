@@ -1,5 +1,6 @@
 package com.example.crud.feature.role.repository;
 
+import com.example.crud.common.repository.CursorPage;
 import com.example.crud.feature.role.model.Role;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -131,4 +132,25 @@ class RoleRepositoryTest {
         assertThat(deletedRows).isEqualTo(1);
         assertThat(deletedRole).isNotPresent();
     }
+
+    @Test
+    void findAllByCursor_sortedByName_shouldReturnNextPageAfterCursor() {
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("name").ascending());
+
+        CursorPage<Role> first = roleRepository.findAllByCursor(pageable, Map.of(), null);
+        CursorPage<Role> second = roleRepository.findAllByCursor(pageable, Map.of(), first.nextCursor());
+
+        assertThat(first.content()).extracting(Role::getName).containsExactly("LEADER", "MANAGER");
+        assertThat(second.content()).extracting(Role::getName).containsExactly("SUPPORT");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void findAllByCursor_sortedByNullableDescription_shouldFallbackToId() {
+        Pageable pageable = PageRequest.of(0, 3, Sort.by("description").ascending());
+
+        CursorPage<Role> page = roleRepository.findAllByCursor(pageable, Map.of(), null);
+
+        assertThat(page.content()).extracting(Role::getName).containsExactly("SUPPORT", "MANAGER", "LEADER");
+    }
 }
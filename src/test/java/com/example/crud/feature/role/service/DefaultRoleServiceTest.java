@@ -1,6 +1,8 @@
 package com.example.crud.feature.role.service;
 
 import com.example.crud.common.exception.ResourceNotFoundException;
+import com.example.crud.common.repository.SearchMode;
+import com.example.crud.feature.auth.service.TokenRevocationService;
 import com.example.crud.feature.role.dto.RoleFilterDto;
 import com.example.crud.feature.role.dto.RoleMapper;
 import com.example.crud.feature.role.dto.RoleRequestDto;
@@ -34,6 +36,9 @@ class DefaultRoleServiceTest {
     @Mock
     private RoleMapper roleMapper;
 
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     private RoleService roleService;
     private Role role;
     private RoleResponseDto responseDto;
@@ -43,7 +48,7 @@ class DefaultRoleServiceTest {
 
     @BeforeEach
     void setUp() {
-        roleService = new DefaultRoleService(roleRepository, roleMapper);
+        roleService = new DefaultRoleService(roleRepository, roleMapper, tokenRevocationService);
         role = new Role("ADMIN", "Admin role");
         role.setId(1L);
         responseDto = new RoleResponseDto(1L, "ADMIN", "Admin role");
@@ -75,6 +80,24 @@ class DefaultRoleServiceTest {
             .containsEntry("name", "%admin%");
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    void getAllRoles_withStartsWithSearchMode_shouldBuildPrefixPattern() {
+        // Arrange
+        RoleFilterDto filterDto = new RoleFilterDto();
+        filterDto.setName("adm");
+        filterDto.setSearchMode(SearchMode.STARTS_WITH);
+        when(roleRepository.findAll(any(), any(Map.class))).thenReturn(new PageImpl<>(List.of(role)));
+        when(roleMapper.toDto(any(Role.class))).thenReturn(responseDto);
+
+        // Act
+        roleService.getAllRoles(PageRequest.of(0, 1), filterDto);
+
+        // Assert
+        verify(roleRepository).findAll(any(), mapCaptor.capture());
+        assertThat(mapCaptor.getValue()).containsEntry("name", "adm%");
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     void getAllRoles_withNoFilter_shouldCallRepositoryWithEmptyMap() {
@@ -151,6 +174,7 @@ class DefaultRoleServiceTest {
         ArgumentCaptor<Role> roleCaptor = ArgumentCaptor.forClass(Role.class);
         verify(roleRepository).update(roleCaptor.capture());
         assertThat(roleCaptor.getValue().getName()).isEqualTo("Updated Name");
+        verify(tokenRevocationService).revokeRole("ADMIN");
     }
 
     @Test
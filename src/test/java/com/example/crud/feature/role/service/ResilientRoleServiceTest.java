@@ -1,5 +1,6 @@
 package com.example.crud.feature.role.service;
 
+import com.example.crud.common.exception.ResourceNotFoundException;
 import com.example.crud.feature.role.dto.RoleResponseDto;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
@@ -9,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -132,4 +134,18 @@ class ResilientRoleServiceTest {
         // Verify that the delegate was NOT called again because the circuit was open
         verify(defaultRoleService, times(10)).getRoleById(anyLong());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getRoleById_whenNotFound_shouldRethrowWithoutOpeningCircuit() {
+        when(defaultRoleService.getRoleById(anyLong()))
+                .thenThrow(new ResourceNotFoundException("Role not found with id: 99"));
+
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> resilientRoleService.getRoleById(99L))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isZero();
+    }
+}
@@ -1,10 +1,17 @@
 package com.example.crud.feature.user.controller;
 
+import com.example.crud.common.exception.InvalidCursorException;
 import com.example.crud.common.exception.ResourceNotFoundException;
+import com.example.crud.common.repository.CountStrategy;
+import com.example.crud.common.repository.CursorPage;
 import com.example.crud.feature.role.dto.RoleResponseDto;
+import com.example.crud.common.export.ExportFormat;
 import com.example.crud.feature.user.dto.UserFilterDto;
+import com.example.crud.feature.user.dto.UserImportRejectDto;
+import com.example.crud.feature.user.dto.UserImportResultDto;
 import com.example.crud.feature.user.dto.UserRequestDto;
 import com.example.crud.feature.user.dto.UserResponseDto;
+import com.example.crud.feature.user.service.UserImportService;
 import com.example.crud.feature.user.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,20 +22,32 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -110,6 +129,10 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @SuppressWarnings("removal")
+    @MockBean
+    private UserImportService userImportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -215,4 +238,142 @@ class UserControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message", is("User not found with id: 99")));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllUsersByCursor_shouldReturnCursorPage() throws Exception {
+        when(userService.getAllUsersByCursor(any(Pageable.class), any(UserFilterDto.class), eq("abc")))
+                .thenReturn(new CursorPage<>(List.of(userResponseDto), 1, true, "next"));
+
+        mockMvc.perform(get("/api/users?cursor=abc&size=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+    }
+
+    @Test
+    void exportUsers_shouldStreamNdjsonByDefault() throws Exception {
+        when(userService.exportUsers(any(UserFilterDto.class), any(Sort.class), any())).thenAnswer(invocation -> {
+            Consumer<UserResponseDto> sink = invocation.getArgument(2);
+            sink.accept(userResponseDto);
+            sink.accept(updatedUserResponseDto);
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/users/export?username=admin"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\""))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body.lines().toList()).hasSize(2)
+                .allSatisfy(line -> assertThat(objectMapper.readTree(line).has("username")).isTrue())
+                .allSatisfy(line -> assertThat(objectMapper.readTree(line).has("password")).isFalse());
+    }
+
+    @Test
+    void exportUsers_asCsv_shouldWriteHeaderAndRows() throws Exception {
+        when(userService.exportUsers(any(UserFilterDto.class), any(Sort.class), any())).thenAnswer(invocation -> {
+            Consumer<UserResponseDto> sink = invocation.getArgument(2);
+            sink.accept(userResponseDto);
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/users/export?format=CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id,username,role_id,role_name,role_description\r\n"
+                        + "1,admin@email.com,1,ADMIN,Administrator\r\n"));
+    }
+
+    @Test
+    void importUsers_withCsvBody_shouldReturnImportSummary() throws Exception {
+        when(userImportService.importUsers(any(InputStream.class), eq(ExportFormat.CSV)))
+                .thenReturn(new UserImportResultDto(2, 1, 1, 5, 400.0,
+                        List.of(new UserImportRejectDto(3, "dup@example.com", "Username already exists"))));
+
+        mockMvc.perform(post("/api/users/import").with(csrf())
+                        .contentType("text/csv")
+                        .content("username,password,role\nnew@example.com,secret1,USER\ndup@example.com,secret1,USER\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.rejects[0].line", is(3)))
+                .andExpect(jsonPath("$.rejects[0].reason", is("Username already exists")));
+    }
+
+    @Test
+    void importUsers_withUnsupportedContentType_shouldReturnUnsupportedMediaType() throws Exception {
+        mockMvc.perform(post("/api/users/import").with(csrf())
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<users/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void exportUsers_withNonAdminRole_shouldReturnForbidden() throws Exception {
+        mockMvc.perform(get("/api/users/export"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getAllUsersByCursor_withInvalidCursor_shouldReturnBadRequest() throws Exception {
+        when(userService.getAllUsersByCursor(any(Pageable.class), any(UserFilterDto.class), eq("bad")))
+                .thenThrow(new InvalidCursorException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/users?cursor=bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Invalid cursor")));
+    }
+
+    @Test
+    void getAllUsers_withCountNone_shouldReturnSliceWithHasNext() throws Exception {
+        when(userService.getAllUsers(any(Pageable.class), any(UserFilterDto.class), eq(CountStrategy.NONE)))
+                .thenReturn(new SliceImpl<>(List.of(userResponseDto), PageRequest.of(0, 1), true));
+
+        mockMvc.perform(get("/api/users?count=NONE&size=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void createUsers_shouldReturnCreatedUsers() throws Exception {
+        when(userService.createUsers(anyList())).thenReturn(List.of(userResponseDto, userResponseDto));
+
+        mockMvc.perform(post("/api/users/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(userRequestDto, userRequestDto))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void createUsers_withInvalidElement_shouldReturnBadRequest() throws Exception {
+        UserRequestDto invalid = new UserRequestDto("not-an-email", "123", null);
+
+        mockMvc.perform(post("/api/users/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(userRequestDto, invalid))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createUsers_withEmptyList_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/users/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+}
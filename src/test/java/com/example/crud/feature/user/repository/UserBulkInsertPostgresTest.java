@@ -0,0 +1,65 @@
+package com.example.crud.feature.user.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Jalur COPY ... FROM STDIN pada bulkInsert hanya ada di PostgreSQL. Dilewati tanpa Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class UserBulkInsertPostgresTest {
+
+    private static final int ROWS = 20_000;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static DriverManagerDataSource dataSource;
+
+    @BeforeAll
+    static void migrate() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/postgresql")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    void bulkInsert_shouldCopyRowsAndSkipDuplicates() {
+        UserRepository userRepository = new UserRepository(dataSource, JdbcClient.create(dataSource));
+        LocalDateTime auditTime = LocalDateTime.of(2026, 1, 2, 3, 4, 5);
+
+        // Baris terakhir menduplikasi user awal dari V4, baris kedua dari akhir menduplikasi baris 1
+        var staged = LongStream.rangeClosed(1, ROWS + 2).mapToObj(line -> new UserRepository.StagedUser(line,
+                line == ROWS + 2 ? "admin@email.com"
+                        : line == ROWS + 1 ? "copy-1@example.com" : "copy-" + line + "@example.com",
+                "pass,\"quoted\"", 2L));
+
+        UserRepository.BulkInsertResult result = userRepository.bulkInsert(staged, "importer", auditTime, 10);
+
+        assertThat(result.inserted()).isEqualTo(ROWS);
+        assertThat(result.reportedDuplicates()).containsExactly(
+                new UserRepository.DuplicateUser(ROWS + 1, "copy-1@example.com"),
+                new UserRepository.DuplicateUser(ROWS + 2, "admin@email.com"));
+        var user = userRepository.findByUsername("copy-42@example.com").orElseThrow();
+        assertThat(user.getPassword()).isEqualTo("pass,\"quoted\"");
+        assertThat(user.getCreatedBy()).isEqualTo("importer");
+        assertThat(user.getUpdatedAt()).isEqualTo(auditTime);
+        assertThat(new JdbcTemplate(dataSource).queryForObject("SELECT count(*) FROM users", Long.class))
+                .isEqualTo(ROWS + 2L);
+    }
+}
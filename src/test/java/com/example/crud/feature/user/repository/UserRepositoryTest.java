@@ -2,8 +2,13 @@ package com.example.crud.feature.user.repository;
 
 import javax.sql.DataSource;
 import com.example.crud.aop.AuditTrailAspect;
+import com.example.crud.common.exception.InvalidCursorException;
+import com.example.crud.common.repository.CountStrategy;
+import com.example.crud.common.repository.CursorPage;
+import com.example.crud.common.repository.KeysetCursor;
 import com.example.crud.feature.role.model.Role;
 import com.example.crud.feature.role.repository.RoleRepository;
+import com.example.crud.common.repository.SearchMode;
 import com.example.crud.feature.user.model.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +20,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.jdbc.Sql;
@@ -29,7 +35,13 @@ import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import org.springframework.data.domain.PageImpl;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.ArrayList;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @JdbcTest
 @Import(UserRepositoryTest.TestRepoConfiguration.class)
@@ -37,7 +49,11 @@ import java.util.List;
         "/db/migration/h2/V1__Create_users_table.sql",
         "/db/migration/h2/V2__Create_roles_table.sql",
         "/db/migration/h2/V3__Add_role_id_to_users_table.sql",
-        "/db/migration/h2/V4__add_password_and_initial_users.sql"
+        "/db/migration/h2/V4__add_password_and_initial_users.sql",
+        "/db/migration/h2/V5__Add_text_search_indexes.sql",
+        "/db/migration/h2/V6__Add_foreign_key_and_keyset_indexes.sql",
+        "/db/migration/h2/V7__Widen_password_column.sql",
+        "/db/migration/h2/V8__Create_user_import_staging_table.sql"
 })
 @WithMockUser("test-user")
 class UserRepositoryTest {    
@@ -115,6 +131,58 @@ class UserRepositoryTest {
         assertThat(result.getContent().get(0).getUsername()).isEqualTo("alice@example.com");
     }
 
+    @Test
+    void findAll_withStartsWithPattern_shouldMatchPrefixOnly() {
+        Pageable pageable = PageRequest.of(0, 5);
+
+        Page<User> prefix = userRepository.findAll(pageable,
+                Map.of("username", SearchMode.STARTS_WITH.toPattern("ali")));
+        Page<User> infix = userRepository.findAll(pageable,
+                Map.of("username", SearchMode.STARTS_WITH.toPattern("lice")));
+
+        assertThat(prefix.getContent()).extracting(User::getUsername).containsExactly("alice@example.com");
+        assertThat(infix.getContent()).isEmpty();
+    }
+
+    @Test
+    void findAll_withEscapedWildcardInTerm_shouldMatchLiterally() {
+        Pageable pageable = PageRequest.of(0, 5);
+
+        // Tanpa escape, '_' cocok dengan 'l' pada "alice"
+        Page<User> result = userRepository.findAll(pageable,
+                Map.of("username", SearchMode.CONTAINS.toPattern("a_i")));
+
+        assertThat(result.getContent()).isEmpty();
+    }
+
+    @Test
+    void findAll_withCaseInsensitiveSearch_shouldUseIlike() {
+        Pageable pageable = PageRequest.of(0, 5);
+        Map<String, Object> filter = Map.of("username", SearchMode.CONTAINS.toPattern("ALICE"));
+        try {
+            userRepository.setCaseInsensitiveSearch(true);
+
+            assertThat(userRepository.findAll(pageable, filter).getContent())
+                    .extracting(User::getUsername).containsExactly("alice@example.com");
+        } finally {
+            userRepository.setCaseInsensitiveSearch(false);
+        }
+    }
+
+    @Test
+    void findAll_withCaseInsensitivePrefixSearch_shouldMatchLowercased() {
+        Pageable pageable = PageRequest.of(0, 5);
+        Map<String, Object> filter = Map.of("username", SearchMode.STARTS_WITH.toPattern("ALICE@"));
+        try {
+            userRepository.setCaseInsensitiveSearch(true);
+
+            assertThat(userRepository.findAll(pageable, filter).getContent())
+                    .extracting(User::getUsername).containsExactly("alice@example.com");
+        } finally {
+            userRepository.setCaseInsensitiveSearch(false);
+        }
+    }
+
     @Test
     void findAll_withCustomKeyInFilter_shouldIncludeCustomKeyInResult() {
         Pageable pageable = PageRequest.of(0, 5);
@@ -159,6 +227,23 @@ class UserRepositoryTest {
         assertThat(savedUser.getRole().getId()).isEqualTo(savedRole.getId());
     }
 
+    @Test
+    void save_shouldHydrateReturnedRowWithAlreadyLoadedRole() {
+        User user = new User("returning@example.com", "secret");
+        user.setRole(savedRole);
+
+        User savedUser = userRepository.save(user);
+
+        // Role tidak di-select ulang, objek yang sama dipakai kembali
+        assertThat(savedUser.getRole()).isSameAs(savedRole);
+        assertThat(savedUser.getUsername()).isEqualTo("returning@example.com");
+        assertThat(savedUser.getPassword()).isEqualTo("secret");
+        assertThat(savedUser.getUpdatedBy()).isEqualTo("test-user");
+        User reloaded = userRepository.findById(savedUser.getId()).orElseThrow();
+        assertThat(reloaded.getRole().getName()).isEqualTo(savedRole.getName());
+        assertThat(reloaded.getCreatedAt()).isEqualTo(savedUser.getCreatedAt());
+    }
+
     @Test
     void findById_whenUserExists_shouldReturnUser() {
         // Data sudah di-save oleh setUp
@@ -313,7 +398,7 @@ class UserRepositoryTest {
         UserRepository repo = mock(UserRepository.class, CALLS_REAL_METHODS);
         User user = new User("mocknorole", "mockpass");
         // Tidak set role sama sekali
-        doReturn(new PageImpl<>(List.of(user))).when(repo).findAll(any(), any());
+        doReturn(Optional.of(user)).when(repo).findByUsername(any());
 
         // Act
         UserDetails details = repo.loadUserByUsername("mocknorole");
@@ -347,4 +432,292 @@ class UserRepositoryTest {
         Page<User> result = userRepository.findAll(pageable, filter);
         assertThat(result).isNotNull();
     }
+
+    @Test
+    void findAllByCursor_shouldWalkAllPagesWithoutDuplicates() {
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("username").ascending());
+
+        CursorPage<User> first = userRepository.findAllByCursor(pageable, Map.of(), null);
+        assertThat(first.content()).extracting(User::getUsername).containsExactly("Bob", "Charlie");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(first.nextCursor()).isNotBlank();
+
+        CursorPage<User> second = userRepository.findAllByCursor(pageable, Map.of(), first.nextCursor());
+        assertThat(second.content()).extracting(User::getUsername).containsExactly("alice@example.com");
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void findAllByCursor_withFilterAndDescendingId_shouldApplyBoth() {
+        Pageable pageable = PageRequest.of(0, 1, Sort.by("id").descending());
+        Map<String, Object> filter = Map.of("role", 2L);
+
+        CursorPage<User> first = userRepository.findAllByCursor(pageable, filter, "");
+        CursorPage<User> second = userRepository.findAllByCursor(pageable, filter, first.nextCursor());
+
+        assertThat(first.content()).hasSize(1);
+        assertThat(second.content()).hasSize(1);
+        assertThat(second.content().get(0).getId()).isLessThan(first.content().get(0).getId());
+        assertThat(second.content().get(0).getRole().getId()).isEqualTo(2L);
+    }
+
+    @Test
+    void streamAll_shouldStreamSortedRowsWithRoleToConsumer() {
+        List<User> streamed = new java.util.ArrayList<>();
+
+        long count = userRepository.streamAll(Map.of(), Sort.by("username"), streamed::add);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(streamed).extracting(User::getUsername).containsExactly("Bob", "Charlie", "alice@example.com");
+        assertThat(streamed).allSatisfy(user -> assertThat(user.getRole().getName()).isEqualTo(savedRole.getName()));
+    }
+
+    @Test
+    void streamAll_withFilterAndSmallFetchSize_shouldStreamMatchingRowsOnly() {
+        userRepository.setStreamFetchSize(1);
+        List<String> streamed = new java.util.ArrayList<>();
+        try {
+            long count = userRepository.streamAll(Map.of("username", SearchMode.CONTAINS.toPattern("example")),
+                    null, user -> streamed.add(user.getUsername()));
+
+            assertThat(count).isEqualTo(1);
+            assertThat(streamed).containsExactly("alice@example.com");
+        } finally {
+            userRepository.setStreamFetchSize(1000);
+        }
+    }
+
+    @Test
+    void bulkInsert_shouldInsertNewUsersWithAuditAndReportDuplicates() {
+        LocalDateTime auditTime = LocalDateTime.of(2026, 1, 2, 3, 4, 5);
+        Stream<UserRepository.StagedUser> staged = Stream.of(
+                new UserRepository.StagedUser(2, "dave@example.com", "secret1", savedRole.getId()),
+                new UserRepository.StagedUser(3, "Bob", "secret2", savedRole.getId()),
+                new UserRepository.StagedUser(4, "erin@example.com", "secret3", savedRole.getId()),
+                new UserRepository.StagedUser(5, "dave@example.com", "secret4", savedRole.getId()));
+
+        UserRepository.BulkInsertResult result = userRepository.bulkInsert(staged, "importer", auditTime, 10);
+
+        assertThat(result.inserted()).isEqualTo(2);
+        assertThat(result.duplicates()).isEqualTo(2);
+        assertThat(result.reportedDuplicates()).containsExactly(
+                new UserRepository.DuplicateUser(3, "Bob"),
+                new UserRepository.DuplicateUser(5, "dave@example.com"));
+        User dave = userRepository.findByUsername("dave@example.com").orElseThrow();
+        assertThat(dave.getPassword()).isEqualTo("secret1");
+        assertThat(dave.getRole().getId()).isEqualTo(savedRole.getId());
+        assertThat(dave.getCreatedBy()).isEqualTo("importer");
+        assertThat(dave.getCreatedAt()).isEqualTo(auditTime);
+        assertThat(dave.getUpdatedAt()).isEqualTo(auditTime);
+        assertThat(userRepository.findAll(PageRequest.of(0, 10), Map.of()).getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    void bulkInsert_calledTwiceInSameTransaction_shouldNotReuseStagedRows() {
+        LocalDateTime auditTime = LocalDateTime.now();
+        userRepository.bulkInsert(Stream.of(new UserRepository.StagedUser(2, "frank@example.com", "secret1",
+                savedRole.getId())), "importer", auditTime, 10);
+
+        UserRepository.BulkInsertResult second = userRepository.bulkInsert(Stream.of(
+                new UserRepository.StagedUser(2, "grace@example.com", "secret1", savedRole.getId())),
+                "importer", auditTime, 10);
+
+        assertThat(second.inserted()).isEqualTo(1);
+        assertThat(second.duplicates()).isZero();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void bulkInsert_shouldPullRowsOutsideTransactionAndClearStaging() {
+        List<Boolean> pulledInTransaction = new ArrayList<>();
+        userRepository.setBatchChunkSize(2);
+        try {
+            Stream<UserRepository.StagedUser> staged = Stream.of(
+                    new UserRepository.StagedUser(2, "henry@example.com", "secret1", savedRole.getId()),
+                    new UserRepository.StagedUser(3, "ivy@example.com", "secret1", savedRole.getId()),
+                    new UserRepository.StagedUser(4, "jack@example.com", "secret1", savedRole.getId()))
+                    .peek(user -> pulledInTransaction.add(TransactionSynchronizationManager.isActualTransactionActive()));
+
+            UserRepository.BulkInsertResult result = userRepository.bulkInsert(staged, "importer",
+                    LocalDateTime.now(), 10);
+
+            assertThat(result.inserted()).isEqualTo(3);
+            // Pekerjaan mahal di stream (hashing) tidak boleh menahan transaksi/koneksi
+            assertThat(pulledInTransaction).containsOnly(false).hasSize(3);
+            assertThat(stagedRowCount()).isZero();
+        } finally {
+            userRepository.setBatchChunkSize(500);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void bulkInsert_whenStreamFails_shouldDiscardStagedChunks() {
+        userRepository.setBatchChunkSize(1);
+        try {
+            Stream<UserRepository.StagedUser> staged = Stream.of(2L, 3L).map(line -> {
+                if (line == 3L) {
+                    throw new IllegalStateException("hash failed");
+                }
+                return new UserRepository.StagedUser(line, "kate@example.com", "secret1", savedRole.getId());
+            });
+
+            assertThatThrownBy(() -> userRepository.bulkInsert(staged, "importer", LocalDateTime.now(), 10))
+                    .isInstanceOf(IllegalStateException.class);
+            assertThat(stagedRowCount()).isZero();
+            assertThat(userRepository.findByUsername("kate@example.com")).isEmpty();
+        } finally {
+            userRepository.setBatchChunkSize(500);
+        }
+    }
+
+    private long stagedRowCount() {
+        return new org.springframework.jdbc.core.JdbcTemplate(dataSource)
+                .queryForObject("SELECT count(*) FROM user_import_staging", Long.class);
+    }
+
+    @Test
+    void findAllByCursor_withInvalidCursor_shouldThrow() {
+        Pageable pageable = PageRequest.of(0, 2);
+        assertThatThrownBy(() -> userRepository.findAllByCursor(pageable, Map.of(), "%%%"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void findAllByCursor_sortedByPassword_shouldNotExposeHashInCursor() {
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("password"));
+
+        CursorPage<User> first = userRepository.findAllByCursor(pageable, Map.of(), null);
+
+        KeysetCursor next = KeysetCursor.decode(first.nextCursor());
+        assertThat(next.property()).isEqualTo("id");
+        String passwordCursor = KeysetCursor.first("password", true).after("$2a$10$hash", 1L).encode();
+        assertThatThrownBy(() -> userRepository.findAllByCursor(pageable, Map.of(), passwordCursor))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void findAll_withCountStrategyNone_shouldReturnSliceWithoutTotal() {
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id"));
+
+        Slice<User> first = userRepository.findAll(pageable, Map.of(), CountStrategy.NONE);
+        Slice<User> second = userRepository.findAll(pageable.next(), Map.of(), CountStrategy.NONE);
+
+        assertThat(first).isNotInstanceOf(Page.class);
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).hasSize(1);
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void findAll_withCountStrategyEstimatedOnH2_shouldFallbackToExactCount() {
+        Slice<User> result = userRepository.findAll(PageRequest.of(0, 2), Map.of("role", 2L), CountStrategy.ESTIMATED);
+
+        assertThat(result).isInstanceOf(Page.class);
+        assertThat(((Page<User>) result).getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void findAll_withCountStrategyCached_shouldReuseCountUntilWrite() {
+        Pageable pageable = PageRequest.of(0, 1);
+        Page<User> before = (Page<User>) userRepository.findAll(pageable, Map.of(), CountStrategy.CACHED);
+        assertThat(before.getTotalElements()).isEqualTo(3);
+
+        // Insert langsung tanpa repository: count cache tidak tahu ada baris baru
+        new org.springframework.jdbc.core.JdbcTemplate(dataSource)
+                .update("INSERT INTO users (username, password, role_id) VALUES ('direct', 'pass', 2)");
+        Page<User> cached = (Page<User>) userRepository.findAll(pageable, Map.of(), CountStrategy.CACHED);
+        assertThat(cached.getTotalElements()).isEqualTo(3);
+
+        // Write lewat repository meng-invalidate cache
+        User user = new User("Dave", "dave@example.com");
+        user.setRole(savedRole);
+        userRepository.save(user);
+        Page<User> refreshed = (Page<User>) userRepository.findAll(pageable, Map.of(), CountStrategy.CACHED);
+        assertThat(refreshed.getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    void saveAll_shouldBatchInsertAcrossChunksAndAssignIds() {
+        userRepository.setBatchChunkSize(2);
+        List<User> users = new java.util.ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User user = new User("batch" + i + "@example.com", "secret" + i);
+            user.setRole(savedRole);
+            users.add(user);
+        }
+
+        List<User> saved = userRepository.saveAll(users);
+
+        assertThat(saved).hasSize(5).allSatisfy(user -> {
+            assertThat(user.getId()).isNotNull().isPositive();
+            assertThat(user.getCreatedBy()).isEqualTo("test-user");
+            assertThat(user.getCreatedAt()).isNotNull();
+        });
+        assertThat(saved).extracting(User::getId).doesNotHaveDuplicates();
+        User reloaded = userRepository.findById(saved.get(4).getId()).orElseThrow();
+        assertThat(reloaded.getUsername()).isEqualTo("batch4@example.com");
+        assertThat(reloaded.getRole().getId()).isEqualTo(savedRole.getId());
+        assertThat(reloaded.getCreatedBy()).isEqualTo("test-user");
+    }
+
+    @Test
+    void updateAll_shouldUpdateEveryEntityAndStampAudit() {
+        userRepository.setBatchChunkSize(1);
+        List<User> users = userRepository.findAll(PageRequest.of(0, 10), Map.of()).getContent();
+        users.forEach(user -> user.setPassword("changed"));
+
+        int updated = userRepository.updateAll(users);
+
+        assertThat(updated).isEqualTo(users.size());
+        assertThat(userRepository.findAll(PageRequest.of(0, 10), Map.of()).getContent())
+                .allSatisfy(user -> {
+                    assertThat(user.getPassword()).isEqualTo("changed");
+                    assertThat(user.getUpdatedBy()).isEqualTo("test-user");
+                });
+    }
+
+    @Test
+    void deleteAllById_shouldDeleteExistingIdsOnly() {
+        userRepository.setBatchChunkSize(1);
+        List<Long> ids = userRepository.findAll(PageRequest.of(0, 10), Map.of()).getContent().stream()
+                .map(User::getId).toList();
+        List<Long> toDelete = new java.util.ArrayList<>(ids);
+        toDelete.add(-1L);
+
+        int deleted = userRepository.deleteAllById(toDelete);
+
+        assertThat(deleted).isEqualTo(ids.size());
+        assertThat(userRepository.findAll(PageRequest.of(0, 10), Map.of()).getTotalElements()).isZero();
+    }
+
+    @Test
+    void findByUsername_shouldReturnUserWithRole() {
+        Optional<User> found = userRepository.findByUsername("alice@example.com");
+
+        assertThat(found).isPresent();
+        assertThat(found.get().getRole().getName()).isEqualTo(savedRole.getName());
+        assertThat(userRepository.findByUsername("alice")).isEmpty();
+    }
+
+    @Test
+    void loadUserByUsername_withCache_shouldReuseCachedUserAndBuildFreshDetails() {
+        UserRepository cachedRepository = new UserRepository(dataSource,
+                org.springframework.jdbc.core.simple.JdbcClient.create(dataSource));
+        cachedRepository.setCacheManager(new org.springframework.cache.concurrent.ConcurrentMapCacheManager(
+                com.example.crud.feature.user.UserConstants.USER_DETAILS_CACHE));
+
+        UserDetails first = cachedRepository.loadUserByUsername("alice@example.com");
+        new org.springframework.jdbc.core.JdbcTemplate(dataSource)
+                .update("DELETE FROM users WHERE username = ?", "alice@example.com");
+        UserDetails second = cachedRepository.loadUserByUsername("alice@example.com");
+
+        // Hit cache: user yang sudah dihapus masih terbaca sampai dievict
+        assertThat(second.getUsername()).isEqualTo("alice@example.com");
+        assertThat(second).isNotSameAs(first);
+        assertThatThrownBy(() -> cachedRepository.loadUserByUsername("missing@example.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
 }
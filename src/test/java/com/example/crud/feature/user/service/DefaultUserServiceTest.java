@@ -1,6 +1,11 @@
 package com.example.crud.feature.user.service;
 
+import com.example.crud.common.cache.NotFoundCache;
 import com.example.crud.common.exception.ResourceNotFoundException;
+import com.example.crud.common.repository.CountStrategy;
+import com.example.crud.common.repository.SearchMode;
+import com.example.crud.common.security.BoundedPasswordEncoder;
+import com.example.crud.feature.auth.service.TokenRevocationService;
 import com.example.crud.feature.role.model.Role;
 import com.example.crud.feature.role.repository.RoleRepository;
 import com.example.crud.feature.user.dto.UserFilterDto;
@@ -9,6 +14,7 @@ import com.example.crud.feature.user.dto.UserRequestDto;
 import com.example.crud.feature.user.dto.UserResponseDto;
 import com.example.crud.feature.user.model.User;
 import com.example.crud.feature.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,12 +22,22 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -32,6 +48,21 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class DefaultUserServiceTest {
 
+    /**
+     * Encoder deterministik untuk memastikan password di-hash sebelum disimpan.
+     */
+    private static final PasswordEncoder PASSWORD_ENCODER = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "{test}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    };
+
     @Mock
     private UserRepository userRepository;
 
@@ -41,6 +72,9 @@ class DefaultUserServiceTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     private UserService userService;
 
     // Objek data untuk testing
@@ -54,7 +88,8 @@ class DefaultUserServiceTest {
     @BeforeEach
     void setUp() {
         // Inisialisasi service dengan semua mock
-        userService = new DefaultUserService(userRepository, roleRepository, userMapper);
+        userService = new DefaultUserService(userRepository, roleRepository, userMapper, tokenRevocationService,
+                PASSWORD_ENCODER, TransactionOperations.withoutTransaction());
 
         // Siapkan data Role dan User
         role = new Role("ADMIN", "Administrator");
@@ -95,6 +130,47 @@ class DefaultUserServiceTest {
                 .containsEntry("username", "%admin@email.com%");
     }
 
+    @Test
+    void getAllUsers_withStartsWithSearchMode_shouldBuildEscapedPrefixPattern() {
+        // Arrange
+        UserFilterDto filterDto = new UserFilterDto();
+        filterDto.setUsername("admin_");
+        filterDto.setSearchMode(SearchMode.STARTS_WITH);
+        when(userRepository.findAll(any(), anyMap())).thenReturn(new PageImpl<>(List.of(user)));
+        when(userMapper.toDto(any(User.class))).thenReturn(userResponseDto);
+
+        // Act
+        userService.getAllUsers(PageRequest.of(0, 1), filterDto);
+
+        // Assert
+        verify(userRepository).findAll(any(), mapCaptor.capture());
+        assertThat(mapCaptor.getValue()).containsEntry("username", "admin\\_%");
+    }
+
+    @Test
+    void exportUsers_shouldStreamMappedDtosWithFilters() {
+        // Arrange
+        UserFilterDto filterDto = new UserFilterDto();
+        filterDto.setUsername("admin");
+        Sort sort = Sort.by("username");
+        when(userRepository.streamAll(anyMap(), eq(sort), any())).thenAnswer(invocation -> {
+            Consumer<User> action = invocation.getArgument(2);
+            action.accept(user);
+            return 1L;
+        });
+        when(userMapper.toDto(user)).thenReturn(userResponseDto);
+        List<UserResponseDto> exported = new ArrayList<>();
+
+        // Act
+        long count = userService.exportUsers(filterDto, sort, exported::add);
+
+        // Assert
+        assertThat(count).isEqualTo(1);
+        assertThat(exported).containsExactly(userResponseDto);
+        verify(userRepository).streamAll(mapCaptor.capture(), eq(sort), any());
+        assertThat(mapCaptor.getValue()).containsEntry("username", "%admin%");
+    }
+
     @Test
     void getAllUsers_withNoFilter_shouldCallRepositoryWithEmptyMap() {
         // Arrange
@@ -150,6 +226,7 @@ class DefaultUserServiceTest {
         verify(userRepository).save(userCaptor.capture());
         assertThat(userCaptor.getValue().getRole()).isNotNull();
         assertThat(userCaptor.getValue().getRole().getId()).isEqualTo(1L);
+        assertThat(userCaptor.getValue().getPassword()).isEqualTo("{test}s3cr3t");
     }
 
     @Test
@@ -190,6 +267,23 @@ class DefaultUserServiceTest {
         });
     }
 
+    @Test
+    void getUserById_whenUserRecentlyNotFound_shouldAnswerFromNegativeCache() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ((DefaultUserService) userService).setNotFoundCache(
+                new NotFoundCache(new ConcurrentMapCache("usersNotFound"), "user", registry));
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserById(99L));
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserById(99L));
+
+        verify(userRepository, times(1)).findById(99L);
+        assertThat(registry.get("resource.not_found").tags("resource", "user", "source", "database").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("resource.not_found").tags("resource", "user", "source", "cache").counter().count())
+                .isEqualTo(1);
+    }
+
     @Test
     void updateUser_whenUserAndRoleExist_shouldUpdateAndReturnDto() {
         // Arrange
@@ -210,6 +304,9 @@ class DefaultUserServiceTest {
         verify(userRepository).update(userCaptor.capture());
         assertThat(userCaptor.getValue().getUsername()).isEqualTo("admin@email.com");
         assertThat(userCaptor.getValue().getRole().getId()).isEqualTo(2L);
+        assertThat(userCaptor.getValue().getPassword()).isEqualTo("{test}s3cr3t");
+        // Token lama milik username sebelum update dicabut
+        verify(tokenRevocationService).revokeUser("Test User");
     }
 
     @Test
@@ -425,6 +522,59 @@ class DefaultUserServiceTest {
         boolean result = userService.deleteUser(1L);
         // Assert
         assertThat(result).isTrue();
+        // Mode stateful: tidak ada lookup tambahan hanya untuk pencabutan token
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void deleteUser_inStatelessMode_shouldRevokeTokensOfDeletedUser() {
+        // Arrange
+        when(tokenRevocationService.isEnabled()).thenReturn(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.deleteById(1L)).thenReturn(1);
+        // Act
+        userService.deleteUser(1L);
+        // Assert
+        verify(tokenRevocationService).revokeUser(user.getUsername());
+    }
+
+    @Test
+    void updateUser_shouldEvictOnlyOldAndNewUsernameFromPrincipalCache() {
+        org.springframework.cache.CacheManager cacheManager =
+                new org.springframework.cache.concurrent.ConcurrentMapCacheManager("userDetails");
+        org.springframework.cache.Cache userDetails = cacheManager.getCache("userDetails");
+        userDetails.put("Test User", user);
+        userDetails.put("renamed", user);
+        userDetails.put("other", new User("other", "x"));
+        ((DefaultUserService) userService).setCacheManager(cacheManager);
+        Role newRole = new Role("USER", "Regular user");
+        newRole.setId(2L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(roleRepository.findById(2L)).thenReturn(Optional.of(newRole));
+
+        userService.updateUser(1L, new UserRequestDto("renamed", "s3cr3t", 2L));
+
+        assertThat(userDetails.get("Test User")).isNull();
+        assertThat(userDetails.get("renamed")).isNull();
+        // Principal user lain tetap di cache
+        assertThat(userDetails.get("other")).isNotNull();
+    }
+
+    @Test
+    void deleteUser_shouldEvictOnlyDeletedUsernameFromPrincipalCache() {
+        org.springframework.cache.CacheManager cacheManager =
+                new org.springframework.cache.concurrent.ConcurrentMapCacheManager("userDetails");
+        org.springframework.cache.Cache userDetails = cacheManager.getCache("userDetails");
+        userDetails.put("Test User", user);
+        userDetails.put("other", new User("other", "x"));
+        ((DefaultUserService) userService).setCacheManager(cacheManager);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.deleteById(1L)).thenReturn(1);
+
+        userService.deleteUser(1L);
+
+        assertThat(userDetails.get("Test User")).isNull();
+        assertThat(userDetails.get("other")).isNotNull();
     }
 
     @Test
@@ -454,6 +604,97 @@ class DefaultUserServiceTest {
         ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
         verify(userRepository).update(userCaptor.capture());
         assertThat(userCaptor.getValue().getUsername()).isEqualTo("   "); // Di-set blank sesuai implementasi
-        assertThat(userCaptor.getValue().getPassword()).isEqualTo("   "); // Di-set blank sesuai implementasi
+        assertThat(userCaptor.getValue().getPassword()).isEqualTo("{test}   "); // Blank tetap di-hash
+    }
+
+    @Test
+    void getAllUsers_withCountStrategy_shouldPassStrategyToRepository() {
+        UserFilterDto filterDto = new UserFilterDto();
+        filterDto.setUsername("admin");
+        Slice<User> userSlice = new SliceImpl<>(List.of(user), PageRequest.of(0, 1), true);
+        when(userRepository.findAll(any(), anyMap(), eq(CountStrategy.NONE))).thenReturn(userSlice);
+        when(userMapper.toDto(user)).thenReturn(userResponseDto);
+
+        Slice<UserResponseDto> result = userService.getAllUsers(PageRequest.of(0, 1), filterDto, CountStrategy.NONE);
+
+        verify(userRepository).findAll(any(), mapCaptor.capture(), eq(CountStrategy.NONE));
+        assertThat(mapCaptor.getValue()).containsEntry("username", "%admin%");
+        assertThat(result.getContent()).containsExactly(userResponseDto);
+        assertThat(result.hasNext()).isTrue();
+    }
+
+    @Test
+    void createUsers_shouldResolveEachRoleOnceAndSaveInBatch() {
+        UserRequestDto first = new UserRequestDto("a@example.com", "secret1", 1L);
+        UserRequestDto second = new UserRequestDto("b@example.com", "secret2", 1L);
+        when(roleRepository.findById(1L)).thenReturn(Optional.of(role));
+        when(userMapper.toEntity(any(UserRequestDto.class))).thenAnswer(inv -> new User());
+        when(userRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        when(userMapper.toDto(any(User.class))).thenReturn(userResponseDto);
+
+        List<UserResponseDto> result = userService.createUsers(List.of(first, second));
+
+        assertThat(result).hasSize(2);
+        verify(roleRepository, times(1)).findById(1L);
+        verify(userRepository).saveAll(argThat(users -> users.size() == 2
+                && users.stream().allMatch(u -> u.getRole() == role)
+                && users.get(0).getPassword().equals("{test}secret1")));
+    }
+
+    @Test
+    void createUsers_withUnknownRole_shouldThrowAndSaveNothing() {
+        List<UserRequestDto> dtos = List.of(new UserRequestDto("a@example.com", "secret1", 99L));
+        when(roleRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.createUsers(dtos));
+        verify(userRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void createUsers_shouldHashInParallelBeforeOpeningTransaction() {
+        List<Boolean> hashedInTransaction = new java.util.concurrent.CopyOnWriteArrayList<>();
+        boolean[] inTransaction = { false };
+        TransactionOperations recordingTransactions = new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                inTransaction[0] = true;
+                try {
+                    return action.doInTransaction(null);
+                } finally {
+                    inTransaction[0] = false;
+                }
+            }
+        };
+        PasswordEncoder recordingEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                hashedInTransaction.add(inTransaction[0]);
+                return PASSWORD_ENCODER.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return PASSWORD_ENCODER.matches(rawPassword, encodedPassword);
+            }
+        };
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(recordingEncoder, 2, 4,
+                Duration.ofSeconds(10), Duration.ofSeconds(1), new SimpleMeterRegistry())) {
+            userService = new DefaultUserService(userRepository, roleRepository, userMapper, tokenRevocationService,
+                    encoder, recordingTransactions);
+            List<UserRequestDto> dtos = List.of(new UserRequestDto("a@example.com", "secret1", 1L),
+                    new UserRequestDto("b@example.com", "secret2", 1L),
+                    new UserRequestDto("c@example.com", "secret3", 1L));
+            when(roleRepository.findById(1L)).thenReturn(Optional.of(role));
+            when(userMapper.toEntity(any(UserRequestDto.class))).thenAnswer(inv -> new User());
+            when(userRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+            when(userMapper.toDto(any(User.class))).thenReturn(userResponseDto);
+
+            userService.createUsers(dtos);
+
+            assertThat(hashedInTransaction).containsOnly(false).hasSize(3);
+            // Urutan hash mengikuti urutan request walaupun dihitung paralel
+            verify(userRepository).saveAll(argThat(users -> users.stream().map(User::getPassword).toList()
+                    .equals(List.of("{test}secret1", "{test}secret2", "{test}secret3"))));
+        }
     }
 }
@@ -2,6 +2,11 @@ package com.example.crud.feature.user.service;
 
 import com.example.crud.feature.role.dto.RoleResponseDto;
 import com.example.crud.feature.user.dto.UserResponseDto;
+import com.example.crud.common.exception.ResourceNotFoundException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,7 +14,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -26,12 +33,19 @@ class ResilientUserServiceTest {
     @MockBean(name = "defaultUserService")
     private UserService defaultUserService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
     private CircuitBreaker circuitBreaker;
 
     @BeforeEach
     void setUp() {
         circuitBreaker = circuitBreakerRegistry.circuitBreaker("userService");
         circuitBreaker.reset();
+        cacheManager.getCache("users").clear();
     }
 
     @Test
@@ -81,28 +95,41 @@ class ResilientUserServiceTest {
     }
 
     @Test
-    void getAllUsers_whenDelegateFails_shouldOpenCircuitAndFallback() {
-        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.Pageable.unpaged();
-        when(defaultUserService.getAllUsers(eq(pageable), any())).thenThrow(new RuntimeException("DB down"));
+    void getAllUsers_whenDelegateFails_shouldOpenCircuitAndServeLastKnownPage() {
+        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(0, 10);
+        RoleResponseDto roleDto = new RoleResponseDto(5L, "USER", "User role");
+        org.springframework.data.domain.Page<UserResponseDto> lastKnownPage = new org.springframework.data.domain.PageImpl<>(
+                java.util.List.of(new UserResponseDto(5L, "User5", "user5@example.com", roleDto)), pageable, 1);
+        when(defaultUserService.getAllUsers(eq(pageable), any()))
+                .thenReturn(lastKnownPage)
+                .thenThrow(new RuntimeException("DB down"));
+        resilientUserService.getAllUsers(pageable, null);
 
         // Open the circuit breaker by failing multiple times
         for (int i = 0; i < 10; i++) {
-            try {
-                resilientUserService.getAllUsers(pageable, null);
-            } catch (Exception ignored) {
-                // Exception intentionally ignored to trigger circuit breaker open state
-            }
+            resilientUserService.getAllUsers(pageable, null);
         }
         assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
 
-        // Now call again, should hit fallback
+        // Fallback menyajikan halaman sukses terakhir, bukan halaman kosong
         org.springframework.data.domain.Page<UserResponseDto> fallbackPage = resilientUserService.getAllUsers(pageable,
                 null);
-        assertThat(fallbackPage.getTotalElements()).isZero();
-        assertThat(fallbackPage.getContent()).isEmpty();
+        assertThat(fallbackPage.getTotalElements()).isEqualTo(1);
+        assertThat(fallbackPage.getContent()).extracting(UserResponseDto::username).containsExactly("User5");
+        // 1 sukses + 9 gagal sudah memenuhi sliding window; panggilan berikutnya tidak diteruskan
         verify(defaultUserService, times(10)).getAllUsers(eq(pageable), any());
     }
 
+    @Test
+    void getAllUsers_whenCircuitOpenWithoutLastKnownPage_shouldFail() {
+        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(3, 10);
+        circuitBreaker.transitionToOpenState();
+
+        assertThatThrownBy(() -> resilientUserService.getAllUsers(pageable, null))
+                .isInstanceOf(CallNotPermittedException.class);
+        verifyNoInteractions(defaultUserService);
+    }
+
     @Test
     void getUserById_whenDelegateSucceeds_shouldReturnData() {
         // Arrange
@@ -122,29 +149,120 @@ class ResilientUserServiceTest {
     }
 
     @Test
-    void getUserById_whenDelegateFails_shouldOpenCircuitAndFallback() {
-        // Arrange: Simulasikan service dasar selalu gagal
+    void getUserById_whenDelegateFails_shouldOpenCircuitAndServeLastKnownUser() {
+        RoleResponseDto roleDto = new RoleResponseDto(1L, "ADMIN", "Administrator");
+        when(defaultUserService.getUserById(10L))
+                .thenReturn(new UserResponseDto(10L, "Known User", "known@example.com", roleDto));
+        resilientUserService.getUserById(10L);
         when(defaultUserService.getUserById(anyLong())).thenThrow(new RuntimeException("Database down!"));
 
         // Act & Assert: Panggil beberapa kali untuk membuka sirkuit
         for (int i = 0; i < 10; i++) {
             try {
-                resilientUserService.getUserById(1L);
+                resilientUserService.getUserById(11L);
             } catch (Exception e) {
-                // Abaikan exception untuk tujuan test
+                // Belum ada data lama untuk id 11, kegagalan diteruskan
             }
         }
-
-        // Verifikasi sirkuit sekarang TERBUKA
         assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
 
-        // Act: Panggil sekali lagi saat sirkuit sudah terbuka
-        UserResponseDto fallbackResult = resilientUserService.getUserById(2L);
-
-        // Assert: Pastikan metode fallback yang dipanggil
-        assertThat(fallbackResult.username()).isEqualTo("fallback@example.com");
+        // Data lama disajikan untuk user yang pernah dibaca, bukan user palsu
+        assertThat(resilientUserService.getUserById(10L).username()).isEqualTo("Known User");
+        assertThatThrownBy(() -> resilientUserService.getUserById(12L)).isInstanceOf(CallNotPermittedException.class);
 
-        // Verifikasi bahwa service dasar TIDAK dipanggil lagi
+        // Verifikasi bahwa service dasar TIDAK dipanggil lagi setelah 1 sukses + 9 gagal
         verify(defaultUserService, times(10)).getUserById(anyLong());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUserById_whenUserIsCached_shouldBypassOpenCircuit() {
+        UserResponseDto cachedUser = new UserResponseDto(20L, "Cached User", "cached@example.com", null);
+        cacheManager.getCache("users").put(20L, cachedUser);
+        circuitBreaker.transitionToOpenState();
+
+        assertThat(resilientUserService.getUserById(20L)).isEqualTo(cachedUser);
+        assertThat(circuitBreaker.getMetrics().getNumberOfNotPermittedCalls()).isZero();
+        verifyNoInteractions(defaultUserService);
+    }
+
+    @Test
+    void getUserById_whenUserDoesNotExist_shouldNotCountAsFailure() {
+        when(defaultUserService.getUserById(30L)).thenThrow(new ResourceNotFoundException("User not found"));
+
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> resilientUserService.getUserById(30L))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void getAllUsers_whenListBulkheadIsFull_shouldShedWithoutOpeningCircuit() {
+        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(7, 10);
+        Bulkhead listBulkhead = bulkheadRegistry.bulkhead("userList");
+        int permits = listBulkhead.getBulkheadConfig().getMaxConcurrentCalls();
+        for (int i = 0; i < permits; i++) {
+            listBulkhead.acquirePermission();
+        }
+        try {
+            assertThatThrownBy(() -> resilientUserService.getAllUsers(pageable, null))
+                    .isInstanceOf(BulkheadFullException.class);
+
+            // Lookup memakai bulkhead sendiri dan tetap dilayani
+            when(defaultUserService.getUserById(40L)).thenReturn(new UserResponseDto(40L, "Lookup", "l@example.com", null));
+            assertThat(resilientUserService.getUserById(40L).username()).isEqualTo("Lookup");
+        } finally {
+            for (int i = 0; i < permits; i++) {
+                listBulkhead.onComplete();
+            }
+        }
+
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isZero();
+        verify(defaultUserService, never()).getAllUsers(eq(pageable), any());
+    }
+
+    @Test
+    void getUserById_whenLookupBulkheadIsFull_shouldShedEvenWithLastKnownUser() {
+        when(defaultUserService.getUserById(50L)).thenReturn(new UserResponseDto(50L, "Stale", "s@example.com", null));
+        resilientUserService.getUserById(50L);
+        cacheManager.getCache("users").clear();
+        Bulkhead lookupBulkhead = bulkheadRegistry.bulkhead("userLookup");
+        int permits = lookupBulkhead.getBulkheadConfig().getMaxConcurrentCalls();
+        for (int i = 0; i < permits; i++) {
+            lookupBulkhead.acquirePermission();
+        }
+        try {
+            // Penolakan karena beban menjadi 503, bukan data lama yang terlihat seperti sukses
+            assertThatThrownBy(() -> resilientUserService.getUserById(50L))
+                    .isInstanceOf(BulkheadFullException.class);
+        } finally {
+            for (int i = 0; i < permits; i++) {
+                lookupBulkhead.onComplete();
+            }
+        }
+        verify(defaultUserService, times(1)).getUserById(50L);
+    }
+
+    @Test
+    void getAllUsers_whenListBulkheadIsFull_shouldShedEvenWithLastKnownPage() {
+        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(8, 10);
+        when(defaultUserService.getAllUsers(eq(pageable), any()))
+                .thenReturn(new org.springframework.data.domain.PageImpl<>(java.util.List.of(), pageable, 0));
+        resilientUserService.getAllUsers(pageable, null);
+        Bulkhead listBulkhead = bulkheadRegistry.bulkhead("userList");
+        int permits = listBulkhead.getBulkheadConfig().getMaxConcurrentCalls();
+        for (int i = 0; i < permits; i++) {
+            listBulkhead.acquirePermission();
+        }
+        try {
+            assertThatThrownBy(() -> resilientUserService.getAllUsers(pageable, null))
+                    .isInstanceOf(BulkheadFullException.class);
+        } finally {
+            for (int i = 0; i < permits; i++) {
+                listBulkhead.onComplete();
+            }
+        }
+        verify(defaultUserService, times(1)).getAllUsers(eq(pageable), any());
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.crud.feature.user.service;
+
+import com.example.crud.aop.AuditTrailAspect;
+import com.example.crud.common.exception.InvalidImportFileException;
+import com.example.crud.common.export.ExportFormat;
+import com.example.crud.common.security.BoundedPasswordEncoder;
+import com.example.crud.feature.role.model.Role;
+import com.example.crud.feature.role.repository.RoleRepository;
+import com.example.crud.feature.user.dto.UserImportRejectDto;
+import com.example.crud.feature.user.dto.UserImportResultDto;
+import com.example.crud.feature.user.repository.UserRepository;
+import com.example.crud.feature.user.repository.UserRepository.BulkInsertResult;
+import com.example.crud.feature.user.repository.UserRepository.DuplicateUser;
+import com.example.crud.feature.user.repository.UserRepository.StagedUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    private static jakarta.validation.ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private AuditTrailAspect auditTrailAspect;
+
+    private UserImportService userImportService;
+    private final List<StagedUser> staged = new ArrayList<>();
+
+    /**
+     * Encoder deterministik untuk memastikan password di-hash sebelum disimpan.
+     */
+    private static final PasswordEncoder PASSWORD_ENCODER = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "{test}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    };
+
+    @BeforeAll
+    static void createValidator() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        userImportService = new UserImportService(userRepository, roleRepository, validator, new ObjectMapper(),
+                auditTrailAspect, PASSWORD_ENCODER);
+        doAnswer(invocation -> {
+            Consumer<Role> action = invocation.getArgument(2);
+            Role admin = new Role("ADMIN", "Administrator");
+            admin.setId(1L);
+            Role user = new Role("USER", "User");
+            user.setId(2L);
+            action.accept(admin);
+            action.accept(user);
+            return 2L;
+        }).when(roleRepository).streamAll(anyMap(), any(), any());
+    }
+
+    private void stubBulkInsert(List<DuplicateUser> duplicates) {
+        when(auditTrailAspect.getCurrentUsername()).thenReturn("admin@email.com");
+        when(userRepository.bulkInsert(any(), eq("admin@email.com"), any(), anyInt())).thenAnswer(invocation -> {
+            Stream<StagedUser> users = invocation.getArgument(0);
+            users.forEach(staged::add);
+            return new BulkInsertResult(staged.size() - duplicates.size(), duplicates.size(), duplicates);
+        });
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importUsers_fromCsv_shouldStageValidRowsAndReportRejects() throws IOException {
+        stubBulkInsert(List.of(new DuplicateUser(5, "dup@example.com")));
+        String csv = """
+                role,username,password
+                ADMIN,new@example.com,secret1
+                UNKNOWN,other@example.com,secret1
+                USER,not-an-email,secret1
+                USER,dup@example.com,secret1
+                USER,too-few-fields
+                """;
+
+        UserImportResultDto result = userImportService.importUsers(body(csv), ExportFormat.CSV);
+
+        assertThat(staged).containsExactly(
+                new StagedUser(2, "new@example.com", "{test}secret1", 1L),
+                new StagedUser(5, "dup@example.com", "{test}secret1", 2L));
+        assertThat(result.totalRows()).isEqualTo(5);
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.rejected()).isEqualTo(4);
+        assertThat(result.rowsPerSecond()).isPositive();
+        assertThat(result.rejects()).extracting(UserImportRejectDto::line).containsExactly(3L, 4L, 5L, 6L);
+        assertThat(result.rejects()).extracting(UserImportRejectDto::reason).containsExactly(
+                "Role not found with name: UNKNOWN",
+                "Username must be a valid email format",
+                "Username already exists",
+                "Expected 3 fields but found 2");
+    }
+
+    @Test
+    void importUsers_fromNdjson_shouldRejectMalformedLines() throws IOException {
+        stubBulkInsert(List.of());
+        String ndjson = """
+                {"username":"new@example.com","password":"secret1","role":"USER"}
+                {"username":
+
+                {"username":"short@example.com","password":"x","role":"USER"}
+                """;
+
+        UserImportResultDto result = userImportService.importUsers(body(ndjson), ExportFormat.NDJSON);
+
+        assertThat(staged).containsExactly(new StagedUser(1, "new@example.com", "{test}secret1", 2L));
+        assertThat(result.totalRows()).isEqualTo(3);
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.rejects()).extracting(UserImportRejectDto::line).containsExactly(2L, 4L);
+        assertThat(result.rejects().get(0).reason()).startsWith("Malformed JSON");
+        assertThat(result.rejects().get(1).reason()).isEqualTo("Password must be between 6 and 12 characters");
+    }
+
+    @Test
+    void importUsers_withCsvMissingColumns_shouldThrow() {
+        assertThatThrownBy(() -> userImportService.importUsers(body("username,password\na@b.com,secret1\n"),
+                ExportFormat.CSV))
+                .isInstanceOf(InvalidImportFileException.class);
+        // File ditolak sebelum transaksi import dibuka
+        verify(userRepository, never()).bulkInsert(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void importUsers_shouldHashOnPoolInChunksAndRejectFailedHashes() throws IOException {
+        List<String> hashedBeforeInsert = new ArrayList<>();
+        PasswordEncoder failingForOneRow = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                if ("failme".contentEquals(rawPassword)) {
+                    throw new IllegalStateException("hash failed");
+                }
+                synchronized (hashedBeforeInsert) {
+                    hashedBeforeInsert.add(rawPassword.toString());
+                }
+                return "{test}" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(failingForOneRow, 2, 4,
+                Duration.ofSeconds(10), Duration.ofSeconds(1), new SimpleMeterRegistry())) {
+            userImportService = new UserImportService(userRepository, roleRepository, validator, new ObjectMapper(),
+                    auditTrailAspect, encoder);
+            when(auditTrailAspect.getCurrentUsername()).thenReturn("admin@email.com");
+            when(userRepository.bulkInsert(any(), any(), any(), anyInt())).thenAnswer(invocation -> {
+                // Stream di-hash per chunk sebesar pool (2), bukan seluruh file sekaligus
+                assertThat(hashedBeforeInsert).hasSizeLessThanOrEqualTo(2);
+                Stream<StagedUser> users = invocation.getArgument(0);
+                users.forEach(staged::add);
+                assertThat(hashedBeforeInsert).hasSize(3);
+                return new BulkInsertResult(staged.size(), 0, List.of());
+            });
+            String csv = """
+                    username,password,role
+                    a@example.com,secret1,USER
+                    b@example.com,failme,USER
+                    c@example.com,secret3,USER
+                    d@example.com,secret4,ADMIN
+                    """;
+
+            UserImportResultDto result = userImportService.importUsers(body(csv), ExportFormat.CSV);
+
+            assertThat(staged).extracting(StagedUser::line).containsExactly(2L, 4L, 5L);
+            assertThat(staged).extracting(StagedUser::password)
+                    .containsExactly("{test}secret1", "{test}secret3", "{test}secret4");
+            assertThat(result.imported()).isEqualTo(3);
+            assertThat(result.rejects()).singleElement().satisfies(reject -> {
+                assertThat(reject.line()).isEqualTo(3);
+                assertThat(reject.username()).isEqualTo("b@example.com");
+                assertThat(reject.reason()).isEqualTo("Password hashing failed, retry this row");
+            });
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.crud.util;
 
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.lang.reflect.Constructor;
@@ -8,6 +11,13 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class TimerUtilTest {
 
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        TimerUtil.unbind(registry);
+    }
+
     @Test
     void timeSupplier() {
         // When
@@ -37,4 +47,86 @@ class TimerUtilTest {
             .hasCauseInstanceOf(IllegalStateException.class)
             .hasRootCauseMessage("Utility class");
     }
+
+    @Test
+    void time_withBoundRegistry_shouldRecordTimerTaggedByTableAndOperation() {
+        // Given
+        TimerUtil.bind(registry);
+
+        // When
+        String result = TimerUtil.time("users", "findById", () -> "result");
+        TimerUtil.time("users", "findById", () -> "again");
+
+        // Then
+        assertThat(result).isEqualTo("result");
+        Timer timer = registry.get(TimerUtil.METRIC_NAME)
+            .tag("table", "users")
+            .tag("operation", "findById")
+            .tag("outcome", "success")
+            .timer();
+        assertThat(timer.count()).isEqualTo(2);
+    }
+
+    @Test
+    void time_whenSupplierThrows_shouldRecordErrorOutcomeAndRethrow() {
+        // Given
+        TimerUtil.bind(registry);
+
+        // When & Then
+        assertThatThrownBy(() -> TimerUtil.time("roles", "save", () -> {
+            throw new IllegalArgumentException("boom");
+        })).isInstanceOf(IllegalArgumentException.class);
+        assertThat(registry.get(TimerUtil.METRIC_NAME)
+            .tag("table", "roles")
+            .tag("outcome", "error")
+            .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void time_afterUnbind_shouldNotRecord() {
+        // Given
+        TimerUtil.bind(registry);
+        TimerUtil.unbind(registry);
+
+        // When
+        TimerUtil.time("users", "deleteById", () -> 1);
+
+        // Then
+        assertThat(registry.find(TimerUtil.METRIC_NAME).timers()).isEmpty();
+    }
+
+    @Test
+    void unbind_withOtherRegistry_shouldKeepCurrentBinding() {
+        // Given
+        TimerUtil.bind(registry);
+
+        // When
+        TimerUtil.unbind(new SimpleMeterRegistry());
+        TimerUtil.time("users", "update", () -> 1);
+
+        // Then
+        assertThat(registry.find(TimerUtil.METRIC_NAME).timers()).hasSize(1);
+    }
+
+    @Test
+    void operationHandle_shouldRecordAndFollowRegistryRebinding() {
+        // Given
+        TimerUtil.Operation findById = TimerUtil.operation("users", "findById");
+        TimerUtil.bind(registry);
+
+        // When
+        findById.time(() -> "first");
+        assertThatThrownBy(() -> findById.time(() -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        SimpleMeterRegistry rebound = new SimpleMeterRegistry();
+        TimerUtil.bind(rebound);
+        findById.time(() -> "second");
+
+        // Then
+        assertThat(registry.get(TimerUtil.METRIC_NAME).tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(registry.get(TimerUtil.METRIC_NAME).tag("outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(rebound.get(TimerUtil.METRIC_NAME).tag("outcome", "success").timer().count()).isEqualTo(1);
+        TimerUtil.unbind(rebound);
+    }
 }